@@ -0,0 +1,29 @@
+package io.github.danidrd.matchingpairs.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+public class BenchmarkRunner {
+    /**
+     * Runs the benchmarks selected on the command line with the gc profiler
+     * always enabled, so every report includes the allocation rate next to
+     * the throughput.
+     * <p>
+     * Accepts the same arguments as the JMH command line, for example
+     * {@code java -jar target/benchmarks.jar EngineBenchmark -p pairs=1024}.
+     * <p>
+     * @param args the JMH command line arguments
+     */
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
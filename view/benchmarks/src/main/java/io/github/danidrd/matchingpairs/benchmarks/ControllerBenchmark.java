@@ -0,0 +1,82 @@
+package io.github.danidrd.matchingpairs.benchmarks;
+
+import io.github.danidrd.matchingpairs.controller.GameController;
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the moves {@link GameController} handles and the bookkeeping
+ * it does at the end of each match and each game. The controller is used
+ * without a board view.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ControllerBenchmark {
+
+    @Param({"4", "64", "1024", "65536"})
+    private int pairs;
+
+    private GameController controller;
+    private int[] firstSeen;
+
+    /**
+     * Creates a fresh controller for every iteration so the leaderboard
+     * grows from empty within an iteration only.
+     */
+    @Setup(Level.Iteration)
+    public void setUp() {
+        controller = new GameController(List.of("Player 1", "Player 2", "Player 3", "Player 4"));
+        controller.getEngine().reset(pairs);
+        firstSeen = new int[pairs + 1];
+    }
+
+    /**
+     * Plays a whole game through the event bus, like clicks on the board: a
+     * shuffle, then every pair flipped without a mismatch, each flip handled
+     * by {@code handleCardFlip}, up to the end of the game.
+     */
+    @Benchmark
+    public int playGame() {
+        GameEventBus eventBus = controller.getEventBus();
+        GameEngine engine = controller.getEngine();
+        eventBus.fireShuffleRequested();
+        Arrays.fill(firstSeen, -1);
+        for (int i = 0; i < engine.getCardCount(); i++) {
+            int value = engine.getValue(i);
+            if (firstSeen[value] < 0) {
+                firstSeen[value] = i;
+            } else {
+                eventBus.requestCardState(firstSeen[value], GameEngine.FACE_DOWN, GameEngine.FACE_UP);
+                eventBus.requestCardState(i, GameEngine.FACE_DOWN, GameEngine.FACE_UP);
+            }
+        }
+        return engine.getTotalFlips();
+    }
+
+    /**
+     * Adds a result to the leaderboard of the benchmarked board size.
+     */
+    @Benchmark
+    public int updateLeaderboard() {
+        controller.updateLeaderboard(pairs, "Player 1");
+        return controller.getLeaderboard().getBestFlips(pairs);
+    }
+
+    /**
+     * Checks that the per-player matched pairs add up to the global count.
+     */
+    @Benchmark
+    public int verifyMatchingPairsConsistency() {
+        controller.verifyMatchingPairsConsistency();
+        return controller.getGlobalMatchedPairs();
+    }
+}
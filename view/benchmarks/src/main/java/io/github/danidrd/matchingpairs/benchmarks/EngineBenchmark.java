@@ -0,0 +1,104 @@
+package io.github.danidrd.matchingpairs.benchmarks;
+
+import io.github.danidrd.matchingpairs.model.CardShuffler;
+import io.github.danidrd.matchingpairs.model.FlipResult;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks for the move loop of {@link GameEngine}, which backs
+ * {@code GameController.handleCardFlip} and {@code GameController.shuffleCards}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark {
+
+    @Param({"4", "64", "1024", "65536"})
+    private int pairs;
+
+    private GameEngine engine;
+    private final CardShuffler shuffler = new CardShuffler();
+    private int[] values;
+    private int[] firstSeen;
+    private int mismatchFirst;
+    private int mismatchSecond;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new GameEngine(2);
+        engine.reset(pairs);
+        values = new int[pairs * 2];
+        firstSeen = new int[pairs + 1];
+
+        // Pick two cards with different values for the mismatch turn
+        mismatchFirst = 0;
+        mismatchSecond = 1;
+        while (engine.getValue(mismatchSecond) == engine.getValue(mismatchFirst)) {
+            mismatchSecond++;
+        }
+    }
+
+    /**
+     * Regenerates and shuffles every card value on the board.
+     */
+    @Benchmark
+    public int shuffle() {
+        engine.shuffle();
+        return engine.getValue(0);
+    }
+
+    /**
+     * Deals every card value into a reused buffer, the work of the former
+     * {@code GameController.generateCardValues}, without the engine around it.
+     */
+    @Benchmark
+    public int dealCardValues() {
+        shuffler.deal(values, pairs);
+        return values[0];
+    }
+
+    /**
+     * Flips two cards that do not match and turns them back face down.
+     */
+    @Benchmark
+    public FlipResult mismatchTurn() {
+        engine.flip(mismatchFirst);
+        FlipResult result = engine.flip(mismatchSecond);
+        engine.resolveMismatch();
+        return result;
+    }
+
+    /**
+     * Counts the cards still face down, a word of packed states at a time.
+     */
+    @Benchmark
+    public int countFaceDown() {
+        return engine.countCards(GameEngine.FACE_DOWN);
+    }
+
+    /**
+     * Shuffles the board and plays a whole game without a single mismatch.
+     */
+    @Benchmark
+    public int playGame() {
+        engine.shuffle();
+        Arrays.fill(firstSeen, -1);
+        for (int i = 0; i < engine.getCardCount(); i++) {
+            int value = engine.getValue(i);
+            if (firstSeen[value] < 0) {
+                firstSeen[value] = i;
+            } else {
+                engine.flip(firstSeen[value]);
+                engine.flip(i);
+            }
+        }
+        return engine.getTotalFlips();
+    }
+}
@@ -0,0 +1,87 @@
+package io.github.danidrd.matchingpairs;
+
+import org.jboss.weld.environment.se.Weld;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+
+/**
+ * Starts the CDI container only when something on the classpath needs it.
+ * <p>
+ * The game itself uses no CDI beans, and booting Weld scans the classpath and
+ * loads hundreds of classes, a large share of a cold start. The
+ * container is therefore started only if a portable extension is registered
+ * in {@code META-INF/services/jakarta.enterprise.inject.spi.Extension} by a
+ * jar other than Weld itself, or if the {@code matchingpairs.cdi} system
+ * property is true. It is then booted on a background thread after the board
+ * is shown, and Weld shuts it down when the application exits.
+ * <p>
+ * Weld classes are only referenced from {@link #start()}, so they are not
+ * loaded when the container is skipped.
+ */
+final class ContainerBootstrap {
+    private static final String EXTENSION_SERVICE = "META-INF/services/jakarta.enterprise.inject.spi.Extension";
+    private static final String WELD_PACKAGE = "org.jboss.weld.";
+
+    private ContainerBootstrap() {
+    }
+
+    /**
+     * Starts the CDI container on a daemon thread if a CDI extension is present or CDI is forced on.
+     */
+    static void startIfNeeded() {
+        if (!Boolean.getBoolean("matchingpairs.cdi") && !hasExtensions()) {
+            return;
+        }
+        Thread thread = new Thread(ContainerBootstrap::start, "cdi-bootstrap");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Looks for portable extensions registered by jars other than Weld, without loading any class.
+     *
+     * @return true if at least one extension is registered outside Weld
+     */
+    static boolean hasExtensions() {
+        try {
+            Enumeration<URL> services = ContainerBootstrap.class.getClassLoader().getResources(EXTENSION_SERVICE);
+            while (services.hasMoreElements()) {
+                if (registersExtension(services.nextElement())) {
+                    return true;
+                }
+            }
+        } catch (IOException e) {
+            System.err.println("Cannot look for CDI extensions: " + e.getMessage());
+        }
+        return false;
+    }
+
+    private static boolean registersExtension(URL service) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(service.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int comment = line.indexOf('#');
+                String provider = (comment >= 0 ? line.substring(0, comment) : line).trim();
+                if (!provider.isEmpty() && !provider.startsWith(WELD_PACKAGE)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static void start() {
+        try {
+            // Weld registers its own shutdown hook for the container
+            new Weld().initialize();
+        } catch (RuntimeException e) {
+            System.err.println("Cannot start CDI container: " + e.getMessage());
+        }
+    }
+}
@@ -1,9 +1,22 @@
 package io.github.danidrd.matchingpairs;
 
+import io.github.danidrd.matchingpairs.bot.PerfectMemoryBot;
 import io.github.danidrd.matchingpairs.controller.GameController;
+import io.github.danidrd.matchingpairs.leaderboard.LeaderboardStore;
+import io.github.danidrd.matchingpairs.metrics.GameMetrics;
+import io.github.danidrd.matchingpairs.model.GameSnapshot;
+import io.github.danidrd.matchingpairs.model.MoveLog;
 import io.github.danidrd.matchingpairs.view.BoardView;
 
 import javax.swing.*;
+import java.awt.GraphicsEnvironment;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -15,23 +28,228 @@ public class MatchingPairsGame {
      * It creates a new {@link BoardView} with 16 cards and a new
      * {@link GameController} passing the {@link BoardView} as argument.
      * <p>
+     * The leaderboard is loaded from, and saved to, the {@link LeaderboardStore}
+     * in the user's home directory.
+     * <p>
+     * When started with {@code --replay <file>}, the game saved in the given
+     * move log is rebuilt instead of prompting for players. When started with
+     * {@code --resume <file>}, the game saved in the given checkpoint is resumed
+     * at its last move; checkpoints are written when the
+     * {@code matchingpairs.checkpoint} system property names a file. When
+     * started with {@code --startup-profile}, a one player game is opened
+     * without prompts, the time to its first frame is printed and the game exits.
+     * <p>
+     * The CDI container is only started if a CDI extension is on the classpath,
+     * see {@link ContainerBootstrap}.
+     * <p>
      * @param args the command line arguments
      */
     public static void main(String[] args){
+        long mainNanos = System.nanoTime();
+        if (args.length == 1 && "--startup-profile".equals(args[0])) {
+            profileStartup(mainNanos);
+            return;
+        }
+        if (args.length == 2 && "--replay".equals(args[0])) {
+            replay(Path.of(args[1]));
+            return;
+        }
+        if (args.length == 2 && "--resume".equals(args[0])) {
+            resume(Path.of(args[1]));
+            return;
+        }
+
+        LeaderboardStore store = openLeaderboardStore();
+
         SwingUtilities.invokeLater(() -> {
 
             int numPlayers = getNumberOfPlayers();
-            List<String> playerNames = getPlayerNames(numPlayers);
+            List<Seat> seats = getSeats(numPlayers);
+            List<String> playerNames = new ArrayList<>();
+            for (Seat seat : seats) {
+                playerNames.add(seat.name());
+            }
 
 
-            GameController controller = new GameController(playerNames); // Create controller
+            GameController controller = new GameController(playerNames, store); // Create controller
+            for (int i = 0; i < seats.size(); i++) {
+                if (seats.get(i).bot()) {
+                    controller.setBot(i, new PerfectMemoryBot());
+                }
+            }
+            startMetrics(controller);
             BoardView boardView = new BoardView(controller); // Example with 16 cards
             controller.initialize(boardView);
+            ContainerBootstrap.startIfNeeded();
 
 
         });
     }
 
+    /**
+     * Opens a one player game the way {@link #main(String[])} does, without
+     * prompting for players, and prints the time to its first frame before exiting.
+     * <p>
+     * The first frame is reached once the opening paint of the board has run.
+     * The time is measured both from the start of the JVM, which includes its
+     * boot and class loading, and from the start of {@code main}. The number of
+     * loaded classes shows what a class data sharing archive saves; the same
+     * run is used to create the archive, see the README.
+     * <p>
+     * The leaderboard is kept in memory and no checkpoint is written, so a
+     * profiling run neither reads nor writes anything in the user's home directory.
+     * <p>
+     * @param mainNanos the {@link System#nanoTime()} reading taken when {@code main} started
+     */
+    private static void profileStartup(long mainNanos) {
+        if (GraphicsEnvironment.isHeadless()) {
+            System.err.println("The startup profile needs a display");
+            System.exit(1);
+            return;
+        }
+        SwingUtilities.invokeLater(() -> {
+            GameController controller = new GameController(List.of("Player 1"));
+            controller.setCheckpointFile(null);
+            startMetrics(controller);
+            BoardView boardView = new BoardView(controller);
+            boardView.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    // The opening paint is queued with this event, so report after it
+                    SwingUtilities.invokeLater(() -> {
+                        long fromMainMillis = (System.nanoTime() - mainNanos) / 1_000_000;
+                        System.out.println("Startup profile: first frame after "
+                                + ManagementFactory.getRuntimeMXBean().getUptime() + " ms from JVM start, "
+                                + fromMainMillis + " ms from main, "
+                                + ManagementFactory.getClassLoadingMXBean().getTotalLoadedClassCount()
+                                + " classes loaded");
+                        System.exit(0);
+                    });
+                }
+            });
+            controller.initialize(boardView);
+            ContainerBootstrap.startIfNeeded();
+        });
+    }
+
+    /**
+     * Opens the leaderboard store in its default directory and makes sure
+     * queued results are written when the application exits.
+     * <p>
+     * @return the opened store, or null if it cannot be opened
+     */
+    private static LeaderboardStore openLeaderboardStore() {
+        try {
+            LeaderboardStore store = LeaderboardStore.open(LeaderboardStore.defaultDirectory());
+            Runtime.getRuntime().addShutdownHook(new Thread(store::close, "leaderboard-close"));
+            return store;
+        } catch (IOException e) {
+            System.err.println("Cannot open leaderboard store, scores will not be saved: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Publishes the metrics of the game as a JMX MBean and starts watching
+     * the event dispatch thread for stalls.
+     * <p>
+     * The stall threshold is read from the {@code matchingpairs.edtStallMillis}
+     * system property, 100 ms by default. If the {@code matchingpairs.metricsLogSeconds}
+     * system property is set, the metrics are also printed at that period.
+     * <p>
+     * @param controller the controller owning the metrics
+     */
+    private static void startMetrics(GameController controller) {
+        GameMetrics metrics = controller.getMetrics();
+        metrics.registerMBean();
+        metrics.startStallDetector(Long.getLong("matchingpairs.edtStallMillis", 100));
+        long logSeconds = Long.getLong("matchingpairs.metricsLogSeconds", 0);
+        if (logSeconds > 0) {
+            metrics.startReporting(logSeconds);
+        }
+    }
+
+    /**
+     * Rebuilds a recorded game from a move log file.
+     * <p>
+     * Players are named after their seat, since the log only records
+     * the number of players.
+     * <p>
+     * @param file the move log file to replay
+     */
+    private static void replay(Path file) {
+        MoveLog log;
+        try (InputStream in = Files.newInputStream(file)) {
+            log = MoveLog.readFrom(in);
+        } catch (IOException e) {
+            System.err.println("Cannot read move log " + file + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            List<String> playerNames = new ArrayList<>();
+            for (int i = 1; i <= log.getNumberOfPlayers(); i++) {
+                playerNames.add("Player " + i);
+            }
+
+            GameController controller = new GameController(playerNames);
+            startMetrics(controller);
+            BoardView boardView = new BoardView(controller);
+            controller.initialize(boardView);
+            ContainerBootstrap.startIfNeeded();
+            controller.replay(log);
+        });
+    }
+
+    /**
+     * Resumes a checkpointed game at its last move.
+     * <p>
+     * Players are named after their seat, like in a replay. The checkpoint
+     * keeps being updated unless another file is set by the
+     * {@code matchingpairs.checkpoint} system property.
+     * <p>
+     * @param file the checkpoint file to resume
+     */
+    private static void resume(Path file) {
+        int numPlayers;
+        try {
+            numPlayers = GameSnapshot.readNumberOfPlayers(file);
+        } catch (IOException e) {
+            System.err.println("Cannot read checkpoint " + file + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        LeaderboardStore store = openLeaderboardStore();
+
+        SwingUtilities.invokeLater(() -> {
+            List<String> playerNames = new ArrayList<>();
+            for (int i = 1; i <= numPlayers; i++) {
+                playerNames.add("Player " + i);
+            }
+
+            GameController controller = new GameController(playerNames, store);
+            startMetrics(controller);
+            Path checkpointFile = controller.getCheckpointFile() != null ? controller.getCheckpointFile() : file;
+            // The initial game must not overwrite the checkpoint before it is read
+            controller.setCheckpointFile(null);
+            BoardView boardView = new BoardView(controller);
+            controller.initialize(boardView);
+            ContainerBootstrap.startIfNeeded();
+            controller.setCheckpointFile(checkpointFile);
+            try {
+                controller.resume(file);
+            } catch (IOException | IllegalArgumentException e) {
+                JOptionPane.showMessageDialog(
+                        boardView,
+                        "Could not resume the game: " + e.getMessage(),
+                        "Error",
+                        JOptionPane.ERROR_MESSAGE
+                );
+            }
+        });
+    }
+
     /**
      * Gets the number of players from the user.
      * <p>
@@ -78,33 +296,46 @@ public class MatchingPairsGame {
     }
 
     /**
-     * Gets the names of the players from the user.
+     * A player seat, with the name of its player and whether a computer plays it.
+     * <p>
+     * @param name the name of the player
+     * @param bot true if a computer player takes the seat
+     */
+    private record Seat(String name, boolean bot) {
+    }
+
+    /**
+     * Gets the players of each seat from the user.
      * <p>
      * This method will continue to prompt the user for input until
      * a valid name is entered for each of the given number of players.
-     * A valid name is a non-empty string.
+     * A valid name is a non-empty string. Entering {@code bot} seats a
+     * computer player, named after its seat; a human may still pick
+     * the same name without handing the seat to the computer.
      * <p>
      * @param numPlayers the number of players to prompt for
-     * @return a list of player names
+     * @return the seats, in turn order
      */
-    private static List<String> getPlayerNames(int numPlayers) {
-        List<String> playerNames = new ArrayList<>();
+    private static List<Seat> getSeats(int numPlayers) {
+        List<Seat> seats = new ArrayList<>();
         for( int i = 1; i <= numPlayers; i++){
             String name = JOptionPane.showInputDialog(
                     null,
-                    "Enter the name for Player " + i + ":",
+                    "Enter the name for Player " + i + " (or \"bot\" for a computer player):",
                     "Player Name",
                     JOptionPane.PLAIN_MESSAGE
             );
 
             if ( name == null || name.trim().isEmpty()){
-                name = "Player " + i; // Default name
+                seats.add(new Seat("Player " + i, false)); // Default name
+            } else if (name.trim().equalsIgnoreCase("bot")) {
+                seats.add(new Seat("Bot " + i, true));
+            } else {
+                seats.add(new Seat(name, false));
             }
-
-            playerNames.add(name);
         }
 
-        return playerNames;
+        return seats;
     }
 
 
@@ -0,0 +1,48 @@
+package io.github.danidrd.matchingpairs.bot;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+
+/**
+ * A computer player for a {@link GameEngine}.
+ * <p>
+ * A bot is told about every card revealed and every pair matched on the board,
+ * whoever flipped them, and is asked for a card whenever its seat is on turn.
+ * Bots keep per-game state, so each seat of each running game needs its own instance.
+ */
+public interface BotStrategy {
+
+    /**
+     * Prepares the bot for a new game on the engine's current board.
+     *
+     * @param engine the engine the game is played on
+     * @param seed the seed for the bot's own random choices
+     */
+    void newGame(GameEngine engine, long seed);
+
+    /**
+     * Chooses the next card to flip.
+     * <p>
+     * The returned card must be face down and must not be the first card
+     * already selected this turn.
+     *
+     * @param engine the engine the game is played on
+     * @return the index of the card to flip
+     */
+    int chooseCard(GameEngine engine);
+
+    /**
+     * Called whenever a card is turned face up.
+     *
+     * @param index the index of the revealed card
+     * @param value the value of the revealed card
+     */
+    void cardRevealed(int index, int value);
+
+    /**
+     * Called whenever a pair is matched and both cards are excluded.
+     *
+     * @param first the index of the first card of the pair
+     * @param second the index of the second card of the pair
+     */
+    void pairMatched(int first, int second);
+}
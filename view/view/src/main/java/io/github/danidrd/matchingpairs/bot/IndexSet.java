@@ -0,0 +1,111 @@
+package io.github.danidrd.matchingpairs.bot;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * A set of card indices in {@code [0, capacity)} with constant time add,
+ * remove, membership test and uniform random pick.
+ * <p>
+ * Members are kept densely packed in one array and each index remembers its
+ * position in another, so removal swaps the last member into the hole.
+ */
+public class IndexSet {
+    private int[] dense = new int[0];
+    private int[] position = new int[0];
+    private int size = 0;
+
+    /**
+     * Empties the set and makes room for indices up to {@code capacity - 1}.
+     *
+     * @param capacity the number of distinct indices the set may hold
+     */
+    public void clear(int capacity) {
+        if (dense.length < capacity) {
+            dense = new int[capacity];
+            position = new int[capacity];
+        }
+        Arrays.fill(position, 0, capacity, -1);
+        size = 0;
+    }
+
+    /**
+     * Fills the set with every index in {@code [0, capacity)}.
+     *
+     * @param capacity the number of indices to add
+     */
+    public void fill(int capacity) {
+        clear(capacity);
+        for (int i = 0; i < capacity; i++) {
+            dense[i] = i;
+            position[i] = i;
+        }
+        size = capacity;
+    }
+
+    /**
+     * @param index the index to add; does nothing if already present
+     */
+    public void add(int index) {
+        if (position[index] >= 0) {
+            return;
+        }
+        dense[size] = index;
+        position[index] = size++;
+    }
+
+    /**
+     * @param index the index to remove; does nothing if absent
+     */
+    public void remove(int index) {
+        int at = position[index];
+        if (at < 0) {
+            return;
+        }
+        int last = dense[--size];
+        dense[at] = last;
+        position[last] = at;
+        position[index] = -1;
+    }
+
+    /**
+     * @param index the index to look up
+     * @return true if the index is in the set
+     */
+    public boolean contains(int index) {
+        return position[index] >= 0;
+    }
+
+    /**
+     * @return the number of indices in the set
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return true if the set holds no index
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Picks a member uniformly at random, other than the excluded index.
+     *
+     * @param random the random generator to draw from
+     * @param excluded an index that must not be picked, or -1
+     * @return the picked index, or -1 if the set holds no other index
+     */
+    public int pick(RandomGenerator random, int excluded) {
+        int candidates = excluded >= 0 && contains(excluded) ? size - 1 : size;
+        if (candidates <= 0) {
+            return -1;
+        }
+        int index = dense[random.nextInt(size)];
+        while (index == excluded) {
+            index = dense[random.nextInt(size)];
+        }
+        return index;
+    }
+}
@@ -0,0 +1,187 @@
+package io.github.danidrd.matchingpairs.bot;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+import java.util.Arrays;
+
+/**
+ * A bot that remembers the values of revealed cards.
+ * <p>
+ * The bot remembers at most {@code capacity} cards; when it has to remember
+ * one more, it forgets the card it saw longest ago. On its turn it flips a
+ * pair it knows if there is one, otherwise a card it has never seen (or has
+ * forgotten), and as second card the partner of the first one if it knows it.
+ */
+public class MemoryBot implements BotStrategy {
+    private static final int NONE = -1;
+
+    private final int capacity;
+    private final SeededRandom random = new SeededRandom(0);
+    private final IndexSet remaining = new IndexSet();
+    private final IndexSet unknown = new IndexSet();
+
+    // Remembered cards per value, and the values known to have both cards remembered
+    private int[] seenA = new int[0];
+    private int[] seenB = new int[0];
+    private int[] knownPairs = new int[0];
+    private boolean[] pairQueued = new boolean[0];
+    private int knownPairCount = 0;
+
+    // Remembered cards in the order they were seen, oldest first; slots of
+    // matched cards go stale and are skipped when the oldest card is forgotten
+    private int[] memoryValue = new int[0];
+    private int[] ring = new int[0];
+    private int[] ringSlot = new int[0];
+    private int ringStart = 0;
+    private int ringSize = 0;
+    private int remembered = 0;
+    private int ringLength = 0;
+
+    /**
+     * Creates a bot remembering at most the given number of cards.
+     *
+     * @param capacity the number of cards the bot can remember
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public MemoryBot(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Memory capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return a bot that never forgets a card
+     */
+    public static MemoryBot perfect() {
+        return new MemoryBot(Integer.MAX_VALUE);
+    }
+
+    /**
+     * @return the number of cards the bot can remember
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void newGame(GameEngine engine, long seed) {
+        int totalCards = engine.getCardCount();
+        int numberOfPairs = engine.getNumberOfPairs();
+        random.setSeed(seed);
+        remaining.fill(totalCards);
+        unknown.fill(totalCards);
+
+        if (seenA.length < numberOfPairs + 1) {
+            seenA = new int[numberOfPairs + 1];
+            seenB = new int[numberOfPairs + 1];
+            knownPairs = new int[numberOfPairs];
+            pairQueued = new boolean[numberOfPairs + 1];
+        }
+        Arrays.fill(seenA, 0, numberOfPairs + 1, NONE);
+        Arrays.fill(seenB, 0, numberOfPairs + 1, NONE);
+        Arrays.fill(pairQueued, 0, numberOfPairs + 1, false);
+        knownPairCount = 0;
+
+        // Every card takes at most one ring slot at a time, live or stale
+        if (memoryValue.length < totalCards) {
+            memoryValue = new int[totalCards];
+            ring = new int[totalCards];
+            ringSlot = new int[totalCards];
+        }
+        Arrays.fill(memoryValue, 0, totalCards, 0);
+        Arrays.fill(ringSlot, 0, totalCards, NONE);
+        ringStart = 0;
+        ringSize = 0;
+        remembered = 0;
+        ringLength = totalCards;
+    }
+
+    @Override
+    public int chooseCard(GameEngine engine) {
+        int first = engine.getFirstSelectedIndex();
+        if (first == NONE) {
+            // Flip a known pair, dropping pairs forgotten since they were found
+            while (knownPairCount > 0) {
+                int value = knownPairs[knownPairCount - 1];
+                if (seenA[value] != NONE && seenB[value] != NONE) {
+                    return seenA[value];
+                }
+                pairQueued[value] = false;
+                knownPairCount--;
+            }
+        } else {
+            int value = engine.getValue(first);
+            int partner = seenA[value] == first ? seenB[value] : seenA[value];
+            if (partner != NONE) {
+                return partner;
+            }
+        }
+
+        int index = unknown.pick(random, first);
+        return index != NONE ? index : remaining.pick(random, first);
+    }
+
+    @Override
+    public void cardRevealed(int index, int value) {
+        if (memoryValue[index] != 0) {
+            return; // Already remembered
+        }
+        while (remembered >= capacity) {
+            int oldest = ring[ringStart];
+            if (ringSlot[oldest] == ringStart) {
+                forget(oldest);
+            }
+            ringStart = (ringStart + 1) % ringLength;
+            ringSize--;
+        }
+        int slot = (ringStart + ringSize) % ringLength;
+        ring[slot] = index;
+        ringSlot[index] = slot;
+        ringSize++;
+        remembered++;
+
+        memoryValue[index] = value;
+        unknown.remove(index);
+        if (seenA[value] == NONE) {
+            seenA[value] = index;
+        } else {
+            seenB[value] = index;
+            if (!pairQueued[value]) {
+                pairQueued[value] = true;
+                knownPairs[knownPairCount++] = value;
+            }
+        }
+    }
+
+    @Override
+    public void pairMatched(int first, int second) {
+        remaining.remove(first);
+        remaining.remove(second);
+        unknown.remove(first);
+        unknown.remove(second);
+        forget(first);
+        forget(second);
+    }
+
+    /**
+     * Drops a card from memory; if it is still in the ring, its slot becomes stale.
+     */
+    private void forget(int index) {
+        int value = memoryValue[index];
+        if (value == 0) {
+            return;
+        }
+        memoryValue[index] = 0;
+        ringSlot[index] = NONE;
+        remembered--;
+        if (seenA[value] == index) {
+            seenA[value] = seenB[value];
+        }
+        seenB[value] = NONE;
+        if (remaining.contains(index)) {
+            unknown.add(index);
+        }
+    }
+}
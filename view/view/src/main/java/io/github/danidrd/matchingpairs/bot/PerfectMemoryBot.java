@@ -0,0 +1,151 @@
+package io.github.danidrd.matchingpairs.bot;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+import java.util.Arrays;
+
+/**
+ * A bot that never forgets a revealed card, with a memory of primitive arrays.
+ * <p>
+ * The memory is an {@code int[]} from each value to the first card seen with
+ * it, a stack of pairs whose two cards have both been seen, and a bitset of
+ * the cards never seen. On its turn the bot flips a known pair if there is
+ * one; otherwise it flips a random unseen card and, as second card, the
+ * partner of the first one if it has seen it. Both decisions take constant
+ * time on average: the known pair is the top of the stack, and a random
+ * unseen card is found by scanning the bitset from a random word, 64 cards at
+ * a time. Unlike {@link MemoryBot#perfect()}, the bot keeps no recency order,
+ * so it is the cheaper choice for very large boards.
+ */
+public class PerfectMemoryBot implements BotStrategy {
+    private static final int NONE = -1;
+    // Marks a value whose two cards are both on the stack of known pairs
+    private static final int PAIRED = -2;
+
+    private final SeededRandom random = new SeededRandom(0);
+    private int[] firstSeen = new int[0];
+    private int[] pairFirst = new int[0];
+    private int[] pairSecond = new int[0];
+    private int knownPairCount = 0;
+    private long[] unseen = new long[0];
+    private int unseenCount = 0;
+    private int totalCards = 0;
+
+    @Override
+    public void newGame(GameEngine engine, long seed) {
+        random.setSeed(seed);
+        totalCards = engine.getCardCount();
+        int numberOfPairs = engine.getNumberOfPairs();
+        int words = (totalCards + 63) >>> 6;
+        if (firstSeen.length < numberOfPairs + 1) {
+            firstSeen = new int[numberOfPairs + 1];
+            pairFirst = new int[numberOfPairs];
+            pairSecond = new int[numberOfPairs];
+        }
+        if (unseen.length < words) {
+            unseen = new long[words];
+        }
+        Arrays.fill(firstSeen, 0, numberOfPairs + 1, NONE);
+        Arrays.fill(unseen, 0, words, 0);
+        knownPairCount = 0;
+        unseenCount = 0;
+
+        // A game may be joined in progress: excluded cards are gone and a face up card is already seen
+        for (int i = engine.nextCardIndex(GameEngine.FACE_DOWN, 0); i >= 0;
+             i = engine.nextCardIndex(GameEngine.FACE_DOWN, i + 1)) {
+            unseen[i >>> 6] |= 1L << i;
+            unseenCount++;
+        }
+        for (int i = engine.nextCardIndex(GameEngine.FACE_UP, 0); i >= 0;
+             i = engine.nextCardIndex(GameEngine.FACE_UP, i + 1)) {
+            cardRevealed(i, engine.getValue(i));
+        }
+    }
+
+    @Override
+    public int chooseCard(GameEngine engine) {
+        int first = engine.getFirstSelectedIndex();
+        if (first == NONE) {
+            // Flip a known pair, dropping pairs matched by another player meanwhile
+            while (knownPairCount > 0) {
+                int candidate = pairFirst[knownPairCount - 1];
+                if (engine.getState(candidate) == GameEngine.FACE_DOWN) {
+                    return candidate;
+                }
+                knownPairCount--;
+            }
+        } else {
+            int known = firstSeen[engine.getValue(first)];
+            if (known >= 0 && known != first) {
+                return known;
+            }
+            // A pair completed by the first card, or chosen from the stack, is the top of the stack
+            int top = knownPairCount - 1;
+            if (known == PAIRED && top >= 0) {
+                if (pairFirst[top] == first) {
+                    return pairSecond[top];
+                } else if (pairSecond[top] == first) {
+                    return pairFirst[top];
+                }
+            }
+        }
+
+        int index = pickUnseen();
+        if (index == NONE) {
+            // Every card was seen: only possible when joining a game, flip any face down card
+            index = engine.nextCardIndex(GameEngine.FACE_DOWN, 0);
+            if (index == first) {
+                index = engine.nextCardIndex(GameEngine.FACE_DOWN, first + 1);
+            }
+        }
+        return index;
+    }
+
+    @Override
+    public void cardRevealed(int index, int value) {
+        long bit = 1L << index;
+        if ((unseen[index >>> 6] & bit) != 0) {
+            unseen[index >>> 6] &= ~bit;
+            unseenCount--;
+        }
+        int known = firstSeen[value];
+        if (known == NONE) {
+            firstSeen[value] = index;
+        } else if (known >= 0 && known != index) {
+            pairFirst[knownPairCount] = known;
+            pairSecond[knownPairCount] = index;
+            knownPairCount++;
+            firstSeen[value] = PAIRED;
+        }
+    }
+
+    @Override
+    public void pairMatched(int first, int second) {
+        // Matched pairs left on the stack are dropped lazily by chooseCard
+        int top = knownPairCount - 1;
+        if (top >= 0 && (pairFirst[top] == first || pairFirst[top] == second)) {
+            knownPairCount--;
+        }
+    }
+
+    /**
+     * Picks an unseen card, scanning the bitset from a random card.
+     *
+     * @return the index of the card, or -1 if every card has been seen
+     */
+    private int pickUnseen() {
+        if (unseenCount == 0) {
+            return NONE;
+        }
+        int start = random.nextInt(totalCards);
+        int words = (totalCards + 63) >>> 6;
+        int word = start >>> 6;
+        long bits = unseen[word] & (-1L << start);
+        while (bits == 0) {
+            word = word + 1 == words ? 0 : word + 1;
+            bits = unseen[word];
+        }
+        return (word << 6) + Long.numberOfTrailingZeros(bits);
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.danidrd.matchingpairs.bot;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+/**
+ * A bot without memory: it always flips a random card still on the board.
+ */
+public class RandomBot implements BotStrategy {
+    private final SeededRandom random = new SeededRandom(0);
+    private final IndexSet remaining = new IndexSet();
+
+    @Override
+    public void newGame(GameEngine engine, long seed) {
+        random.setSeed(seed);
+        remaining.fill(engine.getCardCount());
+    }
+
+    @Override
+    public int chooseCard(GameEngine engine) {
+        return remaining.pick(random, engine.getFirstSelectedIndex());
+    }
+
+    @Override
+    public void cardRevealed(int index, int value) {
+        // Nothing to remember
+    }
+
+    @Override
+    public void pairMatched(int first, int second) {
+        remaining.remove(first);
+        remaining.remove(second);
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.danidrd.matchingpairs.controller;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.GameSnapshot;
+import io.github.danidrd.matchingpairs.model.MoveLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Saves checkpoints of a game to a file on a single background thread.
+ * <p>
+ * {@link #submit(GameEngine, MoveLog)} captures the engine and its move log
+ * on the calling thread, the event dispatch thread in the Swing game, and
+ * returns without touching the disk. The writer thread then saves the capture
+ * with {@link GameSnapshot#save(ByteBuffer, Path)}. Captures submitted while a
+ * checkpoint is being saved replace each other, so only the latest one is
+ * saved next. The caller and the writer swap two reused buffers, so a
+ * checkpoint allocates nothing once the buffers fit the board.
+ * <p>
+ * The writer thread is a daemon: a checkpoint submitted right before the
+ * process exits may be lost, but the previous one is always left intact.
+ */
+public class CheckpointWriter implements Closeable {
+    private final Path file;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition changed = lock.newCondition();
+    // The latest capture, waiting to be saved, and the one being saved
+    private ByteBuffer captured = ByteBuffer.allocateDirect(4096);
+    private ByteBuffer saving = ByteBuffer.allocateDirect(4096);
+    private boolean pending = false;
+    private boolean busy = false;
+    private boolean closed = false;
+    private final Thread writer;
+
+    /**
+     * Starts a writer for the given file.
+     *
+     * @param file the file checkpoints are saved to
+     */
+    public CheckpointWriter(Path file) {
+        this.file = file;
+        this.writer = Thread.ofPlatform().name("checkpoint-writer").daemon().start(this::run);
+    }
+
+    /**
+     * @return the file checkpoints are saved to
+     */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Captures a checkpoint of the game and hands it to the writer thread.
+     *
+     * @param engine the engine to snapshot
+     * @param log the move log of the game, or null to save the snapshot alone
+     * @throws IllegalStateException if the writer is closed
+     */
+    public void submit(GameEngine engine, MoveLog log) {
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("Checkpoint writer is closed");
+            }
+            captured = GameSnapshot.capture(engine, log, captured);
+            pending = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every submitted checkpoint has been saved, or has failed.
+     *
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void flush() throws InterruptedException {
+        lock.lock();
+        try {
+            while (pending || busy) {
+                changed.await();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Saves the last submitted checkpoint, if any, and stops the writer thread.
+     */
+    @Override
+    public void close() {
+        lock.lock();
+        try {
+            closed = true;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        while (true) {
+            lock.lock();
+            try {
+                while (!pending && !closed) {
+                    changed.awaitUninterruptibly();
+                }
+                if (!pending) {
+                    return;
+                }
+                ByteBuffer next = captured;
+                captured = saving;
+                saving = next;
+                pending = false;
+                busy = true;
+            } finally {
+                lock.unlock();
+            }
+
+            try {
+                GameSnapshot.save(saving, file);
+            } catch (IOException e) {
+                // A failed checkpoint is reported but does not interrupt the game
+                System.err.println("Cannot checkpoint game to " + file + ": " + e.getMessage());
+            }
+
+            lock.lock();
+            try {
+                busy = false;
+                changed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
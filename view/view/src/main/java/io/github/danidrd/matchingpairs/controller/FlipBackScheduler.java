@@ -0,0 +1,175 @@
+package io.github.danidrd.matchingpairs.controller;
+
+import javax.swing.Timer;
+
+/**
+ * Schedules the flip-back of mismatched pairs on a single reusable Swing {@link Timer}.
+ * <p>
+ * Pending flip-backs are kept in a ring of primitive arrays, sorted by deadline,
+ * and the timer is only armed for its head. While the reveal delay stays the
+ * same, a new flip-back is due last and is simply appended; after the delay is
+ * lowered, it is inserted before the older flip-backs due after it. Each
+ * flip-back is run on the event dispatch thread once its delay has elapsed.
+ * <p>
+ * Like the rest of the Swing game, a scheduler must only be used on the event
+ * dispatch thread.
+ */
+public class FlipBackScheduler {
+
+    /**
+     * Action run when the reveal delay of a mismatched pair has elapsed.
+     */
+    @FunctionalInterface
+    public interface FlipBack {
+        /**
+         * @param firstIndex the index of the first card of the pair
+         * @param secondIndex the index of the second card of the pair
+         */
+        void flipBack(int firstIndex, int secondIndex);
+    }
+
+    private final FlipBack action;
+    private final Timer timer;
+    private int delayMillis;
+
+    private long[] deadlines = new long[4];
+    private int[] firstIndices = new int[4];
+    private int[] secondIndices = new int[4];
+    private int head = 0;
+    private int size = 0;
+
+    /**
+     * Creates a scheduler with no pending flip-back.
+     *
+     * @param delayMillis how long a mismatched pair stays revealed, in milliseconds
+     * @param action the action run for each pair once its delay has elapsed
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public FlipBackScheduler(int delayMillis, FlipBack action) {
+        setDelayMillis(delayMillis);
+        this.action = action;
+        this.timer = new Timer(delayMillis, e -> runDue());
+        this.timer.setRepeats(false);
+    }
+
+    /**
+     * @return how long a mismatched pair stays revealed, in milliseconds
+     */
+    public int getDelayMillis() {
+        return delayMillis;
+    }
+
+    /**
+     * Sets the reveal delay of pairs scheduled from now on; pending pairs keep their deadline.
+     *
+     * @param delayMillis how long a mismatched pair stays revealed, in milliseconds
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public void setDelayMillis(int delayMillis) {
+        if (delayMillis < 0) {
+            throw new IllegalArgumentException("Reveal delay must not be negative");
+        }
+        this.delayMillis = delayMillis;
+    }
+
+    /**
+     * Schedules the flip-back of a mismatched pair after the reveal delay.
+     *
+     * @param firstIndex the index of the first card of the pair
+     * @param secondIndex the index of the second card of the pair
+     */
+    public void schedule(int firstIndex, int secondIndex) {
+        if (size == deadlines.length) {
+            grow();
+        }
+        long deadline = System.nanoTime() + delayMillis * 1_000_000L;
+        // Shift the flip-backs due after the new one, from the tail, which is none unless the delay was lowered
+        int position = size;
+        while (position > 0 && deadlines[slot(position - 1)] - deadline > 0) {
+            int from = slot(position - 1);
+            int to = slot(position);
+            deadlines[to] = deadlines[from];
+            firstIndices[to] = firstIndices[from];
+            secondIndices[to] = secondIndices[from];
+            position--;
+        }
+        int slot = slot(position);
+        deadlines[slot] = deadline;
+        firstIndices[slot] = firstIndex;
+        secondIndices[slot] = secondIndex;
+        size++;
+        if (position == 0) {
+            arm();
+        }
+    }
+
+    /**
+     * @param position the position of a flip-back in deadline order, from 0
+     * @return the index of its slot in the ring
+     */
+    private int slot(int position) {
+        return (head + position) % deadlines.length;
+    }
+
+    /**
+     * @return true while at least one flip-back is waiting for its delay
+     */
+    public boolean isPending() {
+        return size > 0;
+    }
+
+    /**
+     * Drops every pending flip-back without running it.
+     */
+    public void cancelAll() {
+        timer.stop();
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Runs every flip-back whose deadline has passed, then re-arms the timer for the next one.
+     */
+    private void runDue() {
+        long now = System.nanoTime();
+        while (size > 0 && deadlines[head] - now <= 0) {
+            int first = firstIndices[head];
+            int second = secondIndices[head];
+            head = (head + 1) % deadlines.length;
+            size--;
+            action.flipBack(first, second);
+        }
+        if (size > 0) {
+            arm();
+        }
+    }
+
+    /**
+     * Arms the timer for the flip-back at the head of the ring.
+     */
+    private void arm() {
+        long remainingMillis = (deadlines[head] - System.nanoTime() + 999_999) / 1_000_000;
+        timer.setInitialDelay((int) Math.max(0, remainingMillis));
+        timer.restart();
+    }
+
+    /**
+     * Doubles the capacity of the ring, unrolling it to start at index 0.
+     */
+    private void grow() {
+        int capacity = deadlines.length * 2;
+        long[] newDeadlines = new long[capacity];
+        int[] newFirst = new int[capacity];
+        int[] newSecond = new int[capacity];
+        for (int i = 0; i < size; i++) {
+            int from = (head + i) % deadlines.length;
+            newDeadlines[i] = deadlines[from];
+            newFirst[i] = firstIndices[from];
+            newSecond[i] = secondIndices[from];
+        }
+        deadlines = newDeadlines;
+        firstIndices = newFirst;
+        secondIndices = newSecond;
+        head = 0;
+    }
+}
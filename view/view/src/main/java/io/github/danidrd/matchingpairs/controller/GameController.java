@@ -1,46 +1,164 @@
 package io.github.danidrd.matchingpairs.controller;
 
+import io.github.danidrd.matchingpairs.bot.BotStrategy;
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.event.GameListener;
+import io.github.danidrd.matchingpairs.leaderboard.Leaderboard;
+import io.github.danidrd.matchingpairs.leaderboard.LeaderboardStore;
+import io.github.danidrd.matchingpairs.metrics.GameMetrics;
+import io.github.danidrd.matchingpairs.model.FlipResult;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.GameSnapshot;
+import io.github.danidrd.matchingpairs.model.MoveLog;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
 import io.github.danidrd.matchingpairs.view.BoardView;
-import io.github.danidrd.matchingpairs.view.CardView;
-import io.github.danidrd.matchingpairs.view.CardState;
 import io.github.danidrd.matchingpairs.view.LeaderboardEntry;
 import io.github.danidrd.matchingpairs.view.Player;
 
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
 import javax.swing.*;
 import javax.swing.Timer;
 import java.awt.event.ActionEvent;
-import java.beans.PropertyVetoException;
-import java.beans.VetoableChangeListener;
 import java.awt.event.ActionListener;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 
 /**
  * Controller responsibilities:
  * <ul>
- *     <li> Pairing and shuffling card values.</li>
  *     <li> Respond to card clicks, shuffle and exit actions. </li>
- *     <li> Track matched pairs and total flips. </li>
+ *     <li> Forward moves to the headless {@link GameEngine} and mirror its results on the view. </li>
+ *     <li> Track players and the leaderboard. </li>
  * </ul>
  */
-public class GameController implements ActionListener, PropertyChangeListener, VetoableChangeListener {
-    private final Map<Integer, List<LeaderboardEntry>> leaderboard = new HashMap<>();
+public class GameController implements ActionListener, GameListener {
+    /** Default time a mismatched pair stays revealed, overridden by the {@code matchingpairs.revealDelay} system property. */
+    public static final int DEFAULT_REVEAL_DELAY_MILLIS = 1000;
+    /** Default time a bot waits before each flip, overridden by the {@code matchingpairs.botDelay} system property. */
+    public static final int DEFAULT_BOT_DELAY_MILLIS = 600;
+
+    private final Leaderboard leaderboard = new Leaderboard();
     private final List<Player> players = new ArrayList<>();
-    private int currentPlayerIndex = 0;
-    private int globalMatchedPairs = 0;
+    private final GameEngine engine;
+    private final GameEventBus eventBus = new GameEventBus();
+    private final GameMetrics metrics = new GameMetrics();
+    private final LeaderboardStore leaderboardStore;
     private BoardView boardView;
-    private int totalFlips = 0;
-    private CardView firstSelectedCard = null;
-    private boolean isTimerActive = false; // Flag to track timer activity
-    private boolean bypassVeto = false;
+    private MoveLog moveLog;
+    private final FlipBackScheduler flipBacks =
+            new FlipBackScheduler(Integer.getInteger("matchingpairs.revealDelay", DEFAULT_REVEAL_DELAY_MILLIS), this::flipBack);
+    private boolean fastTurns = Boolean.getBoolean("matchingpairs.fastTurns");
+    // Saves a checkpoint after every move off the event dispatch thread, or null if checkpoints are disabled
+    private CheckpointWriter checkpoints = System.getProperty("matchingpairs.checkpoint") != null
+            ? new CheckpointWriter(Path.of(System.getProperty("matchingpairs.checkpoint"))) : null;
+    private long lastFlipNanos;
+    // The bot playing each seat, or null for a human seat
+    private final BotStrategy[] bots;
+    private final Timer botTimer =
+            new Timer(Integer.getInteger("matchingpairs.botDelay", DEFAULT_BOT_DELAY_MILLIS), e -> playBotTurn());
+    private boolean botFlipping;
 
     // Empty Constructor
     public GameController(List<String> playerNames) {
+        this(playerNames, null);
+    }
+
+    /**
+     * Creates a controller whose leaderboard is loaded from, and saved to, the given store.
+     *
+     * <p>If the store cannot be read, the game starts with an empty leaderboard.
+     *
+     * @param playerNames the names of the players, in turn order
+     * @param leaderboardStore the durable leaderboard store, or null to keep the leaderboard in memory only
+     */
+    public GameController(List<String> playerNames, LeaderboardStore leaderboardStore) {
         for (String name : playerNames) {
             players.add(new Player(name));
         }
+        engine = new GameEngine(players.size());
+        bots = new BotStrategy[players.size()];
+        botTimer.setRepeats(false);
+        eventBus.addListener(this);
+        eventBus.addListener(metrics);
+        this.leaderboardStore = leaderboardStore;
+        if (leaderboardStore != null) {
+            loadLeaderboard();
+        }
+    }
+
+    /**
+     * Fills the leaderboard with the results saved in the store.
+     */
+    private void loadLeaderboard() {
+        try {
+            leaderboardStore.load((boardSize, flips, playerName, timestamp) ->
+                    leaderboard.add(boardSize, playerName, flips));
+        } catch (IOException e) {
+            System.err.println("Cannot load leaderboard: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return the headless engine holding the board and the game state
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+
+    /**
+     * @return the bus on which the view publishes card and shuffle requests, and the controller publishes flips
+     */
+    public GameEventBus getEventBus() {
+        return eventBus;
+    }
+
+    /**
+     * Lets a bot play a seat, or gives the seat back to a human.
+     * <p>
+     * On its turn, a bot flips its cards through the event bus, like a click
+     * would, after the bot delay; clicks on the board are vetoed meanwhile.
+     * Every bot is shown every revealed card and matched pair, whoever flips
+     * them, and starts over on each new game. A bot joining a game in progress
+     * only knows the cards face up on the board.
+     *
+     * @param seat the index of the player
+     * @param bot the bot playing the seat, or null for a human
+     * @throws IndexOutOfBoundsException if there is no such player
+     */
+    public void setBot(int seat, BotStrategy bot) {
+        bots[seat] = bot;
+        if (bot != null && moveLog != null) {
+            bot.newGame(engine, SeededRandom.mix(engine.getSeed() + seat + 1));
+        }
+        scheduleBotTurn();
+    }
+
+    /**
+     * @param seat the index of the player
+     * @return the bot playing the seat, or null if a human plays it
+     */
+    public BotStrategy getBot(int seat) {
+        return bots[seat];
+    }
+
+    /**
+     * @return the counters and latency recorders of this game, fed by the controller and the board view
+     */
+    public GameMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the log of the current game.
+     *
+     * <p>The log holds the seed of the board and every accepted flip, and is
+     * restarted on each shuffle.
+     *
+     * @return the move log of the current game
+     */
+    public MoveLog getMoveLog() {
+        return moveLog;
     }
 
 
@@ -48,65 +166,69 @@ public class GameController implements ActionListener, PropertyChangeListener, V
     /**
      * Updates the leaderboard for a given board size with the current player's score.
      *
-     * <p>This method adds the current player's score to the leaderboard for the given board size,
-     * then sorts the leaderboard entries by the number of flips.
+     * <p>This method offers the current player's score to the leaderboard for the given board size,
+     * which keeps only the best scores by number of flips. If a store is attached,
+     * the score is also queued to be saved, without waiting for the write.
      *
      * @param boardSize the size of the board for which to update the leaderboard
      */
     public void updateLeaderboard(int boardSize, String winner) {
-        List<LeaderboardEntry> entries = leaderboard.computeIfAbsent(boardSize, k -> new ArrayList<>());
-
         // Add the current player's score
-        entries.add(new LeaderboardEntry(winner, totalFlips));
-
-        // Sort by flips
-        entries.sort(Comparator.comparingInt(LeaderboardEntry::getFlips));
+        leaderboard.add(boardSize, winner, engine.getTotalFlips());
+        if (leaderboardStore != null) {
+            leaderboardStore.append(boardSize, engine.getTotalFlips(), winner, System.currentTimeMillis());
+        }
     }
 
     /**
      * Retrieves the leaderboard entries for a specified board size.
      *
      * <p>This method returns a list of {@link LeaderboardEntry} objects
-     * corresponding to the given board size. If no leaderboard entries
-     * exist for the specified size, an empty list is returned.
+     * corresponding to the best scores of the given board size, best first.
+     * If no leaderboard entries exist for the specified size, an empty list is returned.
      *
      * @param boardSize the size of the board for which to retrieve leaderboard entries
      * @return a list of leaderboard entries for the specified board size
      */
     public List<LeaderboardEntry> getLeaderboardForSize(int boardSize) {
-        return leaderboard.getOrDefault(boardSize, Collections.emptyList());
+        return leaderboard.getTopScores(boardSize);
+    }
+
+    /**
+     * @return the leaderboard holding the best scores of each board size
+     */
+    public Leaderboard getLeaderboard() {
+        return leaderboard;
     }
 
 
 
     /**
-     * Handles vetoable changes to card state.
+     * Vetoes card state changes that break the game rules.
      *
-     * <p>This method is triggered when a card's state property is about to change.
-     * It checks if the transition from EXCLUDED or FACE_UP to FACE_DOWN is attempted,
-     * and vetoes such state changes by throwing a {@link PropertyVetoException}.
+     * <p>This method is called when a card's state is about to change.
+     * It vetoes every change while the mismatch timer is active, any flip
+     * other than the bot's own on a bot's turn, and any transition other than
+     * FACE_DOWN to FACE_UP: matched pairs are excluded and mismatches turned
+     * face down by the {@link GameEngine} rules, never at the request of a view.
      *
-     * @param evt the vetoable change event containing the details of the state change
-     * @throws PropertyVetoException if the state change is not allowed
+     * @param index the index of the card
+     * @param oldState the current state code of the card
+     * @param newState the requested state code of the card
+     * @return false if the state change is not allowed
      */
     @Override
-    public void vetoableChange(PropertyChangeEvent evt) throws PropertyVetoException {
-        if ( "state".equals(( evt.getPropertyName()))) {
-            if(isBypassVeto()) {
-                return; // Skip veto logic during shuffle or other bypass operations
-            }
-            CardState oldState = (CardState) evt.getOldValue();
-            CardState newState = (CardState) evt.getNewValue();
-
-            // Prevent changes during active timer
-            if (isTimerActive()) {
-                throw new PropertyVetoException("State change not allowed during timer", evt);
-            }
-            // Disallow state changes from excluded or face_up to face_down
-            if( (oldState == CardState.EXCLUDED || oldState == CardState.FACE_UP) && newState == CardState.FACE_DOWN) {
-                throw new PropertyVetoException("State transition not allowed", evt);
-            }
+    public boolean allowCardState(int index, byte oldState, byte newState) {
+        // Prevent changes during active timer
+        if (isTimerActive()) {
+            return false;
         }
+        // A bot's turn is not for clicking
+        if (newState == GameEngine.FACE_UP && bots[engine.getCurrentPlayerIndex()] != null && !botFlipping) {
+            return false;
+        }
+        // A player can only turn a face down card face up
+        return GameEngine.isTransitionAllowed(oldState, newState);
     }
 
 
@@ -114,43 +236,140 @@ public class GameController implements ActionListener, PropertyChangeListener, V
      * Initializes the game controller.
      *
      * <p>This method is typically called right after the game controller is created.
-     * It sets the board view, assigns listeners to all cards, the shuffle button,
-     * and the exit button. It also shuffles the cards to start the game.
+     * It sets the board view and assigns a listener to the exit button; the shuffle
+     * button reaches the controller as a shuffle request on the {@link GameEventBus}.
+     * It also deals the first game, with the number of pairs of the board view.
      *
      * @param boardView the board view to be associated with this game controller
      */
     public void initialize(BoardView boardView) {
         setBoardView(boardView);
 
-        boardView.getShuffleButton().addActionListener(this);
         boardView.getExitButton().addActionListener(this);
 
         // Initialize game
-        shuffleCards();
+        shuffleCards(boardView.getNumberOfPairs());
     }
 
     /**
-     * @return true if a timer is currently active, false otherwise.
+     * Starts a new game with the given number of pairs, dealt once.
      * <p>
-     * The timer is used to delay the flipping back of unmatched cards.
+     * Like a shuffle, the resize is refused while a mismatch is waiting for its
+     * flip-back; the game then goes on unchanged, with the same board and
+     * player on turn. The board view follows the new board through the
+     * board event of the engine.
+     *
+     * @param numberOfPairs the number of pairs of the new board
+     * @return true if the new game was dealt, false if the resize was refused
+     * @throws IllegalArgumentException if the number of pairs is negative
+     */
+    public boolean resizeBoard(int numberOfPairs) {
+        return shuffleCards(numberOfPairs);
+    }
+
+    /**
+     * @return true while the board is locked by a mismatch waiting for its flip-back, false otherwise.
+     * <p>
+     * With fast turns enabled, mismatches are resolved immediately and the
+     * board is never locked.
      */
     public boolean isTimerActive() {
-        return isTimerActive;
+        return engine.isResolutionPending();
+    }
+
+    /**
+     * @return how long a mismatched pair stays revealed, in milliseconds
+     */
+    public int getRevealDelayMillis() {
+        return flipBacks.getDelayMillis();
+    }
+
+    /**
+     * Sets how long mismatched pairs stay revealed, starting with the next mismatch.
+     *
+     * @param revealDelayMillis the reveal delay in milliseconds
+     * @throws IllegalArgumentException if the delay is negative
+     */
+    public void setRevealDelayMillis(int revealDelayMillis) {
+        flipBacks.setDelayMillis(revealDelayMillis);
+    }
+
+    /**
+     * @return whether mismatches are resolved immediately, letting the next player flip during the reveal delay
+     */
+    public boolean isFastTurns() {
+        return fastTurns;
+    }
+
+    /**
+     * Sets whether mismatches are resolved immediately.
+     * <p>
+     * When fast turns are enabled, a mismatch passes the turn at once and only
+     * the flip-back of the pair is delayed: the cards stay drawn face up for
+     * the reveal delay, but the next player can already flip any card,
+     * including them. Otherwise the board is locked until the flip-back, as
+     * in the classic game. Defaults to the {@code matchingpairs.fastTurns}
+     * system property.
+     *
+     * @param fastTurns true to resolve mismatches immediately
+     */
+    public void setFastTurns(boolean fastTurns) {
+        this.fastTurns = fastTurns;
+    }
+
+    /**
+     * @return the file the game is checkpointed to after every move, or null if checkpoints are disabled
+     */
+    public Path getCheckpointFile() {
+        return checkpoints != null ? checkpoints.getFile() : null;
+    }
+
+    /**
+     * Sets the file the game is checkpointed to after every move.
+     * <p>
+     * Each checkpoint is a {@link GameSnapshot} followed by the move log, so a
+     * crashed game can be resumed at the exact move with {@link #resume(Path)}.
+     * Checkpoints are saved by a {@link CheckpointWriter}; the checkpoints still
+     * pending for the previous file are saved before this method returns.
+     * Defaults to the {@code matchingpairs.checkpoint} system property.
+     *
+     * @param checkpointFile the checkpoint file, or null to disable checkpoints
+     */
+    public void setCheckpointFile(Path checkpointFile) {
+        if (checkpoints != null) {
+            if (checkpoints.getFile().equals(checkpointFile)) {
+                return;
+            }
+            checkpoints.close();
+        }
+        checkpoints = checkpointFile != null ? new CheckpointWriter(checkpointFile) : null;
+    }
+
+    /**
+     * Saves the current game to the checkpoint file, if any.
+     * <p>
+     * The game is captured into a reused buffer on the event dispatch thread and
+     * saved by the writer thread. A failed checkpoint is reported but does not
+     * interrupt the game.
+     */
+    private void checkpoint() {
+        if (checkpoints != null) {
+            checkpoints.submit(engine, moveLog);
+        }
     }
 
     /**
      * Handle action events from the view.
      * <p>
-     * Responds to clicks on the shuffle button by shuffling the cards, and
-     * clicks on the exit button by exiting the application.
+     * Responds to clicks on the exit button by exiting the application, once
+     * the user confirms. Shuffles arrive on the {@link GameEventBus} instead,
+     * see {@link #shuffleRequested()}.
      *
      * @param e the action event
      */
     @Override
     public void actionPerformed(ActionEvent e) {
-        if ( e.getSource() == boardView.getShuffleButton() ) {
-            shuffleCards();
-        }else if ( e.getSource() == boardView.getExitButton() ) {
+        if ( e.getSource() == boardView.getExitButton() ) {
             // Display confirmation dialog
             int choice = JOptionPane.showConfirmDialog(
                     boardView,
@@ -167,35 +386,38 @@ public class GameController implements ActionListener, PropertyChangeListener, V
 
 
     /**
-     * Responds to property changes in the view.
+     * Responds to a card state change requested by the view.
      * <p>
-     * This method is called when a property in the view changes. If the property
-     * is the "state" of a card, and the new state is FACE_UP, the card is
-     * handled as if it were clicked. If the property is the "shuffle" property,
-     * the game is reset and the cards are shuffled.
+     * {@link #allowCardState(int, byte, byte)} only lets a face down card be
+     * turned face up, which is handled as if the card were clicked: the flip
+     * goes through the rules of the {@link GameEngine}.
      *
-     * @param evt the property change event
+     * @param index the index of the card
+     * @param oldState the previous state code of the card
+     * @param newState the requested state code of the card
      */
     @Override
-    public void propertyChange(PropertyChangeEvent evt) {
-        if ( "state".equals( evt.getPropertyName() ) ) {
-            CardView card = (CardView) evt.getSource();
-            CardState newState = (CardState) evt.getNewValue();
-
-            if (newState == CardState.FACE_UP){
-                handleCardFlip(card);
-            }
-        } else if("shuffle".equals(evt.getPropertyName())) {
-            shuffleCards();
+    public void cardStateChanged(int index, byte oldState, byte newState) {
+        if (newState == GameEngine.FACE_UP) {
+            handleCardFlip(index);
         }
     }
 
+    /**
+     * Responds to a shuffle requested by the view by resetting the game and shuffling the cards.
+     */
+    @Override
+    public void shuffleRequested() {
+        shuffleCards(engine.getNumberOfPairs());
+    }
+
     /**
      * Responds to a card being flipped.
      * <p>
-     * When a card is flipped, this method is called. If the card is flipped to
-     * FACE_UP, the total number of flips is updated and the card is handled as
-     * if it were clicked.
+     * When a card is flipped, this method is called. The flip is applied to the
+     * {@link GameEngine}; if the engine accepts it, the flips of the current
+     * player are updated, the flip is published on the event bus and the card
+     * is redrawn face up.
      * <p>
      * If there is no first selected card, this card is selected as the first
      * card. If there is a first selected card, it is compared to this card. If
@@ -205,186 +427,288 @@ public class GameController implements ActionListener, PropertyChangeListener, V
      * <p>
      * If all pairs have been matched, a message is shown to the user.
      *
-     * @param card the card that was flipped
+     * @param index the index of the card that was flipped
      */
-    private void handleCardFlip(CardView card) {
+    private void handleCardFlip(int index) {
+        long started = System.nanoTime();
         Player currentPlayer = getCurrentPlayer();
+        int playerIndex = engine.getCurrentPlayerIndex();
+        int firstSelected = engine.getFirstSelectedIndex();
 
         // Ignore clicks if the timer is active or the card is not in a flippable state
-        if (isTimerActive || card.getState() != CardState.FACE_UP) {
+        FlipResult result = engine.flip(index);
+        if (result == FlipResult.IGNORED) {
             return;
         }
 
-        currentPlayer.incrementTotalFlips();
-
-        totalFlips++;
-        boardView.getTotalFlipsLabel().setText("Total Flips_" + currentPlayer.getName() +": " + currentPlayer.getTotalFlips());
+        long now = System.nanoTime();
+        moveLog.record(index, (int) Math.min(Integer.MAX_VALUE, (now - lastFlipNanos) / 1_000_000));
+        lastFlipNanos = now;
+        eventBus.fireCardFlipped(playerIndex, index, result);
+        int value = engine.getValue(index);
+        for (BotStrategy bot : bots) {
+            if (bot != null) {
+                bot.cardRevealed(index, value);
+                if (result == FlipResult.MATCH) {
+                    bot.pairMatched(firstSelected, index);
+                }
+            }
+        }
 
-        // Flip the card to FACE_UP
-        card.setState(CardState.FACE_UP);
+        currentPlayer.incrementTotalFlips();
+        if (boardView != null) {
+            boardView.getTotalFlipsLabel().setText("Total Flips_" + currentPlayer.getName() +": " + currentPlayer.getTotalFlips());
+            boardView.refreshCard(index);
+        }
 
-        if (firstSelectedCard == null) {
-            // This is the first card flipped
-            firstSelectedCard = card;
-        } else {
-            // Compare with the first selected card
-            if (firstSelectedCard.getValue() == card.getValue()) {
-                // Matched pair
-                incrementGlobalMatchedPairs();
-                currentPlayer.incrementMatchedPairs();
+        if (result == FlipResult.MATCH) {
+            // Matched pair
+            currentPlayer.incrementMatchedPairs();
+            if (boardView != null) {
                 boardView.getMatchedPairsLabel().setText("Matched Pairs_" + currentPlayer.getName() + ": " + currentPlayer.getMatchedPairs());
+                boardView.refreshCard(firstSelected);
+            }
 
-                firstSelectedCard.setState(CardState.EXCLUDED);
-                card.setState(CardState.EXCLUDED);
-
-                // Verify consistency with multi-player
-                verifyMatchingPairsConsistency();
+            // Checked only when assertions are enabled
+            assert isMatchingPairsConsistent() : "Mismatch between global and individual matched pairs!";
+        } else if (result == FlipResult.MISMATCH) {
+            // No match, flip both cards back after the reveal delay
+            scheduleFlipBack(firstSelected, index);
+        }
+        checkpoint();
+        metrics.getMoveRecorder().recordSince(started);
 
-                // Clear the selection
-                firstSelectedCard = null;
+        // Check for game completion, outside the timed move since the end of game dialogs are modal
+        if (result == FlipResult.MATCH) {
+            checkGameCompletion();
+        }
+        scheduleBotTurn();
+    }
 
-                // Check for game completion
-                checkGameCompletion();
-            } else {
-                // No match, flip both cards back after a short delay
-                isTimerActive = true; // Timer starts, disable further interactions
-                Timer timer = getTimer(card);
-                timer.start();
+    /**
+     * Starts a new game for every bot, with a seed derived from the board and its seat.
+     */
+    private void startBots() {
+        for (int i = 0; i < bots.length; i++) {
+            if (bots[i] != null) {
+                bots[i].newGame(engine, SeededRandom.mix(engine.getSeed() + i + 1));
             }
         }
+        scheduleBotTurn();
     }
 
     /**
-     * Creates a timer that, when triggered, will flip the given card and the
-     * first selected card back to FACE_DOWN, clear the selection, switch to
-     * the next player, and re-enable interactions.
-     *
-     * <p>
-     * The timer is set to trigger after a 1 second delay. It is used to delay
-     * the flipping back of unmatched cards.
-     *
-     * @param card the card to flip back
-     * @return a timer that will flip the card back and reset the state
+     * Arms the bot timer if the current seat is a bot that can flip a card, and stops it otherwise.
      */
-    private Timer getTimer(CardView card) {
-        Timer timer = new Timer(1000, evt -> {
-            setBypassVeto(true);
-            firstSelectedCard.setState(CardState.FACE_DOWN);
-            card.setState(CardState.FACE_DOWN);
-            setBypassVeto(false);
-
-            // Clear the selection
-            firstSelectedCard = null;
-            nextPlayer();
-            boardView.updateUI(this);
-            isTimerActive = false; // Timer ends, re-enable interactions
-
-        });
-        timer.setRepeats(false);
-        return timer;
+    private void scheduleBotTurn() {
+        if (bots[engine.getCurrentPlayerIndex()] != null && !engine.isComplete() && !isTimerActive()) {
+            botTimer.restart();
+        } else {
+            botTimer.stop();
+        }
     }
 
-
     /**
-     * Shuffles the cards by assigning each card a value from 1 to the
-     * number of pairs, duplicates the list and shuffles it, and then
-     * assigns each card a value from the shuffled list and resets its
-     * state to FACE_DOWN.
+     * Flips the card chosen by the bot of the current seat, through the event bus like a click.
      */
-    private void shuffleCards() {
-        if (isTimerActive()) {
-            JOptionPane.showMessageDialog(boardView, "Cannot shuffle while timer is active", "Error", JOptionPane.ERROR_MESSAGE);
+    private void playBotTurn() {
+        BotStrategy bot = bots[engine.getCurrentPlayerIndex()];
+        if (bot == null || engine.isComplete() || isTimerActive()) {
             return;
         }
-        globalMatchedPairs = 0;
-        totalFlips = 0;
-        for( Player player : players) {
-            player.resetMatchedPairs();
+        int index = bot.chooseCard(engine);
+        botFlipping = true;
+        try {
+            eventBus.requestCardState(index, engine.getState(index), GameEngine.FACE_UP);
+        } finally {
+            botFlipping = false;
         }
-        setCurrentPlayerIndex(0);
-        boardView.setTitle("Matching Pairs Game:" + getCurrentPlayer().getName());
-
-        verifyMatchingPairsConsistency();
-        boardView.getMatchedPairsLabel().setText("Matched Pairs_" + getCurrentPlayer().getName() + ": " + getCurrentPlayer().getMatchedPairs());
-        boardView.getTotalFlipsLabel().setText("Total Flips_" + getCurrentPlayer().getName() + ": " + getCurrentPlayer().getTotalFlips());
-
-        // Assign pairs
-        int numberOfPairs = boardView.getCards().size() / 2;
-        List<Integer> values = generateCardValues(numberOfPairs);
-
-
-        // Temporarily bypass veto logic
-        setBypassVeto(true);
-
+    }
 
-        // Assign shuffled values to cards and reset state
-        for( int i = 0; i < numberOfPairs * 2; i++ ) {
-            CardView card = boardView.getCards().get(i);
-            card.setValue(values.get(i));
-            card.setState(CardState.FACE_DOWN);
+    /**
+     * Schedules the flip-back of a mismatched pair after the reveal delay.
+     * <p>
+     * With fast turns, the mismatch is resolved in the engine right away and
+     * the turn passes; the pair is only held face up on the board until the
+     * flip-back. Otherwise the mismatch stays pending, locking the board.
+     *
+     * @param firstIndex the index of the first card to flip back
+     * @param secondIndex the index of the second card to flip back
+     */
+    private void scheduleFlipBack(int firstIndex, int secondIndex) {
+        if (fastTurns) {
+            engine.resolveMismatch();
+            if (boardView != null) {
+                boardView.holdRevealed(firstIndex);
+                boardView.holdRevealed(secondIndex);
+                boardView.updateUI(this);
+            }
+            scheduleBotTurn();
         }
-
-        setBypassVeto(false); // Re-enable veto logic
-        firstSelectedCard = null; // Reset firstSelectedCard
-        isTimerActive = false;  // Ensure the timer is not active
-        boardView.revalidate();
-        boardView.repaint();
+        flipBacks.schedule(firstIndex, secondIndex);
     }
 
     /**
-     * Sets the board view that this controller is associated with.
+     * Flips a mismatched pair back once its reveal delay has elapsed.
      * <p>
-     * This method is typically called right after the game controller is created.
-     * It sets the board view that the controller should interact with.
-     * </p>
+     * If the pair is still pending in the engine, the mismatch is resolved,
+     * flipping both cards back to FACE_DOWN, clearing the selection and
+     * switching to the next player. Any hold keeping the pair face up is
+     * released, and both cards are redrawn from the engine.
      *
-     * @param boardView the board view to be associated with this game controller
+     * @param firstIndex the index of the first card to flip back
+     * @param secondIndex the index of the second card to flip back
      */
-    public void setBoardView(BoardView boardView) {
-        this.boardView = boardView;
+    private void flipBack(int firstIndex, int secondIndex) {
+        if (engine.isResolutionPending()
+                && engine.getFirstSelectedIndex() == firstIndex
+                && engine.getSecondSelectedIndex() == secondIndex) {
+            engine.resolveMismatch();
+            if (boardView != null) {
+                boardView.updateUI(this);
+            }
+            checkpoint();
+            scheduleBotTurn();
+        }
+        if (boardView != null) {
+            boardView.releaseRevealed(firstIndex);
+            boardView.releaseRevealed(secondIndex);
+            boardView.refreshCard(firstIndex);
+            boardView.refreshCard(secondIndex);
+        }
     }
 
+
     /**
-     * @return whether the controller should bypass veto logic for card state changes
+     * Shuffles the cards by letting the engine assign each value from 1 to the
+     * number of pairs to two cards in random order and reset every card to
+     * FACE_DOWN. The board view redraws the cards when the engine reports the
+     * new board through its single board event.
+     * <p>
+     * The board is resized in the same deal if the number of pairs changed.
+     * Nothing is touched while a mismatch is waiting for its flip-back.
+     *
+     * @param numberOfPairs the number of pairs of the new game
+     * @return true if the cards were shuffled, false if the shuffle was refused
      */
-    public boolean isBypassVeto() {
-        return bypassVeto;
+    private boolean shuffleCards(int numberOfPairs) {
+        if (isTimerActive()) {
+            if (boardView != null) {
+                JOptionPane.showMessageDialog(boardView, "Cannot shuffle while timer is active", "Error", JOptionPane.ERROR_MESSAGE);
+            }
+            return false;
+        }
+        long started = System.nanoTime();
+        flipBacks.cancelAll();
+        if (boardView != null) {
+            boardView.releaseAllRevealed();
+        }
+        for( Player player : players) {
+            player.resetMatchedPairs();
+        }
+
+        // Assign pairs and reset state, resizing the board only if needed
+        if (numberOfPairs == engine.getNumberOfPairs()) {
+            engine.shuffle();
+        } else {
+            engine.reset(numberOfPairs);
+        }
+        moveLog = MoveLog.of(engine);
+        lastFlipNanos = System.nanoTime();
+
+        assert isMatchingPairsConsistent() : "Mismatch between global and individual matched pairs!";
+        if (boardView != null) {
+            boardView.setTitle("Matching Pairs Game:" + getCurrentPlayer().getName());
+            boardView.getMatchedPairsLabel().setText("Matched Pairs_" + getCurrentPlayer().getName() + ": " + getCurrentPlayer().getMatchedPairs());
+            boardView.getTotalFlipsLabel().setText("Total Flips_" + getCurrentPlayer().getName() + ": " + getCurrentPlayer().getTotalFlips());
+        }
+        checkpoint();
+        metrics.getShuffleRecorder().recordSince(started);
+        startBots();
+        return true;
     }
 
     /**
-     * Sets whether the controller should bypass veto logic for card state changes.
-     * <p>
-     * When bypass veto is true, the controller will not check for veto exceptions
-     * when changing the state of a card. This is useful for operations like shuffling
-     * the cards, which should not be vetoed by the controller.
-     * </p>
+     * Rebuilds the board and the players from a recorded game.
+     *
+     * <p>The board is dealt again with the recorded number of pairs and
+     * seed, which the board view follows, and every recorded flip is applied at full
+     * speed, without waiting for the reveal delay. If the last flip left a
+     * mismatch, its flip-back is scheduled so play can continue from there.
+     * Further flips are appended to the replayed log.
      *
-     * @param bypassVeto whether the controller should bypass veto logic
+     * @param log the recorded game
+     * @throws IllegalArgumentException if the log was recorded with a different number of players
      */
-    public void setBypassVeto(boolean bypassVeto) {
-        this.bypassVeto = bypassVeto;
+    public void replay(MoveLog log) {
+        if (log.getNumberOfPlayers() != players.size()) {
+            throw new IllegalArgumentException("Log was recorded with " + log.getNumberOfPlayers() + " players");
+        }
+        flipBacks.cancelAll();
+        boardView.releaseAllRevealed();
+        log.replay(engine);
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).setTotalFlips(engine.getPlayerFlips(i));
+            players.get(i).setMatchedPairs(engine.getPlayerMatchedPairs(i));
+        }
+        moveLog = log;
+        lastFlipNanos = System.nanoTime();
+
+        boardView.refreshCards();
+        boardView.updateUI(this);
+        startBots();
+        if (engine.isResolutionPending()) {
+            scheduleFlipBack(engine.getFirstSelectedIndex(), engine.getSecondSelectedIndex());
+        }
     }
 
     /**
-     * Generates a shuffled list of card values for the game.
+     * Resumes a game from a checkpoint written by this controller.
      *
-     * <p>This method creates a list containing pairs of integers from 1
-     * to the specified number of pairs, shuffles the list to randomize
-     * the order, and returns it. Each integer appears twice in the list,
-     * representing a pair of matching card values.
+     * <p>The engine and the players are restored at the saved move without
+     * replaying any flip, and the board view follows the saved number of pairs.
+     * If the saved move left a mismatch, its flip-back is scheduled so play can
+     * continue from there. Further flips are appended to the saved move log.
      *
-     * @param pairs the number of unique pairs of card values to generate
-     * @return a shuffled list of card values with each value appearing twice
+     * @param file the checkpoint file
+     * @throws IOException if the file cannot be read or is not a valid checkpoint
+     * @throws IllegalArgumentException if the checkpoint was taken with a different number of players
      */
-    private List<Integer> generateCardValues(int pairs){
-        List<Integer> values = new ArrayList<>();
-        for(int i = 1; i <= pairs; i++){
-            values.add(i);
-            values.add(i);
+    public void resume(Path file) throws IOException {
+        flipBacks.cancelAll();
+        boardView.releaseAllRevealed();
+        MoveLog log = GameSnapshot.load(file, engine);
+        for (int i = 0; i < players.size(); i++) {
+            players.get(i).setTotalFlips(engine.getPlayerFlips(i));
+            players.get(i).setMatchedPairs(engine.getPlayerMatchedPairs(i));
         }
+        moveLog = log != null ? log : MoveLog.of(engine);
+        lastFlipNanos = System.nanoTime();
+
+        boardView.updateUI(this);
+        startBots();
+        if (engine.isResolutionPending()) {
+            scheduleFlipBack(engine.getFirstSelectedIndex(), engine.getSecondSelectedIndex());
+        }
+        checkpoint();
+    }
 
-        Collections.shuffle(values);
-        return values;
+    /**
+     * Sets the board view that this controller is associated with.
+     * <p>
+     * This method is typically called right after the game controller is created.
+     * It sets the board view that the controller should interact with.
+     * </p>
+     * <p>
+     * Until a board view is set, flips and shuffles requested on the event bus
+     * are still played: the board keeps the size of the engine, and the end of
+     * a game only updates the leaderboard, without any dialog.
+     * </p>
+     *
+     * @param boardView the board view to be associated with this game controller
+     */
+    public void setBoardView(BoardView boardView) {
+        this.boardView = boardView;
     }
 
 
@@ -394,7 +718,7 @@ public class GameController implements ActionListener, PropertyChangeListener, V
      * @return the player that is currently playing
      */
     public Player getCurrentPlayer() {
-        return players.get(currentPlayerIndex);
+        return players.get(engine.getCurrentPlayerIndex());
     }
 
     /**
@@ -405,7 +729,7 @@ public class GameController implements ActionListener, PropertyChangeListener, V
      * of the list if the end is reached.
      */
     public void nextPlayer() {
-        currentPlayerIndex = (currentPlayerIndex + 1) % players.size();
+        engine.nextPlayer();
     }
 
     /**
@@ -416,7 +740,7 @@ public class GameController implements ActionListener, PropertyChangeListener, V
      * @return the total number of matched pairs across all players
      */
     public int getGlobalMatchedPairs() {
-        return globalMatchedPairs;
+        return engine.getGlobalMatchedPairs();
     }
 
     /**
@@ -425,7 +749,7 @@ public class GameController implements ActionListener, PropertyChangeListener, V
      * <p>This value is incremented whenever a player matches a pair of cards.
      */
     public void incrementGlobalMatchedPairs() {
-        globalMatchedPairs++;
+        engine.incrementGlobalMatchedPairs();
     }
 
     /**
@@ -441,12 +765,12 @@ public class GameController implements ActionListener, PropertyChangeListener, V
     }
 
     /**
-     * Checks whether the game is complete by comparing the number of matched pairs
-     * to the total number of pairs in the game. If the game is complete, it displays
+     * Checks whether the game is complete from the running count of pairs left on
+     * the board, without scanning the cards. If the game is complete, it displays
      * a congratulatory message box to the user and updates the leaderboard.
      */
     private void checkGameCompletion() {
-        if (globalMatchedPairs == boardView.getCards().size() / 2) {
+        if (engine.isComplete()) {
             endGame();
         }
     }
@@ -454,20 +778,36 @@ public class GameController implements ActionListener, PropertyChangeListener, V
     /**
      * Verifies that the sum of the matched pairs of all players is equal to the total global matched pairs.
      *
-     * <p>This method is used to ensure that the state of the game is consistent. If the sum of the matched
-     * pairs of all players is not equal to the total global matched pairs, an {@link IllegalStateException}
-     * is thrown.
+     * <p>This method is optional instrumentation: the controller itself only runs the check through
+     * {@code assert}, after every match, shuffle and at the end of a game, so it is skipped unless
+     * assertions are enabled with {@code -ea}. If the sum of the matched pairs of all players is not
+     * equal to the total global matched pairs, an {@link IllegalStateException} is thrown.
+     *
+     * @throws IllegalStateException if the per-player and global matched pairs disagree
      */
-    private void verifyMatchingPairsConsistency() {
-        int totalMatchedPairs = getPlayers().stream()
-                .mapToInt(Player::getMatchedPairs)
-                .sum();
-
-        if ( totalMatchedPairs != getGlobalMatchedPairs()) {
+    public void verifyMatchingPairsConsistency() {
+        if (!isMatchingPairsConsistent()) {
             throw new IllegalStateException("Mismatch between global and individual matched pairs!");
         }
     }
 
+    /**
+     * Checks the matched pairs of every {@link Player} against the running counters of the engine.
+     *
+     * @return true if each player agrees with the engine and the engine counters agree with the board
+     */
+    public boolean isMatchingPairsConsistent() {
+        int totalMatchedPairs = 0;
+        for (int i = 0; i < players.size(); i++) {
+            int matchedPairs = players.get(i).getMatchedPairs();
+            if (matchedPairs != engine.getPlayerMatchedPairs(i)) {
+                return false;
+            }
+            totalMatchedPairs += matchedPairs;
+        }
+        return totalMatchedPairs == getGlobalMatchedPairs() && engine.isConsistent();
+    }
+
 
 /**
  * Ends the current game session by determining the winner, displaying a congratulatory message,
@@ -480,12 +820,13 @@ public class GameController implements ActionListener, PropertyChangeListener, V
  */
     private void endGame() {
 
-        verifyMatchingPairsConsistency();
+        assert isMatchingPairsConsistent() : "Mismatch between global and individual matched pairs!";
 
-        Player winner = getPlayers().stream()
-                .max(Comparator.comparingInt(Player::getMatchedPairs)
-                        .thenComparingInt(Player::getTotalFlips))
-                .orElseThrow();
+        Player winner = players.get(engine.getWinnerIndex());
+        if (boardView == null) {
+            updateLeaderboard(engine.getNumberOfPairs(), winner.getName());
+            return;
+        }
 
         JOptionPane.showMessageDialog(
                 boardView,
@@ -499,7 +840,7 @@ public class GameController implements ActionListener, PropertyChangeListener, V
         // Generate and show player rankings
         showPlayerRankings();
 
-        updateLeaderboard(boardView.getCards().size() / 2, winner.getName());
+        updateLeaderboard(engine.getNumberOfPairs(), winner.getName());
     }
 
     /**
@@ -512,7 +853,7 @@ public class GameController implements ActionListener, PropertyChangeListener, V
      *                            of players
      */
     public void setCurrentPlayerIndex(int currentPlayerIndex) {
-        this.currentPlayerIndex = currentPlayerIndex;
+        engine.setCurrentPlayerIndex(currentPlayerIndex);
     }
 
     /**
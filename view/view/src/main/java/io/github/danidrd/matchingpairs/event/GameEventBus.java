@@ -0,0 +1,102 @@
+package io.github.danidrd.matchingpairs.event;
+
+import io.github.danidrd.matchingpairs.model.FlipResult;
+
+import java.util.Arrays;
+
+/**
+ * Typed event bus connecting the cards, the board and the controller of a game.
+ * <p>
+ * Events are dispatched by calling each {@link GameListener} directly, in
+ * registration order, with primitive arguments; no event object is created,
+ * boxed or matched by property name. Listeners are kept in an array that is
+ * copied on registration, so dispatch walks a plain array and a listener may
+ * register or remove listeners while an event is being delivered.
+ * <p>
+ * The bus is not thread safe and is meant to be used from a single thread,
+ * the event dispatch thread in the Swing game.
+ */
+public class GameEventBus {
+    private GameListener[] listeners = new GameListener[0];
+
+    /**
+     * Registers a listener.
+     *
+     * @param listener the listener to be registered
+     */
+    public void addListener(GameListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * Deregisters a listener. Does nothing if the listener is not registered.
+     *
+     * @param listener the listener to be removed
+     */
+    public void removeListener(GameListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                GameListener[] remaining = new GameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, remaining, 0, i);
+                System.arraycopy(listeners, i + 1, remaining, i, remaining.length - i);
+                listeners = remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Requests a new state for a card.
+     * <p>
+     * Every listener is first asked whether the change is allowed; if none
+     * vetoes it, every listener is told about the change; otherwise every
+     * listener is told about the veto. A request whose new state equals the
+     * old one is dropped, like an unchanged property.
+     *
+     * @param index the index of the card
+     * @param oldState the current state code of the card
+     * @param newState the requested state code of the card
+     * @return true if the change was delivered, false if it was vetoed or dropped
+     */
+    public boolean requestCardState(int index, byte oldState, byte newState) {
+        if (oldState == newState) {
+            return false;
+        }
+        GameListener[] snapshot = listeners;
+        for (GameListener listener : snapshot) {
+            if (!listener.allowCardState(index, oldState, newState)) {
+                for (GameListener vetoed : snapshot) {
+                    vetoed.cardStateVetoed(index, oldState, newState);
+                }
+                return false;
+            }
+        }
+        for (GameListener listener : snapshot) {
+            listener.cardStateChanged(index, oldState, newState);
+        }
+        return true;
+    }
+
+    /**
+     * Publishes a flip applied to the engine.
+     *
+     * @param playerIndex the index of the player who flipped the card
+     * @param index the index of the flipped card
+     * @param result the outcome of the flip
+     */
+    public void fireCardFlipped(int playerIndex, int index, FlipResult result) {
+        for (GameListener listener : listeners) {
+            listener.cardFlipped(playerIndex, index, result);
+        }
+    }
+
+    /**
+     * Publishes a request for a new game on the current board.
+     */
+    public void fireShuffleRequested() {
+        for (GameListener listener : listeners) {
+            listener.shuffleRequested();
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.danidrd.matchingpairs.event;
+
+import io.github.danidrd.matchingpairs.model.FlipResult;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+
+/**
+ * Listener of the events published on a {@link GameEventBus}.
+ * <p>
+ * Every event is a direct call with primitive arguments, so publishing
+ * allocates nothing. Card states are the state codes of {@link GameEngine}.
+ * All methods have empty defaults, a listener only overrides the events it
+ * handles.
+ */
+public interface GameListener {
+
+    /**
+     * Called before a card state change is applied, to let the listener reject it.
+     *
+     * @param index the index of the card
+     * @param oldState the current state code of the card
+     * @param newState the requested state code of the card
+     * @return false to veto the change, true to allow it
+     */
+    default boolean allowCardState(int index, byte oldState, byte newState) {
+        return true;
+    }
+
+    /**
+     * Called when a card state change has been requested and no listener vetoed it.
+     *
+     * @param index the index of the card
+     * @param oldState the previous state code of the card
+     * @param newState the requested state code of the card
+     */
+    default void cardStateChanged(int index, byte oldState, byte newState) {
+    }
+
+    /**
+     * Called when a listener vetoed a card state change, which is then dropped.
+     *
+     * @param index the index of the card
+     * @param oldState the current state code of the card
+     * @param newState the rejected state code of the card
+     */
+    default void cardStateVetoed(int index, byte oldState, byte newState) {
+    }
+
+    /**
+     * Called after a flip has been applied to the engine.
+     *
+     * @param playerIndex the index of the player who flipped the card
+     * @param index the index of the flipped card
+     * @param result the outcome of the flip, never {@link FlipResult#IGNORED}
+     */
+    default void cardFlipped(int playerIndex, int index, FlipResult result) {
+    }
+
+    /**
+     * Called when a new game on the current board has been requested.
+     */
+    default void shuffleRequested() {
+    }
+}
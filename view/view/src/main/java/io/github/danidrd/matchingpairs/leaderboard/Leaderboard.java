@@ -0,0 +1,177 @@
+package io.github.danidrd.matchingpairs.leaderboard;
+
+import io.github.danidrd.matchingpairs.model.FlipHistogram;
+import io.github.danidrd.matchingpairs.view.LeaderboardEntry;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Scores of each board size.
+ * <p>
+ * Each board size keeps its best {@code capacity} scores, with player names,
+ * in a {@link TopScores} heap, and counts every score ever added in a
+ * {@link FlipHistogram} indexed by flips. Adding a score costs
+ * {@code O(log capacity + log maxFlips)}; rank, percentile and statistics
+ * queries cover all scores and run in {@code O(log maxFlips)} however many
+ * games have been played.
+ */
+public class Leaderboard {
+    /** The number of scores kept per board size by default. */
+    public static final int DEFAULT_CAPACITY = 100;
+
+    private final int capacity;
+    private final Map<Integer, BoardScores> scores = new HashMap<>();
+
+    private static class BoardScores {
+        final TopScores top;
+        final FlipHistogram all = new FlipHistogram();
+
+        BoardScores(int capacity) {
+            top = new TopScores(capacity);
+        }
+    }
+
+    /**
+     * Creates a leaderboard keeping {@link #DEFAULT_CAPACITY} scores per board size.
+     */
+    public Leaderboard() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity the number of scores kept per board size
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public Leaderboard(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Adds a score to the leaderboard of a board size.
+     *
+     * @param boardSize the number of pairs of the game
+     * @param playerName the name of the player
+     * @param flips the number of flips of the game
+     * @return true if the score is among the kept ones
+     */
+    public boolean add(int boardSize, String playerName, int flips) {
+        BoardScores board = scores.computeIfAbsent(boardSize, k -> new BoardScores(capacity));
+        board.all.record(flips);
+        return board.top.offer(playerName, flips);
+    }
+
+    /**
+     * @param boardSize the number of pairs
+     * @return the kept scores of the board size, best first, or an empty list
+     */
+    public List<LeaderboardEntry> getTopScores(int boardSize) {
+        BoardScores board = scores.get(boardSize);
+        return board == null ? Collections.emptyList() : board.top.toSortedList();
+    }
+
+    /**
+     * Returns one page of the kept scores of a board size.
+     *
+     * @param boardSize the number of pairs
+     * @param offset the number of best scores to skip
+     * @param limit the maximum number of scores to return
+     * @return the scores ranked from {@code offset + 1} to {@code offset + limit}, best first
+     */
+    public List<LeaderboardEntry> getTopScores(int boardSize, int offset, int limit) {
+        BoardScores board = scores.get(boardSize);
+        return board == null ? Collections.emptyList() : board.top.toSortedList(offset, limit);
+    }
+
+    /**
+     * @param boardSize the number of pairs
+     * @return the number of kept scores of the board size, at most the capacity
+     */
+    public int getTopScoreCount(int boardSize) {
+        BoardScores board = scores.get(boardSize);
+        return board == null ? 0 : board.top.size();
+    }
+
+    /**
+     * @param boardSize the number of pairs
+     * @return the number of scores ever added for the board size
+     */
+    public long getCount(int boardSize) {
+        BoardScores board = scores.get(boardSize);
+        return board == null ? 0 : board.all.getTotalCount();
+    }
+
+    /**
+     * @param boardSize the number of pairs
+     * @return the fewest flips of the board size, or -1 if no game was played
+     */
+    public int getBestFlips(int boardSize) {
+        BoardScores board = scores.get(boardSize);
+        return board == null ? -1 : board.top.getBestFlips();
+    }
+
+    /**
+     * @param boardSize the number of pairs
+     * @return the median flips of the board size, or -1 if no game was played
+     */
+    public int getMedianFlips(int boardSize) {
+        return getFlipsAtPercentile(boardSize, 50);
+    }
+
+    /**
+     * Returns the fewest flips that at least the given percentage of the
+     * games of a board size needed or beat, for example 99 for the p99.
+     *
+     * @param boardSize the number of pairs
+     * @param percentile the percentage of games, between 0 and 100
+     * @return the flips at the percentile, or -1 if no game was played
+     */
+    public int getFlipsAtPercentile(int boardSize, double percentile) {
+        BoardScores board = scores.get(boardSize);
+        return board == null ? -1 : board.all.getPercentile(percentile);
+    }
+
+    /**
+     * Returns the rank of a score with the given flips among all scores of a
+     * board size, counting from 1. Scores with the same flips share a rank.
+     *
+     * @param boardSize the number of pairs
+     * @param flips the number of flips
+     * @return one more than the number of scores with fewer flips
+     */
+    public long getRank(int boardSize, int flips) {
+        BoardScores board = scores.get(boardSize);
+        return board == null ? 1 : board.all.getCountBelow(flips) + 1;
+    }
+
+    /**
+     * Returns the percentage of the scores of a board size that needed more
+     * flips than the given number, that is the share of games a score with
+     * these flips beats.
+     *
+     * @param boardSize the number of pairs
+     * @param flips the number of flips
+     * @return a percentage between 0 and 100, or 100 if no game was played
+     */
+    public double getPercentileRank(int boardSize, int flips) {
+        BoardScores board = scores.get(boardSize);
+        if (board == null || board.all.getTotalCount() == 0) {
+            return 100;
+        }
+        long total = board.all.getTotalCount();
+        long worse = total - board.all.getCountBelow(flips + 1);
+        return 100.0 * worse / total;
+    }
+
+    /**
+     * @return the number of scores kept per board size
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
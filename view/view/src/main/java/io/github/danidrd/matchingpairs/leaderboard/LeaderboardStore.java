@@ -0,0 +1,379 @@
+package io.github.danidrd.matchingpairs.leaderboard;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Durable store of leaderboard results.
+ * <p>
+ * The store lives in a directory holding three kinds of files:
+ * <ul>
+ *     <li> {@code leaderboard.names}: every player name ever stored, in order of first use;
+ *          a record refers to a name by its position.</li>
+ *     <li> {@code leaderboard-<generation>.log}: an append-only log of fixed-width records
+ *          (board size, flips, name id, timestamp), written through a {@link MappedByteBuffer}.</li>
+ *     <li> {@code leaderboard.snapshot}: the compacted records of every log up to a generation,
+ *          sorted by board size and flips, so it loads with a single sequential scan.</li>
+ * </ul>
+ * Compaction writes a new snapshot and then starts the next log generation, so a crash
+ * at any point never loses or duplicates a record.
+ * <p>
+ * Writes are queued to a single background thread, so {@link #append} never blocks the caller.
+ */
+public class LeaderboardStore implements Closeable {
+    private static final int LOG_MAGIC = 0x4D504C42; // "MPLB"
+    private static final int SNAPSHOT_MAGIC = 0x4D505353; // "MPSS"
+    private static final int VERSION = 1;
+    private static final int LOG_HEADER = 16; // magic, version, record count
+    private static final int SNAPSHOT_HEADER = 24; // magic, version, generation, record count
+    private static final int RECORD = 20; // board size, flips, name id, timestamp
+    private static final int INITIAL_LOG_CAPACITY = 1 << 20;
+    private static final int COMPACTION_THRESHOLD = 1 << 16;
+
+    private static final String NAMES_FILE = "leaderboard.names";
+    private static final String SNAPSHOT_FILE = "leaderboard.snapshot";
+    private static final String LOG_PREFIX = "leaderboard-";
+    private static final String LOG_SUFFIX = ".log";
+
+    /**
+     * Receives the records of the store, in the order they are loaded.
+     */
+    public interface RecordVisitor {
+        /**
+         * @param boardSize the number of pairs of the game
+         * @param flips the number of flips of the game
+         * @param playerName the name of the winner
+         * @param timestamp the time the game ended, in milliseconds since the epoch
+         */
+        void visit(int boardSize, int flips, String playerName, long timestamp);
+    }
+
+    private final Path directory;
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "leaderboard-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Only touched by the writer thread once the store is open
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+    private final DataOutputStream namesOut;
+    private long snapshotGeneration;
+    private long logGeneration;
+    private FileChannel logChannel;
+    private MappedByteBuffer log;
+    private long logCount;
+
+    private LeaderboardStore(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+
+        Path namesFile = directory.resolve(NAMES_FILE);
+        long validLength = readNames(namesFile);
+        try (FileChannel channel = FileChannel.open(namesFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            channel.truncate(validLength); // Drop a name torn by a crash
+        }
+        namesOut = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(namesFile, StandardOpenOption.APPEND)));
+
+        snapshotGeneration = readSnapshotGeneration();
+        long lastLog = logGenerations().stream().mapToLong(Long::longValue).max().orElse(0);
+        openLog(Math.max(lastLog, snapshotGeneration + 1));
+    }
+
+    /**
+     * Opens the store in the given directory, creating it if needed.
+     *
+     * @param directory the directory holding the store files
+     * @return the opened store
+     * @throws IOException if the files cannot be read or created
+     */
+    public static LeaderboardStore open(Path directory) throws IOException {
+        return new LeaderboardStore(directory);
+    }
+
+    /**
+     * @return the default store directory, {@code .matching-pairs} in the user's home
+     */
+    public static Path defaultDirectory() {
+        return Path.of(System.getProperty("user.home"), ".matching-pairs");
+    }
+
+    /**
+     * Reads every stored record: first the snapshot, sorted by board size and
+     * flips, then the logs not yet compacted, in the order they were appended.
+     * <p>
+     * If the logs hold many records, a compaction is queued afterwards.
+     * This method must be called before the first {@link #append}.
+     *
+     * @param visitor the visitor receiving the records
+     * @throws IOException if a file cannot be read
+     */
+    public void load(RecordVisitor visitor) throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            try (FileChannel channel = FileChannel.open(snapshot, StandardOpenOption.READ)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                long count = buffer.getLong(16);
+                visitRecords(buffer, SNAPSHOT_HEADER, count, visitor);
+            }
+        }
+
+        long pending = 0;
+        for (long generation : logGenerations()) {
+            if (generation <= snapshotGeneration) {
+                continue;
+            }
+            if (generation == logGeneration) {
+                visitRecords(log, LOG_HEADER, logCount, visitor);
+                pending += logCount;
+            } else {
+                try (FileChannel channel = FileChannel.open(logFile(generation), StandardOpenOption.READ)) {
+                    MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                    long count = buffer.getLong(8);
+                    visitRecords(buffer, LOG_HEADER, count, visitor);
+                    pending += count;
+                }
+            }
+        }
+
+        if (pending >= COMPACTION_THRESHOLD) {
+            compact();
+        }
+    }
+
+    /**
+     * Queues a result to be appended to the log. Returns immediately.
+     *
+     * @param boardSize the number of pairs of the game
+     * @param flips the number of flips of the game
+     * @param playerName the name of the winner
+     * @param timestamp the time the game ended, in milliseconds since the epoch
+     */
+    public void append(int boardSize, int flips, String playerName, long timestamp) {
+        writer.execute(() -> {
+            try {
+                appendRecord(boardSize, flips, nameId(playerName), timestamp);
+            } catch (IOException e) {
+                System.err.println("Cannot store leaderboard entry: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Queues a compaction of the logs into a new snapshot. Returns immediately.
+     */
+    public void compact() {
+        writer.execute(() -> {
+            try {
+                compactLogs();
+            } catch (IOException e) {
+                System.err.println("Cannot compact leaderboard: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Waits for the queued writes, forces the log to disk and releases the files.
+     */
+    @Override
+    public void close() {
+        writer.shutdown();
+        try {
+            if (!writer.awaitTermination(5, TimeUnit.SECONDS)) {
+                return; // Still compacting; the mapped log is flushed by the operating system
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            log.force();
+            logChannel.close();
+            namesOut.close();
+        } catch (IOException e) {
+            System.err.println("Cannot close leaderboard: " + e.getMessage());
+        }
+    }
+
+    private void appendRecord(int boardSize, int flips, int nameId, long timestamp) throws IOException {
+        int offset = Math.toIntExact(LOG_HEADER + logCount * RECORD);
+        if (offset + RECORD > log.capacity()) {
+            log.force();
+            log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) log.capacity() * 2);
+        }
+        log.putInt(offset, boardSize);
+        log.putInt(offset + 4, flips);
+        log.putInt(offset + 8, nameId);
+        log.putLong(offset + 12, timestamp);
+        // Publish the record only once it is complete
+        log.putLong(8, ++logCount);
+    }
+
+    private int nameId(String playerName) throws IOException {
+        Integer id = nameIds.get(playerName);
+        if (id == null) {
+            namesOut.writeUTF(playerName);
+            namesOut.flush();
+            id = names.size();
+            names.add(playerName);
+            nameIds.put(playerName, id);
+        }
+        return id;
+    }
+
+    private void compactLogs() throws IOException {
+        // The snapshot is already sorted; only the log records need sorting
+        List<long[]> logged = new ArrayList<>();
+        List<Long> generations = logGenerations();
+        for (long generation : generations) {
+            if (generation <= snapshotGeneration) {
+                continue;
+            }
+            ByteBuffer buffer = generation == logGeneration ? log : readFile(logFile(generation));
+            long count = generation == logGeneration ? logCount : buffer.getLong(8);
+            for (int i = 0; i < count; i++) {
+                int offset = LOG_HEADER + i * RECORD;
+                logged.add(new long[]{buffer.getInt(offset), buffer.getInt(offset + 4),
+                        buffer.getInt(offset + 8), buffer.getLong(offset + 12)});
+            }
+        }
+        logged.sort(Comparator.<long[]>comparingLong(r -> r[0]).thenComparingLong(r -> r[1]));
+
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        ByteBuffer previous = Files.exists(snapshot) ? readFile(snapshot) : null;
+        long previousCount = previous == null ? 0 : previous.getLong(16);
+        long total = previousCount + logged.size();
+
+        Path temporary = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer out = channel.map(FileChannel.MapMode.READ_WRITE, 0, SNAPSHOT_HEADER + total * RECORD);
+            out.putInt(SNAPSHOT_MAGIC).putInt(VERSION).putLong(logGeneration).putLong(total);
+
+            // Merge the sorted snapshot with the sorted log records, snapshot first on ties
+            int next = 0;
+            for (long i = 0; i < previousCount; i++) {
+                int offset = Math.toIntExact(SNAPSHOT_HEADER + i * RECORD);
+                int boardSize = previous.getInt(offset);
+                int flips = previous.getInt(offset + 4);
+                while (next < logged.size() && compare(logged.get(next), boardSize, flips) < 0) {
+                    putRecord(out, logged.get(next++));
+                }
+                out.putInt(boardSize).putInt(flips).putInt(previous.getInt(offset + 8)).putLong(previous.getLong(offset + 12));
+            }
+            while (next < logged.size()) {
+                putRecord(out, logged.get(next++));
+            }
+            out.force();
+        }
+        Files.move(temporary, snapshot, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        snapshotGeneration = logGeneration;
+
+        // Start the next generation, then drop the logs now held by the snapshot
+        long compacted = logGeneration;
+        logChannel.close();
+        openLog(compacted + 1);
+        for (long generation : generations) {
+            Files.deleteIfExists(logFile(generation));
+        }
+    }
+
+    private static int compare(long[] record, int boardSize, int flips) {
+        int bySize = Long.compare(record[0], boardSize);
+        return bySize != 0 ? bySize : Long.compare(record[1], flips);
+    }
+
+    private static void putRecord(ByteBuffer out, long[] record) {
+        out.putInt((int) record[0]).putInt((int) record[1]).putInt((int) record[2]).putLong(record[3]);
+    }
+
+    private void openLog(long generation) throws IOException {
+        logGeneration = generation;
+        logChannel = FileChannel.open(logFile(generation), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = logChannel.size();
+        log = logChannel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, INITIAL_LOG_CAPACITY));
+        if (size == 0) {
+            log.putInt(0, LOG_MAGIC);
+            log.putInt(4, VERSION);
+            log.putLong(8, 0);
+        } else if (log.getInt(0) != LOG_MAGIC || log.getInt(4) != VERSION) {
+            throw new IOException("Not a leaderboard log: " + logFile(generation));
+        }
+        logCount = log.getLong(8);
+    }
+
+    private long readSnapshotGeneration() throws IOException {
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (!Files.exists(snapshot)) {
+            return 0;
+        }
+        try (DataInputStream in = new DataInputStream(Files.newInputStream(snapshot))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a leaderboard snapshot: " + snapshot);
+            }
+            return in.readLong();
+        }
+    }
+
+    private long readNames(Path namesFile) throws IOException {
+        if (!Files.exists(namesFile)) {
+            return 0;
+        }
+        byte[] bytes = Files.readAllBytes(namesFile);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        long validLength = 0;
+        try {
+            while (in.available() > 0) {
+                String name = in.readUTF();
+                nameIds.put(name, names.size());
+                names.add(name);
+                validLength = bytes.length - in.available();
+            }
+        } catch (EOFException | UTFDataFormatException e) {
+            // Torn last entry, truncated by the caller
+        }
+        return validLength;
+    }
+
+    private void visitRecords(ByteBuffer buffer, int header, long count, RecordVisitor visitor) {
+        for (long i = 0; i < count; i++) {
+            int offset = Math.toIntExact(header + i * RECORD);
+            int nameId = buffer.getInt(offset + 8);
+            visitor.visit(buffer.getInt(offset), buffer.getInt(offset + 4),
+                    nameId < names.size() ? names.get(nameId) : "?", buffer.getLong(offset + 12));
+        }
+    }
+
+    private List<Long> logGenerations() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(LOG_PREFIX) && name.endsWith(LOG_SUFFIX))
+                    .map(name -> name.substring(LOG_PREFIX.length(), name.length() - LOG_SUFFIX.length()))
+                    .filter(generation -> generation.chars().allMatch(Character::isDigit) && !generation.isEmpty())
+                    .map(Long::parseLong)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path logFile(long generation) {
+        return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+
+    private static ByteBuffer readFile(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
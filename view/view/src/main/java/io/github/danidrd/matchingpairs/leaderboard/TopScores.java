@@ -0,0 +1,304 @@
+package io.github.danidrd.matchingpairs.leaderboard;
+
+import io.github.danidrd.matchingpairs.view.LeaderboardEntry;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The best {@code capacity} scores of one board size, kept in a min-max heap
+ * over primitive arrays.
+ * <p>
+ * A score is better when it needs fewer flips; on equal flips the score
+ * added first is better. The best score sits at the root and the worst one
+ * is one of its children, so both are found in constant time, and adding a
+ * score takes {@code O(log capacity)}.
+ * <p>
+ * Rank and page queries read a ranked view: the slots of the heap, best
+ * first, in a primitive array merge sorted on the first query after the kept
+ * scores change. A rank then takes {@code O(log capacity)} and a page
+ * {@code O(limit)}, however many queries follow one change.
+ */
+public class TopScores {
+    private final int[] flips;
+    private final long[] order;
+    private final String[] names;
+    private int size = 0;
+    private long added = 0;
+    // Slots of the heap, best first, valid until the next kept score
+    private final int[] ranked;
+    private final int[] mergeBuffer;
+    private boolean rankedValid = true;
+
+    /**
+     * @param capacity the number of scores kept
+     * @throws IllegalArgumentException if the capacity is not positive
+     */
+    public TopScores(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        flips = new int[capacity];
+        order = new long[capacity];
+        names = new String[capacity];
+        ranked = new int[capacity];
+        mergeBuffer = new int[capacity];
+    }
+
+    /**
+     * Adds a score if it is among the best ones, dropping the worst kept
+     * score when the heap is full.
+     *
+     * @param playerName the name of the player
+     * @param flips the number of flips
+     * @return true if the score was kept
+     */
+    public boolean offer(String playerName, int flips) {
+        long sequence = added++;
+        if (size == this.flips.length) {
+            int worst = worstIndex();
+            if (flips >= this.flips[worst]) {
+                return false; // Not better than the worst kept score, which was added earlier
+            }
+            removeWorst(worst);
+        }
+
+        int i = size++;
+        this.flips[i] = flips;
+        order[i] = sequence;
+        names[i] = playerName;
+        pushUp(i);
+        rankedValid = false;
+        return true;
+    }
+
+    /**
+     * @return the fewest flips kept, or -1 if there is no score
+     */
+    public int getBestFlips() {
+        return size == 0 ? -1 : flips[0];
+    }
+
+    /**
+     * @return the most flips kept, or -1 if there is no score
+     */
+    public int getWorstFlips() {
+        return size == 0 ? -1 : flips[worstIndex()];
+    }
+
+    /**
+     * Returns the rank a new score with the given flips would take among the
+     * kept scores, counting from 1. Kept scores with the same flips rank first.
+     *
+     * @param flips the number of flips
+     * @return the rank, at most {@code size() + 1}
+     */
+    public int getRank(int flips) {
+        rank();
+        // The first ranked score with more flips
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.flips[ranked[middle]] <= flips) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low + 1;
+    }
+
+    /**
+     * @return the number of scores kept
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the kept scores, best first
+     */
+    public List<LeaderboardEntry> toSortedList() {
+        return toSortedList(0, size);
+    }
+
+    /**
+     * Returns one page of the kept scores, best first.
+     *
+     * @param offset the number of best scores to skip
+     * @param limit the maximum number of scores to return
+     * @return the scores ranked from {@code offset + 1} to {@code offset + limit}
+     */
+    public List<LeaderboardEntry> toSortedList(int offset, int limit) {
+        rank();
+        int from = Math.min(Math.max(offset, 0), size);
+        int to = (int) Math.min((long) from + Math.max(limit, 0), size);
+        List<LeaderboardEntry> entries = new ArrayList<>(to - from);
+        for (int rank = from; rank < to; rank++) {
+            int i = ranked[rank];
+            entries.add(new LeaderboardEntry(names[i], flips[i]));
+        }
+        return entries;
+    }
+
+    /**
+     * Rebuilds the ranked view if a score was kept since it was last built.
+     */
+    private void rank() {
+        if (rankedValid) {
+            return;
+        }
+        for (int i = 0; i < size; i++) {
+            ranked[i] = i;
+        }
+        mergeSort(0, size);
+        rankedValid = true;
+    }
+
+    /**
+     * Sorts the ranked slots in {@code [from, to)}, best first.
+     */
+    private void mergeSort(int from, int to) {
+        if (to - from < 2) {
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        mergeSort(from, middle);
+        mergeSort(middle, to);
+        if (!less(ranked[middle], ranked[middle - 1])) {
+            return; // Both halves are already in order
+        }
+        System.arraycopy(ranked, from, mergeBuffer, from, to - from);
+        int left = from;
+        int right = middle;
+        for (int k = from; k < to; k++) {
+            // Take from the left half unless the right one holds the better score
+            if (right >= to || (left < middle && !less(mergeBuffer[right], mergeBuffer[left]))) {
+                ranked[k] = mergeBuffer[left++];
+            } else {
+                ranked[k] = mergeBuffer[right++];
+            }
+        }
+    }
+
+    private int worstIndex() {
+        if (size <= 2) {
+            return size - 1;
+        }
+        return less(1, 2) ? 2 : 1;
+    }
+
+    private void removeWorst(int worst) {
+        // The last score is never better than the root, so it only needs to sink
+        int last = --size;
+        if (worst != last) {
+            move(last, worst);
+            pushDown(worst);
+        }
+        names[last] = null;
+    }
+
+    private boolean less(int a, int b) {
+        return flips[a] < flips[b] || (flips[a] == flips[b] && order[a] < order[b]);
+    }
+
+    private static boolean isMinLevel(int i) {
+        return ((31 - Integer.numberOfLeadingZeros(i + 1)) & 1) == 0;
+    }
+
+    private void pushUp(int i) {
+        if (i == 0) {
+            return;
+        }
+        int parent = (i - 1) / 2;
+        if (isMinLevel(i)) {
+            if (less(parent, i)) {
+                swap(i, parent);
+                pushUpMax(parent);
+            } else {
+                pushUpMin(i);
+            }
+        } else {
+            if (less(i, parent)) {
+                swap(i, parent);
+                pushUpMin(parent);
+            } else {
+                pushUpMax(i);
+            }
+        }
+    }
+
+    private void pushUpMin(int i) {
+        while (i >= 3) {
+            int grandparent = ((i - 1) / 2 - 1) / 2;
+            if (!less(i, grandparent)) {
+                return;
+            }
+            swap(i, grandparent);
+            i = grandparent;
+        }
+    }
+
+    private void pushUpMax(int i) {
+        while (i >= 3) {
+            int grandparent = ((i - 1) / 2 - 1) / 2;
+            if (!less(grandparent, i)) {
+                return;
+            }
+            swap(i, grandparent);
+            i = grandparent;
+        }
+    }
+
+    private void pushDown(int i) {
+        boolean minLevel = isMinLevel(i);
+        while (true) {
+            // Find the best (or worst, on a max level) child or grandchild
+            int m = -1;
+            int firstChild = 2 * i + 1;
+            for (int c = firstChild; c < firstChild + 2 && c < size; c++) {
+                if (m < 0 || (minLevel ? less(c, m) : less(m, c))) {
+                    m = c;
+                }
+                int firstGrandchild = 2 * c + 1;
+                for (int g = firstGrandchild; g < firstGrandchild + 2 && g < size; g++) {
+                    if (minLevel ? less(g, m) : less(m, g)) {
+                        m = g;
+                    }
+                }
+            }
+            if (m < 0 || !(minLevel ? less(m, i) : less(i, m))) {
+                return;
+            }
+
+            swap(m, i);
+            if (m <= firstChild + 1) {
+                return; // A child: the heap property already holds below it
+            }
+            int parent = (m - 1) / 2;
+            if (minLevel ? less(parent, m) : less(m, parent)) {
+                swap(m, parent);
+            }
+            i = m;
+        }
+    }
+
+    private void move(int from, int to) {
+        flips[to] = flips[from];
+        order[to] = order[from];
+        names[to] = names[from];
+    }
+
+    private void swap(int a, int b) {
+        int f = flips[a];
+        flips[a] = flips[b];
+        flips[b] = f;
+        long o = order[a];
+        order[a] = order[b];
+        order[b] = o;
+        String n = names[a];
+        names[a] = names[b];
+        names[b] = n;
+    }
+}
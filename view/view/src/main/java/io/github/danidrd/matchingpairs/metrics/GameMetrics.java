@@ -0,0 +1,229 @@
+package io.github.danidrd.matchingpairs.metrics;
+
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.event.GameListener;
+import io.github.danidrd.matchingpairs.model.FlipResult;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import javax.swing.*;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters and latency recorders of the game and UI hot paths.
+ * <p>
+ * Flips, matches and mismatches are counted from {@link GameListener#cardFlipped}
+ * and vetoes from {@link GameListener#cardStateVetoed}, once the metrics are
+ * registered on a {@link GameEventBus}. Move handling, shuffles, board builds
+ * and card redraws are timed by the controller and the board into
+ * {@link LatencyRecorder}s. Recording allocates nothing, so metrics are always on.
+ * <p>
+ * The metrics can be published as a JMX MBean, printed periodically to
+ * standard output, and can watch the event dispatch thread for stalls. The
+ * last two run on a single daemon thread, started on first use.
+ */
+public class GameMetrics implements GameMetricsMXBean, GameListener {
+    /** The name the metrics are registered under in the platform MBean server. */
+    public static final String OBJECT_NAME = "io.github.danidrd.matchingpairs:type=GameMetrics";
+
+    private static final long PROBE_INTERVAL_MILLIS = 100;
+
+    private final AtomicLong flips = new AtomicLong();
+    private final AtomicLong matches = new AtomicLong();
+    private final AtomicLong mismatches = new AtomicLong();
+    private final AtomicLong vetoes = new AtomicLong();
+    private final AtomicLong edtStalls = new AtomicLong();
+
+    private final LatencyRecorder moveLatency = new LatencyRecorder("move");
+    private final LatencyRecorder shuffleLatency = new LatencyRecorder("shuffle");
+    private final LatencyRecorder boardLatency = new LatencyRecorder("board");
+    private final LatencyRecorder repaintLatency = new LatencyRecorder("repaint");
+    private final LatencyRecorder edtLatency = new LatencyRecorder("edt");
+
+    private ScheduledExecutorService scheduler;
+    private long stallThresholdNanos;
+    // Time the pending EDT probe was posted, or 0 when no probe is pending
+    private final AtomicLong probePostedNanos = new AtomicLong();
+    private final Runnable probe = this::probeRan;
+
+    /**
+     * @return the recorder of the time taken to handle a card flip
+     */
+    public LatencyRecorder getMoveRecorder() {
+        return moveLatency;
+    }
+
+    /**
+     * @return the recorder of the time taken to start a new game on the board
+     */
+    public LatencyRecorder getShuffleRecorder() {
+        return shuffleLatency;
+    }
+
+    /**
+     * @return the recorder of the time taken to build the cards of a board
+     */
+    public LatencyRecorder getBoardRecorder() {
+        return boardLatency;
+    }
+
+    /**
+     * @return the recorder of the time taken to redraw dirty cards
+     */
+    public LatencyRecorder getRepaintRecorder() {
+        return repaintLatency;
+    }
+
+    @Override
+    public void cardFlipped(int playerIndex, int index, FlipResult result) {
+        flips.incrementAndGet();
+        if (result == FlipResult.MATCH) {
+            matches.incrementAndGet();
+        } else if (result == FlipResult.MISMATCH) {
+            mismatches.incrementAndGet();
+        }
+    }
+
+    @Override
+    public void cardStateVetoed(int index, byte oldState, byte newState) {
+        vetoes.incrementAndGet();
+    }
+
+    @Override
+    public long getFlips() {
+        return flips.get();
+    }
+
+    @Override
+    public long getMatches() {
+        return matches.get();
+    }
+
+    @Override
+    public long getMismatches() {
+        return mismatches.get();
+    }
+
+    @Override
+    public long getVetoes() {
+        return vetoes.get();
+    }
+
+    @Override
+    public long getEdtStalls() {
+        return edtStalls.get();
+    }
+
+    @Override
+    public LatencySummary getMoveLatency() {
+        return moveLatency.summarize();
+    }
+
+    @Override
+    public LatencySummary getShuffleLatency() {
+        return shuffleLatency.summarize();
+    }
+
+    @Override
+    public LatencySummary getBoardLatency() {
+        return boardLatency.summarize();
+    }
+
+    @Override
+    public LatencySummary getRepaintLatency() {
+        return repaintLatency.summarize();
+    }
+
+    @Override
+    public LatencySummary getEdtLatency() {
+        return edtLatency.summarize();
+    }
+
+    /**
+     * Registers the metrics in the platform MBean server under {@link #OBJECT_NAME}.
+     * <p>
+     * Only one instance can be registered per JVM; a failure is reported and ignored.
+     */
+    public void registerMBean() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName(OBJECT_NAME));
+        } catch (JMException e) {
+            System.err.println("Cannot register game metrics: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Prints a {@link #report()} to standard output at a fixed period.
+     *
+     * @param periodSeconds the time between two reports, in seconds
+     * @throws IllegalArgumentException if the period is not positive
+     */
+    public synchronized void startReporting(long periodSeconds) {
+        if (periodSeconds <= 0) {
+            throw new IllegalArgumentException("Report period must be positive");
+        }
+        scheduler().scheduleAtFixedRate(() -> System.out.println(report()),
+                periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Watches the event dispatch thread for stalls.
+     * <p>
+     * Every 100 ms a probe is posted to the event dispatch thread, unless the
+     * previous one has not run yet. The delay until a probe runs is recorded,
+     * and a delay above the threshold counts as a stall.
+     *
+     * @param thresholdMillis the delay above which the event dispatch thread is stalled, in milliseconds
+     * @throws IllegalArgumentException if the threshold is not positive
+     */
+    public synchronized void startStallDetector(long thresholdMillis) {
+        if (thresholdMillis <= 0) {
+            throw new IllegalArgumentException("Stall threshold must be positive");
+        }
+        stallThresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        scheduler().scheduleAtFixedRate(this::postProbe,
+                PROBE_INTERVAL_MILLIS, PROBE_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void postProbe() {
+        if (probePostedNanos.compareAndSet(0, System.nanoTime())) {
+            SwingUtilities.invokeLater(probe);
+        }
+    }
+
+    private void probeRan() {
+        long delay = System.nanoTime() - probePostedNanos.getAndSet(0);
+        edtLatency.record(delay);
+        if (delay > stallThresholdNanos) {
+            edtStalls.incrementAndGet();
+        }
+    }
+
+    private ScheduledExecutorService scheduler() {
+        if (scheduler == null) {
+            scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "game-metrics");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return scheduler;
+    }
+
+    /**
+     * @return every counter and latency summary, one per line
+     */
+    public String report() {
+        return "Game metrics: flips " + getFlips() + ", matches " + getMatches()
+                + ", mismatches " + getMismatches() + ", vetoes " + getVetoes() + ", EDT stalls " + getEdtStalls()
+                + "\n  move: " + getMoveLatency()
+                + "\n  shuffle: " + getShuffleLatency()
+                + "\n  board: " + getBoardLatency()
+                + "\n  repaint: " + getRepaintLatency()
+                + "\n  edt: " + getEdtLatency();
+    }
+}
@@ -0,0 +1,57 @@
+package io.github.danidrd.matchingpairs.metrics;
+
+/**
+ * JMX view of the {@link GameMetrics} of a running game.
+ */
+public interface GameMetricsMXBean {
+
+    /**
+     * @return the number of flips applied to the engine
+     */
+    long getFlips();
+
+    /**
+     * @return the number of flips that matched a pair
+     */
+    long getMatches();
+
+    /**
+     * @return the number of flips that completed a mismatched pair
+     */
+    long getMismatches();
+
+    /**
+     * @return the number of card state changes vetoed by a listener
+     */
+    long getVetoes();
+
+    /**
+     * @return the number of times the event dispatch thread was late by more than the stall threshold
+     */
+    long getEdtStalls();
+
+    /**
+     * @return the time taken to handle a card flip, including the redraw requests it makes
+     */
+    LatencySummary getMoveLatency();
+
+    /**
+     * @return the time taken to start a new game on the board
+     */
+    LatencySummary getShuffleLatency();
+
+    /**
+     * @return the time taken to build the cards of a board
+     */
+    LatencySummary getBoardLatency();
+
+    /**
+     * @return the time taken to redraw the cards marked dirty since the previous redraw
+     */
+    LatencySummary getRepaintLatency();
+
+    /**
+     * @return the delay between posting a probe to the event dispatch thread and running it
+     */
+    LatencySummary getEdtLatency();
+}
@@ -0,0 +1,22 @@
+package io.github.danidrd.matchingpairs.model;
+
+/**
+ * Listener notified once per bulk transition of a {@link GameEngine} board.
+ * <p>
+ * A bulk transition, such as dealing a new board or {@link GameEngine#setStates(int, int, byte)},
+ * rewrites a range of cards in one pass and reports the whole range with a
+ * single call, instead of one event per card. Single flips are not reported;
+ * their outcome is returned by {@link GameEngine#flip(int)}.
+ */
+@FunctionalInterface
+public interface BoardListener {
+
+    /**
+     * Called after the values or states of a range of cards have changed.
+     *
+     * @param engine the engine whose board changed
+     * @param fromIndex the index of the first changed card, inclusive
+     * @param toIndex the index of the last changed card, exclusive
+     */
+    void boardChanged(GameEngine engine, int fromIndex, int toIndex);
+}
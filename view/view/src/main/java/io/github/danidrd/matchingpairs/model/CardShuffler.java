@@ -0,0 +1,81 @@
+package io.github.danidrd.matchingpairs.model;
+
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Deals card values into a reusable {@code int[]} buffer.
+ * <p>
+ * Values are written and shuffled in place with a Fisher-Yates shuffle driven
+ * by a pluggable {@link RandomGenerator}, so dealing the same board again
+ * allocates nothing. Passing a seeded generator (for example a
+ * {@link SplittableRandom} or {@code L64X128MixRandom}) makes the deal
+ * reproducible.
+ */
+public class CardShuffler {
+    private RandomGenerator random;
+
+    /**
+     * Creates a shuffler backed by an unseeded {@link SplittableRandom}.
+     */
+    public CardShuffler() {
+        this(new SplittableRandom());
+    }
+
+    /**
+     * Creates a shuffler backed by the given random generator.
+     *
+     * @param random the random generator used to shuffle
+     */
+    public CardShuffler(RandomGenerator random) {
+        setRandom(random);
+    }
+
+    /**
+     * @return the random generator used to shuffle
+     */
+    public RandomGenerator getRandom() {
+        return random;
+    }
+
+    /**
+     * @param random the random generator used to shuffle
+     */
+    public void setRandom(RandomGenerator random) {
+        this.random = Objects.requireNonNull(random, "random");
+    }
+
+    /**
+     * Deals a new board into the given buffer.
+     * <p>
+     * Every value from 1 to the number of pairs is written to two slots at
+     * the start of the buffer, then those slots are shuffled. Slots past
+     * {@code numberOfPairs * 2} are left untouched.
+     *
+     * @param values the buffer to refill, at least {@code numberOfPairs * 2} long
+     * @param numberOfPairs the number of pairs to deal
+     */
+    public void deal(int[] values, int numberOfPairs) {
+        int totalCards = numberOfPairs * 2;
+        for (int i = 0; i < totalCards; i++) {
+            values[i] = i / 2 + 1;
+        }
+        shuffle(values, totalCards);
+    }
+
+    /**
+     * Shuffles the first {@code length} slots of the buffer in place.
+     *
+     * @param values the buffer to shuffle
+     * @param length the number of leading slots to shuffle
+     */
+    public void shuffle(int[] values, int length) {
+        for (int i = length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = values[i];
+            values[i] = values[j];
+            values[j] = tmp;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package io.github.danidrd.matchingpairs.model;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of game results indexed by flip count.
+ * <p>
+ * Flip counts are small non-negative integers, so each one has its own
+ * bucket and every statistic is exact. A Fenwick tree over the buckets keeps
+ * running totals, so recording a result, counting the results below a flip
+ * count and finding a percentile all take {@code O(log maxFlips)}.
+ * Histograms filled by different threads are combined with {@link #merge(FlipHistogram)}.
+ */
+public class FlipHistogram {
+    private long[] counts = new long[64];
+    private long[] tree = new long[65]; // Fenwick tree over counts, 1-based
+    private long totalCount = 0;
+    private long totalFlips = 0;
+    private int min = Integer.MAX_VALUE;
+    private int max = -1;
+
+    /**
+     * Adds one game result.
+     *
+     * @param flips the number of flips of the game
+     * @throws IllegalArgumentException if the number of flips is negative
+     */
+    public void record(int flips) {
+        record(flips, 1);
+    }
+
+    /**
+     * Adds the same game result several times.
+     *
+     * @param flips the number of flips of the games
+     * @param count the number of games
+     * @throws IllegalArgumentException if the number of flips is negative
+     */
+    public void record(int flips, long count) {
+        if (flips < 0) {
+            throw new IllegalArgumentException("Flips must not be negative");
+        }
+        if (count == 0) {
+            return;
+        }
+        if (flips >= counts.length) {
+            grow(flips);
+        }
+        counts[flips] += count;
+        for (int i = flips + 1; i <= counts.length; i += i & -i) {
+            tree[i] += count;
+        }
+        totalCount += count;
+        totalFlips += flips * count;
+        min = Math.min(min, flips);
+        max = Math.max(max, flips);
+    }
+
+    /**
+     * Adds every result of another histogram to this one.
+     *
+     * @param other the histogram to add
+     */
+    public void merge(FlipHistogram other) {
+        for (int flips = other.max; flips >= 0 && flips >= other.min; flips--) {
+            record(flips, other.counts[flips]);
+        }
+    }
+
+    /**
+     * Grows the buckets to the next power of two above the given flip count
+     * and rebuilds the Fenwick tree in linear time.
+     */
+    private void grow(int flips) {
+        int length = Math.max(Integer.highestOneBit(flips) * 2, counts.length * 2);
+        counts = Arrays.copyOf(counts, length);
+        tree = new long[length + 1];
+        for (int i = 1; i <= length; i++) {
+            tree[i] += counts[i - 1];
+            int parent = i + (i & -i);
+            if (parent <= length) {
+                tree[parent] += tree[i];
+            }
+        }
+    }
+
+    /**
+     * @param flips a flip count
+     * @return the number of games that needed fewer flips
+     */
+    public long getCountBelow(int flips) {
+        long count = 0;
+        for (int i = Math.min(flips, counts.length); i > 0; i -= i & -i) {
+            count += tree[i];
+        }
+        return count;
+    }
+
+    /**
+     * @param flips a flip count
+     * @return the number of games with exactly that flip count
+     */
+    public long getCount(int flips) {
+        return flips >= 0 && flips < counts.length ? counts[flips] : 0;
+    }
+
+    /**
+     * @return the number of games recorded
+     */
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * @return the lowest flip count recorded, or -1 if the histogram is empty
+     */
+    public int getMin() {
+        return totalCount == 0 ? -1 : min;
+    }
+
+    /**
+     * @return the highest flip count recorded, or -1 if the histogram is empty
+     */
+    public int getMax() {
+        return max;
+    }
+
+    /**
+     * @return the mean flip count, or 0 if the histogram is empty
+     */
+    public double getMean() {
+        return totalCount == 0 ? 0 : (double) totalFlips / totalCount;
+    }
+
+    /**
+     * Returns the smallest flip count such that at least the given fraction
+     * of the games needed that many flips or fewer.
+     *
+     * @param percentile the fraction of games, between 0 and 100
+     * @return the flip count at the percentile, or -1 if the histogram is empty
+     */
+    public int getPercentile(double percentile) {
+        if (totalCount == 0) {
+            return -1;
+        }
+        long target = Math.min(totalCount, Math.max(1, (long) Math.ceil(totalCount * percentile / 100.0)));
+
+        // Descend the Fenwick tree to the last bucket whose running total is below the target
+        int position = 0;
+        for (int step = counts.length; step > 0; step >>= 1) {
+            if (position + step <= counts.length && tree[position + step] < target) {
+                position += step;
+                target -= tree[position];
+            }
+        }
+        return position;
+    }
+}
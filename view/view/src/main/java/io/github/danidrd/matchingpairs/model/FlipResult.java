@@ -0,0 +1,13 @@
+package io.github.danidrd.matchingpairs.model;
+
+// Enum that holds the possible outcomes of flipping a card on a GameEngine
+public enum FlipResult {
+    /** The flip was rejected: the card was not face down or a mismatch is pending. */
+    IGNORED,
+    /** The card was turned face up as the first card of a turn. */
+    FIRST,
+    /** The card matched the first selected card, both cards are now excluded. */
+    MATCH,
+    /** The card did not match, the pair stays face up until {@link GameEngine#resolveMismatch()}. */
+    MISMATCH
+}
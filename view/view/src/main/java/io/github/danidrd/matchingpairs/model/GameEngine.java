@@ -0,0 +1,536 @@
+package io.github.danidrd.matchingpairs.model;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Headless model of a matching pairs game.
+ * <p>
+ * The board is kept as a primitive {@code int[]} of card values and
+ * {@link PackedStates}, two bits of state per card, so a game can be played
+ * without any Swing component, and whole-board scans such as counting the
+ * cards still face down go a word of 32 cards at a time. Engine responsibilities:
+ * <ul>
+ *     <li> Pairing and shuffling card values.</li>
+ *     <li> Applying flips and resolving mismatched pairs.</li>
+ *     <li> Tracking turns, matched pairs and flips per player.</li>
+ * </ul>
+ * Once the board has been sized, flipping and resolving cards allocates nothing.
+ */
+public class GameEngine {
+    /** State code of a card that has already been matched. */
+    public static final byte EXCLUDED = 0;
+    /** State code of a card that can be flipped. */
+    public static final byte FACE_DOWN = 1;
+    /** State code of a card that is currently revealed. */
+    public static final byte FACE_UP = 2;
+
+    private static final int NO_CARD = -1;
+
+    private final RandomGenerator seedSource;
+    private final SeededRandom dealRandom = new SeededRandom(0);
+    private final CardShuffler shuffler = new CardShuffler(dealRandom);
+    private long seed = 0;
+    private int[] values = new int[0];
+    private final PackedStates states = new PackedStates();
+    private int numberOfPairs = 0;
+
+    private final int[] playerFlips;
+    private final int[] playerMatchedPairs;
+    private int currentPlayerIndex = 0;
+    private int globalMatchedPairs = 0;
+    private int totalFlips = 0;
+
+    private int firstSelected = NO_CARD;
+    private int secondSelected = NO_CARD;
+    private boolean resolutionPending = false;
+
+    private BoardListener[] boardListeners = new BoardListener[0];
+
+    /**
+     * Creates an engine for the given number of players with an empty board,
+     * drawing game seeds from an unseeded random generator.
+     *
+     * @param numberOfPlayers the number of players taking turns
+     * @throws IllegalArgumentException if the number of players is not positive
+     */
+    public GameEngine(int numberOfPlayers) {
+        this(numberOfPlayers, new SplittableRandom());
+    }
+
+    /**
+     * Creates an engine for the given number of players with an empty board.
+     * <p>
+     * Each game draws its 64-bit seed from the given generator, and its board
+     * is dealt by a {@link SeededRandom} started from that seed, so a seeded
+     * generator makes the whole sequence of games reproducible.
+     *
+     * @param numberOfPlayers the number of players taking turns
+     * @param seedSource the random generator the game seeds are drawn from
+     * @throws IllegalArgumentException if the number of players is not positive
+     */
+    public GameEngine(int numberOfPlayers, RandomGenerator seedSource) {
+        if (numberOfPlayers <= 0) {
+            throw new IllegalArgumentException("At least one player is required");
+        }
+        this.seedSource = seedSource;
+        playerFlips = new int[numberOfPlayers];
+        playerMatchedPairs = new int[numberOfPlayers];
+    }
+
+    /**
+     * Resizes the board to the given number of pairs and shuffles it.
+     * <p>
+     * The backing arrays are only reallocated when the board grows beyond
+     * their current capacity.
+     *
+     * @param numberOfPairs the number of pairs on the board
+     * @throws IllegalArgumentException if the number of pairs is negative
+     */
+    public void reset(int numberOfPairs) {
+        reset(numberOfPairs, seedSource.nextLong());
+    }
+
+    /**
+     * Resizes the board to the given number of pairs and deals it from the given seed.
+     *
+     * @param numberOfPairs the number of pairs on the board
+     * @param seed the seed the board is dealt from
+     * @throws IllegalArgumentException if the number of pairs is negative
+     */
+    public void reset(int numberOfPairs, long seed) {
+        if (numberOfPairs < 0) {
+            throw new IllegalArgumentException("Number of pairs must not be negative");
+        }
+        int totalCards = numberOfPairs * 2;
+        if (values.length < totalCards) {
+            values = new int[totalCards];
+        }
+        this.numberOfPairs = numberOfPairs;
+        shuffle(seed);
+    }
+
+    /**
+     * Starts a new game on the current board with a fresh seed.
+     */
+    public void shuffle() {
+        shuffle(seedSource.nextLong());
+    }
+
+    /**
+     * Starts a new game on the current board, dealt from the given seed.
+     * <p>
+     * Every value from 1 to the number of pairs is dealt to two cards by the
+     * {@link CardShuffler}, the cards are turned face down, and all
+     * counters are reset with the first player on turn. The same seed and
+     * board size always deal the same board. Board listeners are notified
+     * once for the whole board.
+     *
+     * @param seed the seed the board is dealt from
+     */
+    public void shuffle(long seed) {
+        this.seed = seed;
+        dealRandom.setSeed(seed);
+        shuffler.deal(values, numberOfPairs);
+        states.reset(numberOfPairs * 2, FACE_DOWN);
+
+        for (int i = 0; i < playerFlips.length; i++) {
+            playerFlips[i] = 0;
+            playerMatchedPairs[i] = 0;
+        }
+        currentPlayerIndex = 0;
+        globalMatchedPairs = 0;
+        totalFlips = 0;
+        firstSelected = NO_CARD;
+        secondSelected = NO_CARD;
+        resolutionPending = false;
+        fireBoardChanged(0, numberOfPairs * 2);
+    }
+
+    /**
+     * Registers a listener notified once per bulk transition of the board.
+     *
+     * @param listener the listener to be registered
+     */
+    public void addBoardListener(BoardListener listener) {
+        boardListeners = Arrays.copyOf(boardListeners, boardListeners.length + 1);
+        boardListeners[boardListeners.length - 1] = listener;
+    }
+
+    /**
+     * Deregisters a listener added with {@link #addBoardListener(BoardListener)}.
+     *
+     * @param listener the listener to be removed
+     */
+    public void removeBoardListener(BoardListener listener) {
+        for (int i = 0; i < boardListeners.length; i++) {
+            if (boardListeners[i] == listener) {
+                BoardListener[] remaining = new BoardListener[boardListeners.length - 1];
+                System.arraycopy(boardListeners, 0, remaining, 0, i);
+                System.arraycopy(boardListeners, i + 1, remaining, i, remaining.length - i);
+                boardListeners = remaining;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Notifies every board listener that the given range of cards changed.
+     */
+    private void fireBoardChanged(int fromIndex, int toIndex) {
+        for (BoardListener listener : boardListeners) {
+            listener.boardChanged(this, fromIndex, toIndex);
+        }
+    }
+
+    /**
+     * Overwrites the state of a range of cards in one pass, without applying
+     * any game rule, and fires a single board event for the range.
+     * <p>
+     * This is the bulk counterpart of {@link #setState(int, byte)}, for
+     * transitions such as revealing or hiding the whole board.
+     *
+     * @param fromIndex the index of the first card, inclusive
+     * @param toIndex the index of the last card, exclusive
+     * @param state the new state code of the cards
+     * @throws IndexOutOfBoundsException if the range is not within the board
+     */
+    public void setStates(int fromIndex, int toIndex, byte state) {
+        states.fill(fromIndex, toIndex, state);
+        fireBoardChanged(fromIndex, toIndex);
+    }
+
+    /**
+     * Overwrites the whole game with a saved one, without applying any game rule,
+     * and fires a single board event for the board.
+     * <p>
+     * Used by {@link GameSnapshot}, which validates the saved game first.
+     */
+    void restore(int numberOfPairs, long seed, int[] values, byte[] states,
+                 int[] playerFlips, int[] playerMatchedPairs, int currentPlayerIndex,
+                 int globalMatchedPairs, int totalFlips, int firstSelected, int secondSelected) {
+        int totalCards = numberOfPairs * 2;
+        if (this.values.length < totalCards) {
+            this.values = new int[totalCards];
+        }
+        this.numberOfPairs = numberOfPairs;
+        this.seed = seed;
+        System.arraycopy(values, 0, this.values, 0, totalCards);
+        this.states.reset(totalCards, FACE_DOWN);
+        for (int i = 0; i < totalCards; i++) {
+            this.states.set(i, states[i]);
+        }
+        System.arraycopy(playerFlips, 0, this.playerFlips, 0, this.playerFlips.length);
+        System.arraycopy(playerMatchedPairs, 0, this.playerMatchedPairs, 0, this.playerMatchedPairs.length);
+        this.currentPlayerIndex = currentPlayerIndex;
+        this.globalMatchedPairs = globalMatchedPairs;
+        this.totalFlips = totalFlips;
+        this.firstSelected = firstSelected;
+        this.secondSelected = secondSelected;
+        this.resolutionPending = secondSelected != NO_CARD;
+        fireBoardChanged(0, totalCards);
+    }
+
+    /**
+     * @return the seed the current board was dealt from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Flips the card at the given index for the current player.
+     * <p>
+     * The flip is ignored if a mismatch is still pending or the card is not
+     * face down. The first card of a turn is only revealed. The second card is
+     * compared to the first one: a match excludes both cards and the player
+     * keeps the turn, a mismatch leaves both cards face up until
+     * {@link #resolveMismatch()} is called.
+     *
+     * @param index the index of the card to flip
+     * @return the outcome of the flip
+     */
+    public FlipResult flip(int index) {
+        if (resolutionPending || index < 0 || index >= numberOfPairs * 2 || states.get(index) != FACE_DOWN) {
+            return FlipResult.IGNORED;
+        }
+
+        playerFlips[currentPlayerIndex]++;
+        totalFlips++;
+        states.set(index, FACE_UP);
+
+        if (firstSelected == NO_CARD) {
+            firstSelected = index;
+            return FlipResult.FIRST;
+        }
+
+        if (values[firstSelected] == values[index]) {
+            states.set(firstSelected, EXCLUDED);
+            states.set(index, EXCLUDED);
+            playerMatchedPairs[currentPlayerIndex]++;
+            globalMatchedPairs++;
+            firstSelected = NO_CARD;
+            assert isConsistent() : "Inconsistent board after match of card " + index;
+            return FlipResult.MATCH;
+        }
+
+        secondSelected = index;
+        resolutionPending = true;
+        return FlipResult.MISMATCH;
+    }
+
+    /**
+     * Turns a mismatched pair back face down, clears the selection and
+     * moves the turn to the next player.
+     * <p>
+     * Does nothing if no mismatch is pending.
+     */
+    public void resolveMismatch() {
+        if (!resolutionPending) {
+            return;
+        }
+        states.set(firstSelected, FACE_DOWN);
+        states.set(secondSelected, FACE_DOWN);
+        firstSelected = NO_CARD;
+        secondSelected = NO_CARD;
+        resolutionPending = false;
+        nextPlayer();
+        assert isConsistent() : "Inconsistent board after resolving a mismatch";
+    }
+
+    /**
+     * Checks whether a player may move a card from one state to another.
+     * <p>
+     * A player can only turn a face down card face up, which is then applied
+     * by {@link #flip(int)}. Every other transition follows from the rules:
+     * only {@link #flip(int)} excludes a matched pair, and only {@link #shuffle()}
+     * and {@link #resolveMismatch()} turn cards face down.
+     *
+     * @param oldState the current state code of the card
+     * @param newState the requested state code of the card
+     * @return true if the transition is allowed, false otherwise
+     */
+    public static boolean isTransitionAllowed(byte oldState, byte newState) {
+        return oldState == FACE_DOWN && newState == FACE_UP;
+    }
+
+    /**
+     * Overwrites the state of a card without applying any game rule.
+     *
+     * @param index the index of the card
+     * @param state the new state code of the card
+     */
+    public void setState(int index, byte state) {
+        states.set(index, state);
+    }
+
+    /**
+     * @param index the index of the card
+     * @return the state code of the card
+     */
+    public byte getState(int index) {
+        return states.get(index);
+    }
+
+    /**
+     * Counts the cards in a state, 32 cards at a time.
+     *
+     * @param state the state code to count
+     * @return the number of cards on the board in the state
+     */
+    public int countCards(byte state) {
+        return states.count(state);
+    }
+
+    /**
+     * Finds the next card in a state, 32 cards at a time.
+     *
+     * @param state the state code to look for
+     * @param fromIndex the index to start from, inclusive
+     * @return the index of the first card at or after {@code fromIndex} in the state, or -1 if there is none
+     */
+    public int nextCardIndex(byte state, int fromIndex) {
+        return states.nextIndexOf(state, fromIndex);
+    }
+
+    /**
+     * @param index the index of the card
+     * @return the value of the card
+     */
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    /**
+     * @return the number of pairs on the board
+     */
+    public int getNumberOfPairs() {
+        return numberOfPairs;
+    }
+
+    /**
+     * @return the number of cards on the board
+     */
+    public int getCardCount() {
+        return numberOfPairs * 2;
+    }
+
+    /**
+     * @return true while a mismatched pair is waiting for {@link #resolveMismatch()}
+     */
+    public boolean isResolutionPending() {
+        return resolutionPending;
+    }
+
+    /**
+     * @return the index of the first card of the current turn, or -1 if none is selected
+     */
+    public int getFirstSelectedIndex() {
+        return firstSelected;
+    }
+
+    /**
+     * @return the index of the second card of a pending mismatch, or -1 if none is pending
+     */
+    public int getSecondSelectedIndex() {
+        return secondSelected;
+    }
+
+    /**
+     * @return true if every pair on the board has been matched
+     */
+    public boolean isComplete() {
+        return getRemainingPairs() == 0;
+    }
+
+    /**
+     * @return the number of pairs still on the board, kept up to date by every match
+     */
+    public int getRemainingPairs() {
+        return numberOfPairs - globalMatchedPairs;
+    }
+
+    /**
+     * Checks the invariants between the running counters and the board.
+     * <p>
+     * The per-player counters must add up to the global ones, every matched
+     * pair must have both cards excluded, and exactly the selected cards must
+     * be face up. The check scans the board a word of packed states at a
+     * time; the engine runs it through {@code assert} after every match and
+     * resolved mismatch, so it costs nothing unless assertions are enabled
+     * with {@code -ea}.
+     *
+     * @return true if the counters agree with each other and with the board
+     */
+    public boolean isConsistent() {
+        int matchedSum = 0;
+        int flipsSum = 0;
+        for (int i = 0; i < playerFlips.length; i++) {
+            matchedSum += playerMatchedPairs[i];
+            flipsSum += playerFlips[i];
+        }
+        int selected = (firstSelected != NO_CARD ? 1 : 0) + (secondSelected != NO_CARD ? 1 : 0);
+        return matchedSum == globalMatchedPairs
+                && flipsSum == totalFlips
+                && globalMatchedPairs >= 0 && globalMatchedPairs <= numberOfPairs
+                && states.count(EXCLUDED) == globalMatchedPairs * 2
+                && states.count(FACE_UP) == selected;
+    }
+
+    /**
+     * @return the number of players taking turns
+     */
+    public int getNumberOfPlayers() {
+        return playerFlips.length;
+    }
+
+    /**
+     * @return the index of the player on turn
+     */
+    public int getCurrentPlayerIndex() {
+        return currentPlayerIndex;
+    }
+
+    /**
+     * @param currentPlayerIndex the index of the player on turn
+     */
+    public void setCurrentPlayerIndex(int currentPlayerIndex) {
+        this.currentPlayerIndex = currentPlayerIndex;
+    }
+
+    /**
+     * Moves the turn to the next player, wrapping around to the first one.
+     */
+    public void nextPlayer() {
+        currentPlayerIndex = (currentPlayerIndex + 1) % playerFlips.length;
+    }
+
+    /**
+     * @param playerIndex the index of the player
+     * @return the number of flips made by the player
+     */
+    public int getPlayerFlips(int playerIndex) {
+        return playerFlips[playerIndex];
+    }
+
+    /**
+     * @param playerIndex the index of the player
+     * @return the number of pairs matched by the player
+     */
+    public int getPlayerMatchedPairs(int playerIndex) {
+        return playerMatchedPairs[playerIndex];
+    }
+
+    /**
+     * @return the total number of matched pairs across all players
+     */
+    public int getGlobalMatchedPairs() {
+        return globalMatchedPairs;
+    }
+
+    /**
+     * Increments the total number of matched pairs across all players.
+     */
+    public void incrementGlobalMatchedPairs() {
+        globalMatchedPairs++;
+    }
+
+    /**
+     * @return the total number of flips across all players
+     */
+    public int getTotalFlips() {
+        return totalFlips;
+    }
+
+    /**
+     * Determines the winner of the game.
+     * <p>
+     * Players are ranked by most matched pairs, then by fewest flips, like
+     * the rankings shown at the end of a game; on a tie the player with the
+     * lowest index wins.
+     *
+     * @return the index of the winning player
+     */
+    public int getWinnerIndex() {
+        return getWinnerIndex(playerMatchedPairs, playerFlips);
+    }
+
+    /**
+     * Ranks players like {@link #getWinnerIndex()}, from counters kept outside an engine.
+     *
+     * @param playerMatchedPairs the number of pairs matched by each player
+     * @param playerFlips the number of flips of each player
+     * @return the index of the winning player
+     */
+    public static int getWinnerIndex(int[] playerMatchedPairs, int[] playerFlips) {
+        int winner = 0;
+        for (int i = 1; i < playerFlips.length; i++) {
+            if (playerMatchedPairs[i] > playerMatchedPairs[winner]
+                    || (playerMatchedPairs[i] == playerMatchedPairs[winner] && playerFlips[i] < playerFlips[winner])) {
+                winner = i;
+            }
+        }
+        return winner;
+    }
+}
@@ -0,0 +1,379 @@
+package io.github.danidrd.matchingpairs.model;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Versioned binary snapshot of a game in progress.
+ * <p>
+ * Unlike a {@link MoveLog}, which rebuilds a game by replaying every flip, a
+ * snapshot holds the state of a {@link GameEngine} at one move, so restoring
+ * it costs the same whatever the length of the game. The fixed header holds
+ * the board size, seed, current player, counters and pending selection; it
+ * is followed by the flips and matched pairs of each player, the card values,
+ * and the card states packed in two bits per card:
+ * <pre>
+ *     int magic, byte version, byte players, int pairs, long seed,
+ *     int current player, int matched pairs, int total flips, int first selected, int second selected,
+ *     players x (int flips, int matched pairs), pairs x 2 x int value, ceil(pairs / 2) x byte states
+ * </pre>
+ * Snapshots are written to and read from a {@link ByteBuffer} at its position,
+ * so many games can be checkpointed into one reused buffer, see
+ * {@link #capture(GameEngine, MoveLog, ByteBuffer)}. A snapshot file may
+ * be followed by the move log of the game, so replays keep working after a resume.
+ */
+public final class GameSnapshot {
+    private static final int MAGIC = 0x4D50534E; // "MPSN"
+    private static final byte VERSION = 1;
+    private static final int HEADER = 38;
+    private static final int NO_CARD = -1;
+
+    private GameSnapshot() {
+    }
+
+    /**
+     * @param engine the engine to snapshot
+     * @return the number of bytes of the snapshot of the engine
+     */
+    public static int size(GameEngine engine) {
+        int totalCards = engine.getCardCount();
+        return HEADER + engine.getNumberOfPlayers() * 8 + totalCards * 4 + (totalCards + 3) / 4;
+    }
+
+    /**
+     * Writes a snapshot of the engine at the position of the buffer, advancing it.
+     *
+     * @param engine the engine to snapshot, with at most 255 players
+     * @param buffer the buffer to write to, with at least {@link #size(GameEngine)} bytes remaining
+     * @throws IllegalArgumentException if the engine has more than 255 players
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public static void write(GameEngine engine, ByteBuffer buffer) {
+        int players = engine.getNumberOfPlayers();
+        if (players > 255) {
+            throw new IllegalArgumentException("A snapshot holds at most 255 players");
+        }
+        int totalCards = engine.getCardCount();
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) players);
+        buffer.putInt(engine.getNumberOfPairs());
+        buffer.putLong(engine.getSeed());
+        buffer.putInt(engine.getCurrentPlayerIndex());
+        buffer.putInt(engine.getGlobalMatchedPairs());
+        buffer.putInt(engine.getTotalFlips());
+        buffer.putInt(engine.getFirstSelectedIndex());
+        buffer.putInt(engine.isResolutionPending() ? engine.getSecondSelectedIndex() : NO_CARD);
+        for (int i = 0; i < players; i++) {
+            buffer.putInt(engine.getPlayerFlips(i));
+            buffer.putInt(engine.getPlayerMatchedPairs(i));
+        }
+        for (int i = 0; i < totalCards; i++) {
+            buffer.putInt(engine.getValue(i));
+        }
+        for (int i = 0; i < totalCards; i += 4) {
+            int packed = 0;
+            for (int j = 0; j < 4 && i + j < totalCards; j++) {
+                packed |= engine.getState(i + j) << (j * 2);
+            }
+            buffer.put((byte) packed);
+        }
+    }
+
+    /**
+     * Restores the engine from a snapshot at the position of the buffer, advancing it.
+     * <p>
+     * The snapshot is validated before the engine is touched, so a corrupt
+     * snapshot leaves the engine unchanged: every value must appear on exactly
+     * two cards, the counters must agree with each other and with the excluded
+     * cards, and exactly the selected cards must be face up. Board listeners
+     * are notified once for the whole board.
+     *
+     * @param buffer the buffer to read from
+     * @param engine the engine to restore, with the number of players of the snapshot
+     * @throws IOException if the data is not a valid snapshot
+     * @throws IllegalArgumentException if the engine has a different number of players
+     */
+    public static void read(ByteBuffer buffer, GameEngine engine) throws IOException {
+        try {
+            int players = readHeader(buffer);
+            if (players != engine.getNumberOfPlayers()) {
+                throw new IllegalArgumentException("Snapshot was taken with " + players + " players");
+            }
+            int numberOfPairs = buffer.getInt();
+            long seed = buffer.getLong();
+            int currentPlayer = buffer.getInt();
+            int globalMatchedPairs = buffer.getInt();
+            int totalFlips = buffer.getInt();
+            int firstSelected = buffer.getInt();
+            int secondSelected = buffer.getInt();
+            int totalCards = numberOfPairs * 2;
+            if (numberOfPairs < 0 || totalCards < 0 || currentPlayer < 0 || currentPlayer >= players
+                    || !isCardOrNone(firstSelected, totalCards) || !isCardOrNone(secondSelected, totalCards)
+                    || (secondSelected != NO_CARD && firstSelected == NO_CARD)) {
+                throw new IOException("Corrupt snapshot header");
+            }
+
+            int[] playerFlips = new int[players];
+            int[] playerMatchedPairs = new int[players];
+            for (int i = 0; i < players; i++) {
+                playerFlips[i] = buffer.getInt();
+                playerMatchedPairs[i] = buffer.getInt();
+            }
+            int[] values = new int[totalCards];
+            for (int i = 0; i < totalCards; i++) {
+                values[i] = buffer.getInt();
+                if (values[i] < 1 || values[i] > numberOfPairs) {
+                    throw new IOException("Corrupt snapshot value at card " + i);
+                }
+            }
+            byte[] states = new byte[totalCards];
+            for (int i = 0; i < totalCards; i += 4) {
+                int packed = buffer.get();
+                for (int j = 0; j < 4 && i + j < totalCards; j++) {
+                    states[i + j] = (byte) ((packed >>> (j * 2)) & 3);
+                    if (states[i + j] > GameEngine.FACE_UP) {
+                        throw new IOException("Corrupt snapshot state at card " + (i + j));
+                    }
+                }
+            }
+            validate(values, states, playerFlips, playerMatchedPairs, globalMatchedPairs, totalFlips,
+                    firstSelected, secondSelected);
+
+            engine.restore(numberOfPairs, seed, values, states, playerFlips, playerMatchedPairs, currentPlayer,
+                    globalMatchedPairs, totalFlips, firstSelected, secondSelected);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated snapshot", e);
+        }
+    }
+
+    /**
+     * Reads the number of players of the snapshot at the position of the buffer, without advancing it.
+     *
+     * @param buffer the buffer holding a snapshot
+     * @return the number of players of the snapshot
+     * @throws IOException if the data is not a snapshot
+     */
+    public static int readNumberOfPlayers(ByteBuffer buffer) throws IOException {
+        return readHeader(buffer.duplicate());
+    }
+
+    /**
+     * Reads the number of pairs of the snapshot at the position of the buffer, without advancing it.
+     *
+     * @param buffer the buffer holding a snapshot
+     * @return the number of pairs of the snapshot
+     * @throws IOException if the data is not a snapshot
+     */
+    public static int readNumberOfPairs(ByteBuffer buffer) throws IOException {
+        ByteBuffer header = buffer.duplicate();
+        readHeader(header);
+        return header.getInt();
+    }
+
+    /**
+     * Checks the magic number and version, and reads the number of players.
+     */
+    private static int readHeader(ByteBuffer buffer) throws IOException {
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException("Not a game snapshot");
+            }
+            byte version = buffer.get();
+            if (version != VERSION) {
+                throw new IOException("Unsupported game snapshot version " + version);
+            }
+            return Byte.toUnsignedInt(buffer.get());
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated snapshot", e);
+        }
+    }
+
+    private static boolean isCardOrNone(int index, int totalCards) {
+        return index == NO_CARD || (index >= 0 && index < totalCards);
+    }
+
+    /**
+     * Checks that a saved game is one the rules of a {@link GameEngine} can reach.
+     * <p>
+     * Each value must be on exactly two cards, and both cards of a pair must be
+     * excluded together. The per-player counters must add up to the global
+     * ones, which must count the excluded pairs. The face up cards must be
+     * exactly the selected ones, and a pending second card must not match the first.
+     */
+    private static void validate(int[] values, byte[] states, int[] playerFlips, int[] playerMatchedPairs,
+                                 int globalMatchedPairs, int totalFlips, int firstSelected, int secondSelected)
+            throws IOException {
+        int totalCards = values.length;
+        // For each value, the first card holding it, then -2 once its second card is seen
+        int[] firstOfValue = new int[totalCards / 2 + 1];
+        Arrays.fill(firstOfValue, -1);
+        int excluded = 0;
+        int faceUp = 0;
+        for (int i = 0; i < totalCards; i++) {
+            int first = firstOfValue[values[i]];
+            if (first == -2) {
+                throw new IOException("Corrupt snapshot: value " + values[i] + " is on more than two cards");
+            }
+            if (first >= 0 && (states[first] == GameEngine.EXCLUDED) != (states[i] == GameEngine.EXCLUDED)) {
+                throw new IOException("Corrupt snapshot: only one card of the pair of value " + values[i] + " is excluded");
+            }
+            firstOfValue[values[i]] = first < 0 ? i : -2;
+            excluded += states[i] == GameEngine.EXCLUDED ? 1 : 0;
+            faceUp += states[i] == GameEngine.FACE_UP ? 1 : 0;
+        }
+        // With 2n cards, values from 1 to n and none on more than two cards, each value is on exactly two
+
+        int matchedSum = 0;
+        long flipsSum = 0;
+        for (int i = 0; i < playerFlips.length; i++) {
+            if (playerFlips[i] < 0 || playerMatchedPairs[i] < 0) {
+                throw new IOException("Corrupt snapshot: negative counters of player " + i);
+            }
+            matchedSum += playerMatchedPairs[i];
+            flipsSum += playerFlips[i];
+        }
+        if (matchedSum != globalMatchedPairs || flipsSum != totalFlips || excluded != globalMatchedPairs * 2) {
+            throw new IOException("Corrupt snapshot: counters disagree with each other or with the board");
+        }
+
+        int selected = 0;
+        for (int index : new int[]{firstSelected, secondSelected}) {
+            if (index != NO_CARD) {
+                if (states[index] != GameEngine.FACE_UP) {
+                    throw new IOException("Corrupt snapshot: selected card " + index + " is not face up");
+                }
+                selected++;
+            }
+        }
+        if (faceUp != selected || (selected == 2 && (firstSelected == secondSelected
+                || values[firstSelected] == values[secondSelected]))) {
+            throw new IOException("Corrupt snapshot: face up cards disagree with the selection");
+        }
+    }
+
+    /**
+     * Captures a snapshot of the engine, followed by the move log of its game, ready to be saved.
+     * <p>
+     * The capture is written to the given buffer if it is large enough, otherwise
+     * to a new buffer of the same kind, so checkpointing every move into one reused
+     * buffer allocates nothing once the buffer fits the board.
+     *
+     * @param engine the engine to snapshot
+     * @param log the move log of the game, or null to capture the snapshot alone
+     * @param buffer the buffer to reuse; its content is overwritten
+     * @return the buffer holding the capture between position 0 and its limit
+     */
+    public static ByteBuffer capture(GameEngine engine, MoveLog log, ByteBuffer buffer) {
+        int size = size(engine) + (log != null ? log.getEncodedSize() : 0);
+        if (buffer.capacity() < size) {
+            int capacity = Math.max(size, buffer.capacity() * 2);
+            buffer = buffer.isDirect() ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+        }
+        buffer.clear();
+        write(engine, buffer);
+        if (log != null) {
+            log.writeTo(buffer);
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Saves a snapshot of the engine, followed by the move log of its game, to a file.
+     *
+     * @param engine the engine to snapshot
+     * @param log the move log of the game, or null to save the snapshot alone
+     * @param file the file to write
+     * @throws IOException if writing fails
+     * @see #save(ByteBuffer, Path)
+     */
+    public static void save(GameEngine engine, MoveLog log, Path file) throws IOException {
+        save(capture(engine, log, ByteBuffer.allocate(0)), file);
+    }
+
+    /**
+     * Saves a capture taken by {@link #capture(GameEngine, MoveLog, ByteBuffer)} to a file.
+     * <p>
+     * The capture is written to a temporary file, which then atomically replaces
+     * the target, so a crash while saving leaves the previous snapshot intact.
+     * The position of the buffer is left unchanged.
+     *
+     * @param capture the capture, from its position to its limit
+     * @param file the file to write
+     * @throws IOException if writing fails
+     */
+    public static void save(ByteBuffer capture, Path file) throws IOException {
+        ByteBuffer content = capture.duplicate();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (content.hasRemaining()) {
+                channel.write(content);
+            }
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restores the engine from a file written by {@link #save(GameEngine, MoveLog, Path)}.
+     * <p>
+     * The file is read into the heap and closed before the engine is restored;
+     * it is not mapped, since a mapping would keep the file open until collected,
+     * which prevents the next checkpoint from replacing it on Windows.
+     *
+     * @param file the file to read
+     * @param engine the engine to restore, with the number of players of the snapshot
+     * @return the move log saved with the snapshot, or null if there is none
+     * @throws IOException if reading fails or the file is not a valid snapshot
+     * @throws IllegalArgumentException if the engine has a different number of players
+     */
+    public static MoveLog load(Path file, GameEngine engine) throws IOException {
+        return load(ByteBuffer.wrap(Files.readAllBytes(file)), engine);
+    }
+
+    /**
+     * Restores the engine from the content of a file written by {@link #save(GameEngine, MoveLog, Path)}.
+     *
+     * @param buffer the content of the file, from its position to its limit
+     * @param engine the engine to restore, with the number of players of the snapshot
+     * @return the move log saved with the snapshot, or null if there is none
+     * @throws IOException if the data is not a valid snapshot
+     * @throws IllegalArgumentException if the engine has a different number of players
+     */
+    public static MoveLog load(ByteBuffer buffer, GameEngine engine) throws IOException {
+        read(buffer, engine);
+        if (!buffer.hasRemaining()) {
+            return null;
+        }
+        byte[] log = new byte[buffer.remaining()];
+        buffer.get(log);
+        return MoveLog.readFrom(new ByteArrayInputStream(log));
+    }
+
+    /**
+     * Reads the number of players of the snapshot saved in a file.
+     *
+     * @param file the file to read
+     * @return the number of players of the snapshot
+     * @throws IOException if reading fails or the file is not a snapshot
+     */
+    public static int readNumberOfPlayers(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(6);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    break;
+                }
+            }
+            return readNumberOfPlayers(header.flip());
+        }
+    }
+}
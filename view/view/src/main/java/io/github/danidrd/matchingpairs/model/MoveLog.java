@@ -0,0 +1,259 @@
+package io.github.danidrd.matchingpairs.model;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Record of a single game: the seed its board was dealt from and every
+ * accepted flip with the time elapsed since the previous one.
+ * <p>
+ * Together with the seed, the card indices are enough to rebuild the exact
+ * state of a {@link GameEngine} with {@link #replay(GameEngine)}. The binary
+ * form starts with a fixed header followed by one pair of unsigned
+ * variable-length integers per flip, so a typical flip takes two or three bytes.
+ */
+public class MoveLog {
+    /** The most players a log can record, since the header keeps their number in one byte. */
+    public static final int MAX_PLAYERS = 255;
+
+    private static final int MAGIC = 0x4D504C47; // "MPLG"
+    private static final byte VERSION = 1;
+    // Magic, version, players, pairs, seed and number of flips
+    private static final int HEADER = 22;
+
+    private final int numberOfPlayers;
+    private final int numberOfPairs;
+    private final long seed;
+    private int[] cardIndices = new int[16];
+    private int[] delays = new int[16];
+    private int size = 0;
+
+    /**
+     * Creates an empty log for a game.
+     *
+     * @param numberOfPlayers the number of players taking turns
+     * @param numberOfPairs the number of pairs on the board
+     * @param seed the seed the board was dealt from
+     * @throws IllegalArgumentException if the number of players is not between 1 and {@value #MAX_PLAYERS}
+     */
+    public MoveLog(int numberOfPlayers, int numberOfPairs, long seed) {
+        if (numberOfPlayers < 1 || numberOfPlayers > MAX_PLAYERS) {
+            throw new IllegalArgumentException("A move log records between 1 and " + MAX_PLAYERS + " players");
+        }
+        this.numberOfPlayers = numberOfPlayers;
+        this.numberOfPairs = numberOfPairs;
+        this.seed = seed;
+    }
+
+    /**
+     * Creates an empty log for the game currently set up on the engine.
+     *
+     * @param engine the engine whose game is recorded
+     * @return an empty log matching the players, board size and seed of the engine
+     * @throws IllegalArgumentException if the engine has more than {@value #MAX_PLAYERS} players
+     */
+    public static MoveLog of(GameEngine engine) {
+        return new MoveLog(engine.getNumberOfPlayers(), engine.getNumberOfPairs(), engine.getSeed());
+    }
+
+    /**
+     * Appends an accepted flip to the log.
+     *
+     * @param cardIndex the index of the flipped card
+     * @param delayMillis the milliseconds elapsed since the previous flip, or since the game started
+     */
+    public void record(int cardIndex, int delayMillis) {
+        if (size == cardIndices.length) {
+            cardIndices = Arrays.copyOf(cardIndices, size * 2);
+            delays = Arrays.copyOf(delays, size * 2);
+        }
+        cardIndices[size] = cardIndex;
+        delays[size] = Math.max(0, delayMillis);
+        size++;
+    }
+
+    /**
+     * Plays the recorded game on the given engine at full speed.
+     * <p>
+     * The engine is reset to the recorded board and seed, then every flip is
+     * applied in order. A mismatch is resolved as soon as the next flip is
+     * replayed; a mismatch left by the last flip stays pending, as it was
+     * when the log was taken.
+     *
+     * @param engine the engine to rebuild, with the recorded number of players
+     * @throws IllegalArgumentException if the engine has a different number of players
+     * @throws IllegalStateException if a recorded flip is rejected by the engine
+     */
+    public void replay(GameEngine engine) {
+        if (engine.getNumberOfPlayers() != numberOfPlayers) {
+            throw new IllegalArgumentException("Log was recorded with " + numberOfPlayers + " players");
+        }
+        engine.reset(numberOfPairs, seed);
+        for (int i = 0; i < size; i++) {
+            engine.resolveMismatch();
+            if (engine.flip(cardIndices[i]) == FlipResult.IGNORED) {
+                throw new IllegalStateException("Recorded flip " + i + " of card " + cardIndices[i] + " was rejected");
+            }
+        }
+    }
+
+    /**
+     * @return the number of players taking turns
+     */
+    public int getNumberOfPlayers() {
+        return numberOfPlayers;
+    }
+
+    /**
+     * @return the number of pairs on the board
+     */
+    public int getNumberOfPairs() {
+        return numberOfPairs;
+    }
+
+    /**
+     * @return the seed the board was dealt from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the number of recorded flips
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i the position of the flip in the log
+     * @return the index of the card flipped
+     */
+    public int getCardIndex(int i) {
+        return cardIndices[i];
+    }
+
+    /**
+     * @param i the position of the flip in the log
+     * @return the milliseconds elapsed before the flip
+     */
+    public int getDelayMillis(int i) {
+        return delays[i];
+    }
+
+    /**
+     * Writes the log in its binary form.
+     *
+     * @param out the stream to write to; it is not closed
+     * @throws IOException if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(numberOfPlayers);
+        data.writeInt(numberOfPairs);
+        data.writeLong(seed);
+        data.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            writeVarInt(data, cardIndices[i]);
+            writeVarInt(data, delays[i]);
+        }
+        data.flush();
+    }
+
+    /**
+     * @return the number of bytes of the binary form of the log
+     */
+    public int getEncodedSize() {
+        int encoded = HEADER;
+        for (int i = 0; i < size; i++) {
+            encoded += varIntSize(cardIndices[i]) + varIntSize(delays[i]);
+        }
+        return encoded;
+    }
+
+    /**
+     * Writes the log in its binary form at the position of the buffer, advancing it.
+     * <p>
+     * The bytes are the same as {@link #writeTo(OutputStream)} writes, without
+     * any intermediate stream, so a log can be appended to a reused buffer.
+     *
+     * @param buffer the buffer to write to, with at least {@link #getEncodedSize()} bytes remaining
+     * @throws java.nio.BufferOverflowException if the buffer is too small
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.putInt(MAGIC);
+        buffer.put(VERSION);
+        buffer.put((byte) numberOfPlayers);
+        buffer.putInt(numberOfPairs);
+        buffer.putLong(seed);
+        buffer.putInt(size);
+        for (int i = 0; i < size; i++) {
+            writeVarInt(buffer, cardIndices[i]);
+            writeVarInt(buffer, delays[i]);
+        }
+    }
+
+    /**
+     * Reads a log written by {@link #writeTo(OutputStream)}.
+     *
+     * @param in the stream to read from; it is not closed
+     * @return the log read
+     * @throws IOException if reading fails or the data is not a move log
+     */
+    public static MoveLog readFrom(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a move log");
+        }
+        byte version = data.readByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported move log version " + version);
+        }
+        int numberOfPlayers = data.readUnsignedByte();
+        if (numberOfPlayers == 0) {
+            throw new IOException("Move log has no players");
+        }
+        MoveLog log = new MoveLog(numberOfPlayers, data.readInt(), data.readLong());
+        int size = data.readInt();
+        for (int i = 0; i < size; i++) {
+            log.record(readVarInt(data), readVarInt(data));
+        }
+        return log;
+    }
+
+    private static void writeVarInt(DataOutput out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeVarInt(ByteBuffer buffer, int value) {
+        while ((value & ~0x7F) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+
+    private static int varIntSize(int value) {
+        // One byte per started group of 7 bits, and one for zero
+        return (31 - Integer.numberOfLeadingZeros(value | 1)) / 7 + 1;
+    }
+
+    private static int readVarInt(DataInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable-length integer");
+    }
+}
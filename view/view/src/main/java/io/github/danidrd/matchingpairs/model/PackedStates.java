@@ -0,0 +1,164 @@
+package io.github.danidrd.matchingpairs.model;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Card state codes packed two bits per card in a {@code long[]}.
+ * <p>
+ * Card {@code i} lives in bits {@code 2 * (i % 32)} and {@code 2 * (i % 32) + 1}
+ * of word {@code i / 32}, so a word holds 32 cards. Counting the cards in a
+ * state and finding the next card in a state are done a word at a time: each
+ * word is compared with the state repeated 32 times, the cards that match
+ * become a mask with one bit per card, and the mask is handled with
+ * {@link Long#bitCount(long)} and {@link Long#numberOfTrailingZeros(long)}.
+ * <p>
+ * Slots past the length are kept at 0 and never reported.
+ */
+public class PackedStates {
+    private static final int CARDS_PER_WORD = 32;
+    // The low bit of every 2-bit slot
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    private long[] words = new long[0];
+    private int length = 0;
+
+    /**
+     * Resizes to the given number of cards, every card set to the given state.
+     * <p>
+     * The words are only reallocated when the board grows beyond their current capacity.
+     *
+     * @param length the number of cards
+     * @param state the state code of every card
+     */
+    public void reset(int length, byte state) {
+        int wordCount = wordCount(length);
+        if (words.length < wordCount) {
+            words = new long[wordCount];
+        }
+        this.length = length;
+        Arrays.fill(words, 0);
+        fill(0, length, state);
+    }
+
+    /**
+     * @return the number of cards
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * @param index the index of the card
+     * @return the state code of the card
+     */
+    public byte get(int index) {
+        return (byte) ((words[index >>> 5] >>> (index << 1)) & 3);
+    }
+
+    /**
+     * @param index the index of the card
+     * @param state the new state code of the card
+     */
+    public void set(int index, byte state) {
+        int shift = index << 1;
+        int word = index >>> 5;
+        words[word] = (words[word] & ~(3L << shift)) | ((long) (state & 3) << shift);
+    }
+
+    /**
+     * Sets a range of cards to the same state, a word at a time.
+     *
+     * @param fromIndex the index of the first card, inclusive
+     * @param toIndex the index of the last card, exclusive
+     * @param state the new state code of the cards
+     * @throws IndexOutOfBoundsException if the range is not within the cards
+     */
+    public void fill(int fromIndex, int toIndex, byte state) {
+        Objects.checkFromToIndex(fromIndex, toIndex, length);
+        if (fromIndex == toIndex) {
+            return;
+        }
+        long pattern = repeat(state);
+        int firstWord = fromIndex >>> 5;
+        int lastWord = (toIndex - 1) >>> 5;
+        for (int word = firstWord; word <= lastWord; word++) {
+            long mask = rangeMask(word, fromIndex, toIndex);
+            words[word] = (words[word] & ~mask) | (pattern & mask);
+        }
+    }
+
+    /**
+     * Counts the cards in the given state.
+     *
+     * @param state the state code to count
+     * @return the number of cards in the state
+     */
+    public int count(byte state) {
+        long pattern = repeat(state);
+        int count = 0;
+        int wordCount = wordCount(length);
+        for (int word = 0; word < wordCount; word++) {
+            count += Long.bitCount(matches(words[word], pattern) & rangeMask(word, 0, length));
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first card in the given state at or after an index.
+     *
+     * @param state the state code to look for
+     * @param fromIndex the index to start from, inclusive
+     * @return the index of the card, or -1 if no card from there on is in the state
+     */
+    public int nextIndexOf(byte state, int fromIndex) {
+        if (fromIndex < 0) {
+            fromIndex = 0;
+        }
+        if (fromIndex >= length) {
+            return -1;
+        }
+        long pattern = repeat(state);
+        int wordCount = wordCount(length);
+        for (int word = fromIndex >>> 5; word < wordCount; word++) {
+            long found = matches(words[word], pattern) & rangeMask(word, fromIndex, length);
+            if (found != 0) {
+                return (word << 5) + (Long.numberOfTrailingZeros(found) >>> 1);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the given state repeated in each of the 32 slots of a word
+     */
+    private static long repeat(byte state) {
+        return (state & 3) * LOW_BITS;
+    }
+
+    /**
+     * @return a mask with the low bit of every slot of the word equal to the pattern
+     */
+    private static long matches(long word, long pattern) {
+        long diff = word ^ pattern;
+        return ~(diff | (diff >>> 1)) & LOW_BITS;
+    }
+
+    /**
+     * @return a mask of both bits of every slot of the word within {@code [fromIndex, toIndex)}
+     */
+    private static long rangeMask(int word, int fromIndex, int toIndex) {
+        int first = Math.max(fromIndex - (word << 5), 0);
+        int last = Math.min(toIndex - (word << 5), CARDS_PER_WORD);
+        if (first >= last) {
+            return 0;
+        }
+        long upTo = last == CARDS_PER_WORD ? -1L : (1L << (last << 1)) - 1;
+        long from = -1L << (first << 1);
+        return upTo & from;
+    }
+
+    private static int wordCount(int length) {
+        return (length + CARDS_PER_WORD - 1) / CARDS_PER_WORD;
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.danidrd.matchingpairs.model;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A SplitMix64 random generator whose seed can be reset in place.
+ * <p>
+ * The sequence produced for a given seed is fixed, so a board dealt from a
+ * seed can be dealt again identically on any machine. Reseeding allocates
+ * nothing, which lets a {@link GameEngine} start every game from its own
+ * seed.
+ */
+public class SeededRandom implements RandomGenerator {
+    private long state;
+
+    /**
+     * @param seed the initial seed
+     */
+    public SeededRandom(long seed) {
+        setSeed(seed);
+    }
+
+    /**
+     * Restarts the sequence from the given seed.
+     *
+     * @param seed the new seed
+     */
+    public void setSeed(long seed) {
+        this.state = seed;
+    }
+
+    @Override
+    public long nextLong() {
+        return mix(state += 0x9E3779B97F4A7C15L);
+    }
+
+    /**
+     * Scrambles a value with the SplitMix64 finalizer.
+     * <p>
+     * Useful to derive independent seeds from consecutive numbers, such as
+     * the index of a game in a batch.
+     *
+     * @param z the value to scramble
+     * @return the scrambled value
+     */
+    public static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
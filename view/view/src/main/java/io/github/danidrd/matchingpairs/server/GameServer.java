@@ -0,0 +1,264 @@
+package io.github.danidrd.matchingpairs.server;
+
+import io.github.danidrd.matchingpairs.leaderboard.Leaderboard;
+import io.github.danidrd.matchingpairs.model.FlipResult;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hosts many headless matches in one JVM behind a line-based TCP protocol on localhost.
+ * <p>
+ * Every connection is served by its own virtual thread, and sessions are kept in a
+ * striped {@link SessionRegistry}, so a connection may create and play any number of
+ * sessions. Requests and replies are single lines of space separated tokens:
+ * <ul>
+ *     <li>{@code NEW <players> <pairs> [<seed>]} creates a session and replies {@code OK <session> <seed>}.</li>
+ *     <li>{@code FLIP <session> <player> <card>} flips a card and replies
+ *     {@code <result> <value> <player> <flips>}, where the result is {@code FIRST},
+ *     {@code MATCH}, {@code MISMATCH} or {@code IGNORED} and the player is the one on turn.
+ *     The flip that matches the last pair replies {@code END <value> <winner> <flips>};
+ *     the winner's score is added to the leaderboard and the session is closed.</li>
+ *     <li>{@code CLOSE <session>} abandons a session and replies {@code OK}.</li>
+ *     <li>{@code SCORES <pairs>} replies {@code OK <games> <best> <median> <p99>} from the leaderboard.</li>
+ *     <li>{@code QUIT} closes the connection.</li>
+ * </ul>
+ * Malformed requests and unknown sessions are answered with {@code ERR <message>}.
+ * The sessions a connection creates and leaves unfinished are closed when it
+ * disconnects, so abandoned games do not pile up in the registry.
+ */
+public class GameServer implements Closeable {
+    /** Port the server listens on when none is given. */
+    public static final int DEFAULT_PORT = 7878;
+
+    private final ServerSocket serverSocket;
+    private final SessionRegistry registry;
+    private final ExecutorService connections = Executors.newVirtualThreadPerTaskExecutor();
+    private final Leaderboard leaderboard = new Leaderboard();
+    private final ReentrantLock leaderboardLock = new ReentrantLock();
+
+    /**
+     * Binds a server to the given port of the loopback address.
+     *
+     * @param port the port to listen on, or 0 for any free port
+     * @param stripes the number of lock stripes of the session registry
+     * @throws IOException if the port cannot be bound
+     */
+    public GameServer(int port, int stripes) throws IOException {
+        this.serverSocket = new ServerSocket(port, 4096, InetAddress.getLoopbackAddress());
+        this.registry = new SessionRegistry(stripes);
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * @return the registry holding the open sessions
+     */
+    public SessionRegistry getRegistry() {
+        return registry;
+    }
+
+    /**
+     * Starts accepting connections on a background daemon thread.
+     */
+    public void start() {
+        Thread.ofPlatform().name("game-server-accept").daemon().start(this::serve);
+    }
+
+    /**
+     * Accepts connections until the server is closed, handing each one to a new virtual thread.
+     */
+    public void serve() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                connections.execute(() -> handle(socket));
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) {
+                    System.err.println("Cannot accept connection: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * State kept for one connection.
+     */
+    static final class Connection {
+        // Reusable outcome of the flips of the connection
+        final GameSession.FlipReply reply = new GameSession.FlipReply();
+        // Sessions created by the connection and still open
+        final Set<Long> sessions = new HashSet<>();
+    }
+
+    /**
+     * Serves the requests of one connection until it sends {@code QUIT} or disconnects,
+     * then closes the sessions it created that are still open.
+     */
+    private void handle(Socket socket) {
+        Connection connection = new Connection();
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null) {
+                if ("QUIT".equals(line)) {
+                    break;
+                }
+                out.write(respond(line, connection));
+                out.write('\n');
+                out.flush();
+            }
+        } catch (SocketException e) {
+            // The client went away
+        } catch (IOException e) {
+            System.err.println("Connection failed: " + e.getMessage());
+        } finally {
+            for (long id : connection.sessions) {
+                registry.remove(id);
+            }
+        }
+    }
+
+    /**
+     * Applies one request line and returns the reply line, without the line terminator.
+     *
+     * @param line the request
+     * @param connection the connection sending the request
+     * @return the reply
+     */
+    String respond(String line, Connection connection) {
+        GameSession.FlipReply reply = connection.reply;
+        String[] tokens = line.trim().split(" +");
+        try {
+            switch (tokens[0]) {
+                case "NEW": {
+                    int players = Integer.parseInt(tokens[1]);
+                    int pairs = Integer.parseInt(tokens[2]);
+                    long seed = tokens.length > 3 ? Long.parseLong(tokens[3]) : ThreadLocalRandom.current().nextLong();
+                    if (players <= 0 || pairs <= 0) {
+                        return "ERR players and pairs must be positive";
+                    }
+                    if (players > GameSession.MAX_PLAYERS || pairs > GameSession.MAX_PAIRS) {
+                        return "ERR at most " + GameSession.MAX_PLAYERS + " players and " + GameSession.MAX_PAIRS + " pairs";
+                    }
+                    GameSession session = registry.create(players, pairs, seed);
+                    connection.sessions.add(session.getId());
+                    return "OK " + session.getId() + " " + session.getSeed();
+                }
+                case "FLIP": {
+                    long id = Long.parseLong(tokens[1]);
+                    GameSession session = registry.get(id);
+                    if (session == null) {
+                        return "ERR no session " + id;
+                    }
+                    session.flip(Integer.parseInt(tokens[2]), Integer.parseInt(tokens[3]), reply);
+                    if (reply.complete && reply.result == FlipResult.MATCH) {
+                        registry.remove(id);
+                        connection.sessions.remove(id);
+                        recordScore(session.getNumberOfPairs(), reply.playerIndex, reply.totalFlips);
+                        return "END " + reply.value + " " + reply.playerIndex + " " + reply.totalFlips;
+                    }
+                    return reply.result + " " + reply.value + " " + reply.playerIndex + " " + reply.totalFlips;
+                }
+                case "CLOSE": {
+                    long id = Long.parseLong(tokens[1]);
+                    connection.sessions.remove(id);
+                    return registry.remove(id) != null ? "OK" : "ERR no session " + id;
+                }
+                case "SCORES": {
+                    int pairs = Integer.parseInt(tokens[1]);
+                    leaderboardLock.lock();
+                    try {
+                        return "OK " + leaderboard.getCount(pairs) + " " + leaderboard.getBestFlips(pairs)
+                                + " " + leaderboard.getMedianFlips(pairs) + " " + leaderboard.getFlipsAtPercentile(pairs, 99);
+                    } finally {
+                        leaderboardLock.unlock();
+                    }
+                }
+                default:
+                    return "ERR unknown command " + tokens[0];
+            }
+        } catch (ArrayIndexOutOfBoundsException | NumberFormatException e) {
+            return "ERR malformed request: " + line;
+        }
+    }
+
+    /**
+     * Adds the winner of a finished session to the leaderboard, like the end of a Swing game.
+     */
+    private void recordScore(int pairs, int winnerIndex, int totalFlips) {
+        leaderboardLock.lock();
+        try {
+            leaderboard.add(pairs, "Player " + (winnerIndex + 1), totalFlips);
+        } finally {
+            leaderboardLock.unlock();
+        }
+    }
+
+    /**
+     * Stops accepting connections and closes the open ones.
+     */
+    @Override
+    public void close() throws IOException {
+        serverSocket.close();
+        connections.shutdownNow();
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * <p>
+     * Options: {@code --port P} (default {@value #DEFAULT_PORT}) and
+     * {@code --stripes S}, the number of lock stripes of the session registry.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int port = DEFAULT_PORT;
+        int stripes = 64;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--stripes" -> stripes = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: GameServer [--port P] [--stripes S]");
+            System.exit(1);
+            return;
+        }
+
+        try {
+            GameServer server = new GameServer(port, stripes);
+            System.out.println("Listening on " + server.serverSocket.getLocalSocketAddress());
+            server.serve();
+        } catch (IOException e) {
+            System.err.println("Cannot start server: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,338 @@
+package io.github.danidrd.matchingpairs.server;
+
+import io.github.danidrd.matchingpairs.model.CardShuffler;
+import io.github.danidrd.matchingpairs.model.FlipResult;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A headless match hosted by the {@link GameServer}.
+ * <p>
+ * A session applies the same rules as the Swing game: a flip is only
+ * accepted from the player on turn, a match keeps the turn, and when every
+ * pair is matched the winner is ranked by {@link GameEngine#getWinnerIndex()}.
+ * There is no reveal delay: a mismatched pair is turned face down as soon as
+ * the turn passes, like in a replay. The board is dealt by a
+ * {@link CardShuffler} exactly as a {@link GameEngine} deals it from the same seed.
+ * <p>
+ * Sessions may be reached from several connections at once, and are lock free.
+ * The whole turn state is packed in one {@code long}, and each accepted flip is a
+ * single compare-and-set of that word:
+ * <pre>
+ *  63-62   61-58   57-41             40-24           23-0
+ *  phase | turn  | selected card   | matched pairs | total flips
+ * </pre>
+ * A flip from a player who is not on turn, on a card that cannot be flipped,
+ * or on a finished game is rejected from a single read of the word, without
+ * changing it. The only write such a flip may make is to finish excluding a
+ * pending matched pair from the bitmap, see below, which every flip does
+ * and which is idempotent. When two flips race, only one compare-and-set succeeds;
+ * the other one is re-validated against the new word, so a player never
+ * flips twice in one move and a flip never lands on the other player's turn.
+ * <p>
+ * Matched cards are kept in a bitmap. A match is recorded in the word by the
+ * {@code MATCHED} phase with the first card of the pair, and the next flip,
+ * accepted or not, excludes the pair before validating itself, so the bitmap never lags behind
+ * the word. Per-player counters are only read once the game is over; a flip
+ * ending the game parks until the flips before it have updated their counters.
+ */
+public class GameSession {
+    /** The largest number of players of a session. */
+    public static final int MAX_PLAYERS = 16;
+    /** The largest number of pairs of a session. */
+    public static final int MAX_PAIRS = 1 << 16;
+    /** The largest number of flips of a session. */
+    public static final int MAX_FLIPS = (1 << 24) - 1;
+
+    // Waiting for the first card of a move
+    private static final int AWAIT_FIRST = 0;
+    // The selected card is face up, waiting for the second card
+    private static final int AWAIT_SECOND = 1;
+    // The selected card and its partner have just been matched; the first card of the next move is awaited
+    private static final int MATCHED = 2;
+
+    private static final int FLIPS_BITS = 24;
+    private static final int MATCHED_SHIFT = FLIPS_BITS;
+    private static final int SELECTED_SHIFT = MATCHED_SHIFT + 17;
+    private static final int TURN_SHIFT = SELECTED_SHIFT + 17;
+    private static final int PHASE_SHIFT = TURN_SHIFT + 4;
+    private static final long FIELD_MASK = (1L << 17) - 1;
+
+    private final long id;
+    private final long seed;
+    private final int numberOfPlayers;
+    private final int numberOfPairs;
+    private final int[] values;
+    // For each card, the index of the other card with the same value
+    private final int[] partners;
+    private final AtomicLong state = new AtomicLong();
+    private final AtomicLongArray excluded;
+    private final AtomicIntegerArray playerFlips;
+    private final AtomicIntegerArray playerMatchedPairs;
+    // Flips whose per-player counters have been updated
+    private final AtomicInteger settledFlips = new AtomicInteger();
+    // Signalled when a flip settles after the game is over, to wake the flips ranking the players
+    private final ReentrantLock settleLock = new ReentrantLock();
+    private final Condition settled = settleLock.newCondition();
+
+    /**
+     * Creates a session and deals its board.
+     *
+     * @param id the identifier of the session in its registry
+     * @param numberOfPlayers the number of players taking turns, at most {@link #MAX_PLAYERS}
+     * @param numberOfPairs the number of pairs on the board, at most {@link #MAX_PAIRS}
+     * @param seed the seed the board is dealt from
+     * @throws IllegalArgumentException if the number of players or pairs is out of range
+     */
+    public GameSession(long id, int numberOfPlayers, int numberOfPairs, long seed) {
+        if (numberOfPlayers <= 0 || numberOfPlayers > MAX_PLAYERS) {
+            throw new IllegalArgumentException("Number of players must be between 1 and " + MAX_PLAYERS);
+        }
+        if (numberOfPairs < 0 || numberOfPairs > MAX_PAIRS) {
+            throw new IllegalArgumentException("Number of pairs must be between 0 and " + MAX_PAIRS);
+        }
+        this.id = id;
+        this.seed = seed;
+        this.numberOfPlayers = numberOfPlayers;
+        this.numberOfPairs = numberOfPairs;
+
+        int totalCards = numberOfPairs * 2;
+        this.values = new int[totalCards];
+        new CardShuffler(new SeededRandom(seed)).deal(values, numberOfPairs);
+        this.partners = new int[totalCards];
+        int[] firstOfValue = new int[numberOfPairs + 1];
+        Arrays.fill(firstOfValue, -1);
+        for (int i = 0; i < totalCards; i++) {
+            int other = firstOfValue[values[i]];
+            if (other < 0) {
+                firstOfValue[values[i]] = i;
+            } else {
+                partners[i] = other;
+                partners[other] = i;
+            }
+        }
+
+        this.excluded = new AtomicLongArray((totalCards + 63) >>> 6);
+        this.playerFlips = new AtomicIntegerArray(numberOfPlayers);
+        this.playerMatchedPairs = new AtomicIntegerArray(numberOfPlayers);
+    }
+
+    /**
+     * @return the identifier of the session in its registry
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * @return the seed the board was dealt from
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the number of pairs on the board
+     */
+    public int getNumberOfPairs() {
+        return numberOfPairs;
+    }
+
+    /**
+     * @return true once every pair has been matched
+     */
+    public boolean isComplete() {
+        return matchedPairs(state.get()) == numberOfPairs;
+    }
+
+    /**
+     * @return the total number of flips across all players
+     */
+    public int getTotalFlips() {
+        return flips(state.get());
+    }
+
+    /**
+     * Flips a card for a player.
+     * <p>
+     * The flip is ignored if the game is over, the player is not on turn, the
+     * card is out of the board, face up or excluded, or the flip limit is reached.
+     *
+     * @param playerIndex the index of the player flipping the card
+     * @param index the index of the card to flip
+     * @param reply receives the outcome of the flip
+     */
+    public void flip(int playerIndex, int index, FlipReply reply) {
+        while (true) {
+            long current = state.get();
+            int phase = phase(current);
+            int turn = turn(current);
+            int selected = selected(current);
+            int matched = matchedPairs(current);
+            int flips = flips(current);
+            if (phase == MATCHED) {
+                excludePair(selected);
+            }
+
+            if (matched == numberOfPairs || playerIndex != turn || flips == MAX_FLIPS
+                    || index < 0 || index >= values.length || isExcluded(index)
+                    || (phase == AWAIT_SECOND && index == selected)) {
+                reply.result = FlipResult.IGNORED;
+                reply.value = 0;
+                reply.complete = matched == numberOfPairs;
+                reply.playerIndex = turn;
+                reply.totalFlips = flips;
+                if (reply.complete) {
+                    reply.playerIndex = getWinnerIndex(flips);
+                }
+                return;
+            }
+
+            FlipResult result;
+            long next;
+            if (phase != AWAIT_SECOND) {
+                result = FlipResult.FIRST;
+                next = pack(AWAIT_SECOND, turn, index, matched, flips + 1);
+            } else if (partners[selected] == index) {
+                result = FlipResult.MATCH;
+                next = pack(MATCHED, turn, selected, matched + 1, flips + 1);
+            } else {
+                // The mismatched pair goes face down as the turn passes
+                result = FlipResult.MISMATCH;
+                next = pack(AWAIT_FIRST, (turn + 1) % numberOfPlayers, 0, matched, flips + 1);
+            }
+            if (!state.compareAndSet(current, next)) {
+                continue;
+            }
+
+            if (result == FlipResult.MATCH) {
+                excludePair(selected);
+                playerMatchedPairs.incrementAndGet(playerIndex);
+            }
+            playerFlips.incrementAndGet(playerIndex);
+            settledFlips.incrementAndGet();
+            if (matchedPairs(state.get()) == numberOfPairs) {
+                signalSettled();
+            }
+
+            reply.result = result;
+            reply.value = values[index];
+            reply.complete = matchedPairs(next) == numberOfPairs;
+            reply.playerIndex = reply.complete ? getWinnerIndex(flips + 1) : turn(next);
+            reply.totalFlips = flips + 1;
+            return;
+        }
+    }
+
+    /**
+     * Ranks the players of a finished game, once the per-player counters of
+     * all its flips have been updated.
+     * <p>
+     * The counters of a flip are updated right after its compare-and-set, so
+     * they are usually all settled already. Otherwise the caller parks until
+     * the last lagging flip signals it: a flip settling after the game is over
+     * always sees the final word, so no signal is missed.
+     *
+     * @param totalFlips the number of flips of the finished game
+     * @return the index of the winning player
+     */
+    private int getWinnerIndex(int totalFlips) {
+        if (settledFlips.get() < totalFlips) {
+            settleLock.lock();
+            try {
+                while (settledFlips.get() < totalFlips) {
+                    settled.awaitUninterruptibly();
+                }
+            } finally {
+                settleLock.unlock();
+            }
+        }
+        int[] matched = new int[numberOfPlayers];
+        int[] flips = new int[numberOfPlayers];
+        for (int i = 0; i < numberOfPlayers; i++) {
+            matched[i] = playerMatchedPairs.get(i);
+            flips[i] = playerFlips.get(i);
+        }
+        return GameEngine.getWinnerIndex(matched, flips);
+    }
+
+    private void signalSettled() {
+        settleLock.lock();
+        try {
+            settled.signalAll();
+        } finally {
+            settleLock.unlock();
+        }
+    }
+
+    private boolean isExcluded(int index) {
+        return (excluded.get(index >>> 6) & (1L << index)) != 0;
+    }
+
+    /**
+     * Excludes a card and its partner; idempotent, so any flip may help.
+     */
+    private void excludePair(int index) {
+        exclude(index);
+        exclude(partners[index]);
+    }
+
+    private void exclude(int index) {
+        long bit = 1L << index;
+        if ((excluded.get(index >>> 6) & bit) == 0) {
+            excluded.accumulateAndGet(index >>> 6, bit, (word, mask) -> word | mask);
+        }
+    }
+
+    private static long pack(int phase, int turn, int selected, int matchedPairs, int flips) {
+        return (long) phase << PHASE_SHIFT
+                | (long) turn << TURN_SHIFT
+                | (long) selected << SELECTED_SHIFT
+                | (long) matchedPairs << MATCHED_SHIFT
+                | flips;
+    }
+
+    private static int phase(long state) {
+        return (int) (state >>> PHASE_SHIFT);
+    }
+
+    private static int turn(long state) {
+        return (int) ((state >>> TURN_SHIFT) & 0xF);
+    }
+
+    private static int selected(long state) {
+        return (int) ((state >>> SELECTED_SHIFT) & FIELD_MASK);
+    }
+
+    private static int matchedPairs(long state) {
+        return (int) ((state >>> MATCHED_SHIFT) & FIELD_MASK);
+    }
+
+    private static int flips(long state) {
+        return (int) (state & MAX_FLIPS);
+    }
+
+    /**
+     * Reusable holder of the outcome of a {@link #flip(int, int, FlipReply)}, one per connection.
+     */
+    public static final class FlipReply {
+        /** The outcome of the flip. */
+        public FlipResult result;
+        /** The value of the flipped card, or 0 if the flip was ignored. */
+        public int value;
+        /** Whether the game is over. */
+        public boolean complete;
+        /** The winner if the game is over, otherwise the player on turn after the flip. */
+        public int playerIndex;
+        /** The total number of flips of the game. */
+        public int totalFlips;
+    }
+}
@@ -0,0 +1,285 @@
+package io.github.danidrd.matchingpairs.server;
+
+import io.github.danidrd.matchingpairs.bot.BotStrategy;
+import io.github.danidrd.matchingpairs.bot.MemoryBot;
+import io.github.danidrd.matchingpairs.model.FlipResult;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Load generator for the {@link GameServer}.
+ * <p>
+ * Every concurrent game is played by its own virtual thread over its own
+ * connection. The client deals a mirror {@link GameEngine} from the seed
+ * returned by the server, lets a perfect-memory bot choose each flip on the
+ * mirror, and checks every reply against it. All games connect and create
+ * their session first, then start flipping together. Move latency, the time
+ * from sending a {@code FLIP} to reading its reply, is kept in nanoseconds by
+ * each client and gathered into one sorted array at the end, so percentiles are exact.
+ */
+public class LoadGenerator {
+    private final int port;
+    private final int numberOfPlayers;
+    private final int numberOfPairs;
+    private final int rounds;
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * @param port the port of the server on the loopback address
+     * @param numberOfPlayers the number of players of each game, all played by the same client
+     * @param numberOfPairs the number of pairs of each game
+     * @param rounds the number of games each client plays one after the other
+     */
+    public LoadGenerator(int port, int numberOfPlayers, int numberOfPairs, int rounds) {
+        this.port = port;
+        this.numberOfPlayers = numberOfPlayers;
+        this.numberOfPairs = numberOfPairs;
+        this.rounds = rounds;
+    }
+
+    /**
+     * Plays the given number of concurrent clients to completion.
+     *
+     * @param clients the number of concurrent games
+     * @return the latency of every move in nanoseconds, sorted
+     * @throws InterruptedException if interrupted while waiting for the clients
+     */
+    public long[] run(int clients) throws InterruptedException {
+        CountDownLatch ready = new CountDownLatch(clients);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Latencies>> results = new ArrayList<>(clients);
+        Latencies latencies = new Latencies();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                results.add(executor.submit(() -> playClient(ready, start)));
+            }
+            ready.await();
+            start.countDown();
+            for (Future<Latencies> result : results) {
+                try {
+                    latencies.addAll(result.get());
+                } catch (ExecutionException e) {
+                    errors.incrementAndGet();
+                    System.err.println("Client failed: " + e.getCause());
+                }
+            }
+        }
+        long[] sorted = Arrays.copyOf(latencies.nanos, latencies.size);
+        Arrays.sort(sorted);
+        return sorted;
+    }
+
+    /**
+     * A client stops at its first error, so each failed client is counted once, whether it
+     * lost its connection or got a reply that disagreed with its mirror board.
+     *
+     * @return the number of failed clients
+     */
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Growable list of move latencies, in nanoseconds.
+     */
+    private static final class Latencies {
+        long[] nanos = new long[64];
+        int size = 0;
+
+        void add(long latency) {
+            if (size == nanos.length) {
+                nanos = Arrays.copyOf(nanos, size * 2);
+            }
+            nanos[size++] = latency;
+        }
+
+        void addAll(Latencies other) {
+            if (size + other.size > nanos.length) {
+                nanos = Arrays.copyOf(nanos, Math.max(nanos.length * 2, size + other.size));
+            }
+            System.arraycopy(other.nanos, 0, nanos, size, other.size);
+            size += other.size;
+        }
+    }
+
+    /**
+     * Connects, then plays the given number of rounds once every client is ready.
+     */
+    private Latencies playClient(CountDownLatch ready, CountDownLatch start) throws IOException, InterruptedException {
+        Latencies latencies = new Latencies();
+        GameEngine mirror = new GameEngine(numberOfPlayers);
+        BotStrategy bot = MemoryBot.perfect();
+        boolean counted = false;
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port);
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII))) {
+            socket.setTcpNoDelay(true);
+            long session = newSession(in, out, mirror, bot);
+            ready.countDown();
+            counted = true;
+            start.await();
+            for (int round = 0; round < rounds; round++) {
+                if (round > 0) {
+                    session = newSession(in, out, mirror, bot);
+                }
+                playGame(session, in, out, mirror, bot, latencies);
+            }
+            out.write("QUIT\n");
+            out.flush();
+        } finally {
+            // A client failing to connect must not keep the others waiting
+            if (!counted) {
+                ready.countDown();
+            }
+        }
+        return latencies;
+    }
+
+    /**
+     * Creates a session and deals the mirror board from its seed.
+     */
+    private long newSession(BufferedReader in, Writer out, GameEngine mirror, BotStrategy bot) throws IOException {
+        String[] reply = request(in, out, "NEW " + numberOfPlayers + " " + numberOfPairs);
+        if (!"OK".equals(reply[0])) {
+            throw new IOException("Cannot create session: " + String.join(" ", reply));
+        }
+        long seed = Long.parseLong(reply[2]);
+        mirror.reset(numberOfPairs, seed);
+        bot.newGame(mirror, SeededRandom.mix(seed));
+        return Long.parseLong(reply[1]);
+    }
+
+    /**
+     * Plays one session to the end, timing every flip.
+     */
+    private void playGame(long session, BufferedReader in, Writer out, GameEngine mirror, BotStrategy bot,
+                          Latencies latencies) throws IOException {
+        while (!mirror.isComplete()) {
+            int player = mirror.getCurrentPlayerIndex();
+            int first = mirror.getFirstSelectedIndex();
+            int index = bot.chooseCard(mirror);
+
+            long sent = System.nanoTime();
+            String[] reply = request(in, out, "FLIP " + session + " " + player + " " + index);
+            latencies.add(System.nanoTime() - sent);
+
+            FlipResult expected = mirror.flip(index);
+            String result = mirror.isComplete() ? "END" : expected.name();
+            if (!result.equals(reply[0]) || Integer.parseInt(reply[1]) != mirror.getValue(index)) {
+                throw new IOException("Expected " + result + " for card " + index + ", got " + String.join(" ", reply));
+            }
+
+            int value = mirror.getValue(index);
+            bot.cardRevealed(index, value);
+            if (expected == FlipResult.MATCH) {
+                bot.pairMatched(first, index);
+            } else if (expected == FlipResult.MISMATCH) {
+                mirror.resolveMismatch();
+            }
+        }
+    }
+
+    private static String[] request(BufferedReader in, Writer out, String line) throws IOException {
+        out.write(line);
+        out.write('\n');
+        out.flush();
+        String reply = in.readLine();
+        if (reply == null) {
+            throw new EOFException("Server closed the connection");
+        }
+        return reply.split(" ");
+    }
+
+    /**
+     * @param sorted latencies in ascending order
+     * @param percentile the percentile, between 0 and 100
+     * @return the latency at the percentile in microseconds, or -1 if there is no latency
+     */
+    private static double percentileMicros(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return -1;
+        }
+        int rank = (int) Math.ceil(percentile / 100 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1_000.0;
+    }
+
+    /**
+     * Runs the load generator and prints throughput and latency percentiles.
+     * <p>
+     * Options: {@code --port P}, {@code --clients N} concurrent games,
+     * {@code --rounds R} games per client, {@code --pairs K}, {@code --players M},
+     * and {@code --embedded true} to start a {@link GameServer} in the same JVM.
+     * Each client holds one connection, so the open file limit must allow
+     * two descriptors per client when the server is embedded.
+     *
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) throws Exception {
+        int port = GameServer.DEFAULT_PORT;
+        int clients = 10_000;
+        int rounds = 1;
+        int pairs = 8;
+        int players = 1;
+        boolean embedded = false;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(value);
+                    case "--clients" -> clients = Integer.parseInt(value);
+                    case "--rounds" -> rounds = Integer.parseInt(value);
+                    case "--pairs" -> pairs = Integer.parseInt(value);
+                    case "--players" -> players = Integer.parseInt(value);
+                    case "--embedded" -> embedded = Boolean.parseBoolean(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: LoadGenerator [--port P] [--clients N] [--rounds R] [--pairs K] [--players M] [--embedded true]");
+            System.exit(1);
+            return;
+        }
+
+        GameServer server = null;
+        if (embedded) {
+            server = new GameServer(0, 64);
+            server.start();
+            port = server.getPort();
+        }
+
+        LoadGenerator generator = new LoadGenerator(port, players, pairs, rounds);
+        long started = System.nanoTime();
+        long[] latencies = generator.run(clients);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        if (server != null) {
+            server.close();
+        }
+
+        System.out.println("Clients: " + clients + ", rounds: " + rounds + ", pairs: " + pairs + ", players: " + players
+                + ", errors: " + generator.getErrors());
+        System.out.printf("%d moves in %d ms, %.0f moves/s%n",
+                latencies.length, elapsedMillis, latencies.length * 1000.0 / elapsedMillis);
+        System.out.printf("latency us: p50 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                percentileMicros(latencies, 50), percentileMicros(latencies, 99),
+                percentileMicros(latencies, 99.9), percentileMicros(latencies, 100));
+    }
+}
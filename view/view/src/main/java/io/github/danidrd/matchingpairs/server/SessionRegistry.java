@@ -0,0 +1,118 @@
+package io.github.danidrd.matchingpairs.server;
+
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Registry of the sessions hosted by a {@link GameServer}, split into lock stripes.
+ * <p>
+ * Each stripe is a plain {@link HashMap} guarded by its own lock, and a
+ * session lives in the stripe picked by a mix of its identifier, so
+ * connections working on different sessions rarely contend.
+ */
+public class SessionRegistry {
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final Stripe[] stripes;
+    private final int mask;
+
+    private static final class Stripe {
+        final ReentrantLock lock = new ReentrantLock();
+        final Map<Long, GameSession> sessions = new HashMap<>();
+    }
+
+    /**
+     * Creates an empty registry.
+     *
+     * @param stripes the minimum number of lock stripes, rounded up to a power of two
+     * @throws IllegalArgumentException if the number of stripes is not positive
+     */
+    public SessionRegistry(int stripes) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("At least one stripe is required");
+        }
+        int count = Integer.highestOneBit(stripes);
+        if (count < stripes) {
+            count <<= 1;
+        }
+        this.stripes = new Stripe[count];
+        for (int i = 0; i < count; i++) {
+            this.stripes[i] = new Stripe();
+        }
+        this.mask = count - 1;
+    }
+
+    private Stripe stripe(long id) {
+        return stripes[(int) SeededRandom.mix(id) & mask];
+    }
+
+    /**
+     * Creates and registers a new session.
+     *
+     * @param numberOfPlayers the number of players taking turns
+     * @param numberOfPairs the number of pairs on the board
+     * @param seed the seed the board is dealt from
+     * @return the new session
+     * @throws IllegalArgumentException if the number of players is not positive or the number of pairs is negative
+     */
+    public GameSession create(int numberOfPlayers, int numberOfPairs, long seed) {
+        GameSession session = new GameSession(nextId.getAndIncrement(), numberOfPlayers, numberOfPairs, seed);
+        Stripe stripe = stripe(session.getId());
+        stripe.lock.lock();
+        try {
+            stripe.sessions.put(session.getId(), session);
+        } finally {
+            stripe.lock.unlock();
+        }
+        return session;
+    }
+
+    /**
+     * @param id the identifier of the session
+     * @return the session, or null if no such session is registered
+     */
+    public GameSession get(long id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.lock();
+        try {
+            return stripe.sessions.get(id);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Unregisters a session.
+     *
+     * @param id the identifier of the session
+     * @return the removed session, or null if no such session was registered
+     */
+    public GameSession remove(long id) {
+        Stripe stripe = stripe(id);
+        stripe.lock.lock();
+        try {
+            return stripe.sessions.remove(id);
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * @return the number of registered sessions
+     */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.sessions.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,92 @@
+package io.github.danidrd.matchingpairs.sim;
+
+import io.github.danidrd.matchingpairs.bot.BotStrategy;
+import io.github.danidrd.matchingpairs.model.FlipResult;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+/**
+ * Plays whole games between bots on a headless {@link GameEngine}.
+ * <p>
+ * A simulator owns its engine and bots and reuses them from game to game,
+ * so it must only be used by one thread at a time.
+ */
+public class GameSimulator {
+    private final GameEngine engine;
+    private final BotStrategy[] seats;
+
+    /**
+     * Creates a simulator with one bot per seat.
+     *
+     * @param seats the bots, in turn order
+     * @throws IllegalArgumentException if no bot is given
+     */
+    public GameSimulator(BotStrategy... seats) {
+        this.engine = new GameEngine(seats.length);
+        this.seats = seats.clone();
+    }
+
+    /**
+     * Plays one game to completion.
+     * <p>
+     * Mismatches are resolved immediately, and every bot is shown every
+     * revealed card and matched pair.
+     *
+     * @param numberOfPairs the number of pairs on the board
+     * @param seed the seed the board and the bots' choices are derived from
+     * @return the total number of flips of the game
+     * @throws IllegalStateException if a bot chooses a card that cannot be flipped
+     */
+    public int play(int numberOfPairs, long seed) {
+        return play(engine, seats, numberOfPairs, seed);
+    }
+
+    /**
+     * Plays one game to completion on the given engine, like {@link #play(int, long)}.
+     * <p>
+     * Lets callers that change the bots from game to game, such as a
+     * {@link Tournament}, reuse their engines.
+     *
+     * @param engine the engine to play on, with one player per bot
+     * @param seats the bots, in turn order
+     * @param numberOfPairs the number of pairs on the board
+     * @param seed the seed the board and the bots' choices are derived from
+     * @return the total number of flips of the game
+     * @throws IllegalStateException if a bot chooses a card that cannot be flipped
+     */
+    static int play(GameEngine engine, BotStrategy[] seats, int numberOfPairs, long seed) {
+        engine.reset(numberOfPairs, seed);
+        for (int i = 0; i < seats.length; i++) {
+            seats[i].newGame(engine, SeededRandom.mix(seed + i + 1));
+        }
+
+        while (!engine.isComplete()) {
+            int first = engine.getFirstSelectedIndex();
+            int index = seats[engine.getCurrentPlayerIndex()].chooseCard(engine);
+            FlipResult result = engine.flip(index);
+            if (result == FlipResult.IGNORED) {
+                throw new IllegalStateException("Bot chose card " + index + " which cannot be flipped");
+            }
+
+            int value = engine.getValue(index);
+            for (BotStrategy bot : seats) {
+                bot.cardRevealed(index, value);
+            }
+            if (result == FlipResult.MATCH) {
+                for (BotStrategy bot : seats) {
+                    bot.pairMatched(first, index);
+                }
+            } else if (result == FlipResult.MISMATCH) {
+                engine.resolveMismatch();
+            }
+        }
+        return engine.getTotalFlips();
+    }
+
+    /**
+     * @return the engine the games are played on
+     */
+    public GameEngine getEngine() {
+        return engine;
+    }
+}
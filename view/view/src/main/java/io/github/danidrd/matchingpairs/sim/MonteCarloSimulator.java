@@ -0,0 +1,195 @@
+package io.github.danidrd.matchingpairs.sim;
+
+import io.github.danidrd.matchingpairs.bot.BotStrategy;
+import io.github.danidrd.matchingpairs.bot.MemoryBot;
+import io.github.danidrd.matchingpairs.bot.PerfectMemoryBot;
+import io.github.danidrd.matchingpairs.bot.RandomBot;
+import io.github.danidrd.matchingpairs.model.FlipHistogram;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Supplier;
+
+/**
+ * Command line simulator playing batches of bot games on all cores.
+ * <p>
+ * Each board size is played on a {@link ForkJoinPool}: the range of games is
+ * split into tasks, every leaf task plays its games with its own
+ * {@link GameSimulator} into its own {@link FlipHistogram}, and histograms are
+ * merged as the tasks join, so workers never share mutable state. Game
+ * {@code i} is always dealt from the same seed, so results do not depend on
+ * the number of threads.
+ */
+public class MonteCarloSimulator {
+    private final List<Supplier<BotStrategy>> bots;
+    private final long seed;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param bots one bot factory per seat, in turn order
+     * @param seed the seed all games are derived from
+     * @param parallelism the number of worker threads
+     */
+    public MonteCarloSimulator(List<Supplier<BotStrategy>> bots, long seed, int parallelism) {
+        if (bots.isEmpty()) {
+            throw new IllegalArgumentException("At least one bot is required");
+        }
+        this.bots = List.copyOf(bots);
+        this.seed = seed;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Plays the given number of games on each board size.
+     *
+     * @param games the number of games per board size
+     * @param boardSizes the numbers of pairs to simulate
+     * @return the flip histogram of each board size, in the given order
+     */
+    public Map<Integer, FlipHistogram> run(int games, int... boardSizes) {
+        Map<Integer, FlipHistogram> results = new LinkedHashMap<>();
+        for (int pairs : boardSizes) {
+            int threshold = Math.max(1, games / (pool.getParallelism() * 8));
+            results.put(pairs, pool.invoke(new GamesTask(pairs, 0, games, threshold)));
+        }
+        return results;
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private GameSimulator newSimulator() {
+        BotStrategy[] seats = new BotStrategy[bots.size()];
+        for (int i = 0; i < seats.length; i++) {
+            seats[i] = bots.get(i).get();
+        }
+        return new GameSimulator(seats);
+    }
+
+    private class GamesTask extends RecursiveTask<FlipHistogram> {
+        private final int pairs;
+        private final int from;
+        private final int to;
+        private final int threshold;
+
+        GamesTask(int pairs, int from, int to, int threshold) {
+            this.pairs = pairs;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected FlipHistogram compute() {
+            if (to - from <= threshold) {
+                GameSimulator simulator = newSimulator();
+                FlipHistogram histogram = new FlipHistogram();
+                for (int game = from; game < to; game++) {
+                    histogram.record(simulator.play(pairs, SeededRandom.mix(seed ^ ((long) pairs << 32) ^ game)));
+                }
+                return histogram;
+            }
+
+            int middle = (from + to) >>> 1;
+            GamesTask left = new GamesTask(pairs, from, middle, threshold);
+            left.fork();
+            FlipHistogram histogram = new GamesTask(pairs, middle, to, threshold).compute();
+            histogram.merge(left.join());
+            return histogram;
+        }
+    }
+
+    /**
+     * Creates a bot factory from its name.
+     * <p>
+     * Known names are {@code random}, {@code perfect} and {@code bounded:K},
+     * where {@code K} is the number of cards the bot remembers. A perfect bot
+     * is a {@link PerfectMemoryBot}, which plays like an unbounded
+     * {@link MemoryBot} at a lower cost per move.
+     *
+     * @param spec the name of the bot
+     * @return a factory creating a new bot on each call
+     * @throws IllegalArgumentException if the name is not known
+     */
+    public static Supplier<BotStrategy> strategy(String spec) {
+        if ("random".equals(spec)) {
+            return RandomBot::new;
+        } else if ("perfect".equals(spec)) {
+            return PerfectMemoryBot::new;
+        } else if (spec.startsWith("bounded:")) {
+            int capacity = Integer.parseInt(spec.substring("bounded:".length()));
+            new MemoryBot(capacity); // Validate the capacity now rather than on a worker
+            return () -> new MemoryBot(capacity);
+        }
+        throw new IllegalArgumentException("Unknown bot: " + spec);
+    }
+
+    /**
+     * Runs a batch of simulated games and prints the flip statistics of each board size.
+     * <p>
+     * Options:
+     * <ul>
+     *     <li>{@code --games N} games per board size (default 10000)</li>
+     *     <li>{@code --pairs 4,8,...} board sizes (default 4,8,16,32)</li>
+     *     <li>{@code --bots perfect,random,...} one bot per seat: random, perfect or bounded:K (default perfect,perfect)</li>
+     *     <li>{@code --seed S} seed of the batch (default random)</li>
+     *     <li>{@code --threads T} worker threads (default all cores)</li>
+     * </ul>
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int games = 10_000;
+        int[] boardSizes = {4, 8, 16, 32};
+        List<Supplier<BotStrategy>> bots = new ArrayList<>();
+        List<String> botNames = List.of("perfect", "perfect");
+        long seed = new SplittableRandom().nextLong();
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--games" -> games = Integer.parseInt(value);
+                    case "--pairs" -> boardSizes = Arrays.stream(value.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+                    case "--bots" -> botNames = Arrays.asList(value.split(","));
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            for (String name : botNames) {
+                bots.add(strategy(name.trim()));
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: MonteCarloSimulator [--games N] [--pairs 4,8,...] [--bots perfect,random,bounded:K,...] [--seed S] [--threads T]");
+            System.exit(1);
+            return;
+        }
+
+        MonteCarloSimulator simulator = new MonteCarloSimulator(bots, seed, threads);
+        long start = System.nanoTime();
+        Map<Integer, FlipHistogram> results = simulator.run(games, boardSizes);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        simulator.shutdown();
+
+        System.out.println("Bots: " + String.join(",", botNames) + ", seed: " + seed + ", threads: " + threads);
+        System.out.printf("%8s %10s %10s %8s %8s %8s %8s%n", "pairs", "games", "mean", "min", "p50", "p99", "max");
+        for (Map.Entry<Integer, FlipHistogram> entry : results.entrySet()) {
+            FlipHistogram histogram = entry.getValue();
+            System.out.printf("%8d %10d %10.2f %8d %8d %8d %8d%n",
+                    entry.getKey(), histogram.getTotalCount(), histogram.getMean(), histogram.getMin(),
+                    histogram.getPercentile(50), histogram.getPercentile(99), histogram.getMax());
+        }
+        System.out.println("Played " + (long) games * boardSizes.length + " games in " + elapsedMillis + " ms");
+    }
+}
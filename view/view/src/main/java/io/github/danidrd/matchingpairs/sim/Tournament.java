@@ -0,0 +1,344 @@
+package io.github.danidrd.matchingpairs.sim;
+
+import io.github.danidrd.matchingpairs.bot.BotStrategy;
+import io.github.danidrd.matchingpairs.leaderboard.Leaderboard;
+import io.github.danidrd.matchingpairs.leaderboard.LeaderboardStore;
+import io.github.danidrd.matchingpairs.metrics.LatencyRecorder;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.SeededRandom;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Knockout tournament between bots, played on headless engines on all cores.
+ * <p>
+ * Each round seats the remaining players at tables of up to {@code tableSize}
+ * in bracket order, plays one game per table with the rules of the
+ * {@link GameEngine}, and advances the winner of each table, ranked like at
+ * the end of a game in the UI: most matched pairs, then fewest flips. A
+ * player alone at the last table advances without playing. Rounds are played
+ * until one player is left.
+ * <p>
+ * The tables of a round are split into tasks on a {@link ForkJoinPool}; every
+ * leaf task reuses its own engines and bots, and writes the winners into its
+ * own slots of the next round, so workers share no mutable state but the
+ * leaderboard. The winner of each table is added to the leaderboard, and
+ * queued to the store if any, as soon as the game ends. Table {@code t} of
+ * round {@code r} is always dealt from the same seed, so the bracket does not
+ * depend on the number of threads.
+ * <p>
+ * Player {@code i} is played by the bot of {@code strategies.get(i % strategies.size())}.
+ */
+public class Tournament {
+    /** The most players that can sit at a table, like in the UI. */
+    public static final int MAX_TABLE_SIZE = 4;
+
+    private final List<Supplier<BotStrategy>> strategies;
+    private final int tableSize;
+    private final long seed;
+    private final ForkJoinPool pool;
+    private final LatencyRecorder gameLatency = new LatencyRecorder("game");
+    private final LatencyRecorder roundLatency = new LatencyRecorder("round");
+    private final LongAdder games = new LongAdder();
+    private final LongAdder flips = new LongAdder();
+
+    /**
+     * The outcome of one round.
+     *
+     * @param number the number of the round, from 1
+     * @param players the number of players at the start of the round
+     * @param games the number of games played, one per table with two players or more
+     * @param flips the total flips of the games of the round
+     * @param nanos the time taken by the round, in nanoseconds
+     */
+    public record Round(int number, int players, int games, long flips, long nanos) {
+        /**
+         * @return the games played per second during the round
+         */
+        public double gamesPerSecond() {
+            return nanos == 0 ? 0 : games * 1e9 / nanos;
+        }
+
+        /**
+         * @return the flips played per second during the round
+         */
+        public double flipsPerSecond() {
+            return nanos == 0 ? 0 : flips * 1e9 / nanos;
+        }
+    }
+
+    /**
+     * @param strategies the bot factories players are assigned to, in turn
+     * @param tableSize the number of players per table, between 2 and {@value #MAX_TABLE_SIZE}
+     * @param seed the seed all games are derived from
+     * @param parallelism the number of worker threads
+     * @throws IllegalArgumentException if no bot is given or the table size is out of range
+     */
+    public Tournament(List<Supplier<BotStrategy>> strategies, int tableSize, long seed, int parallelism) {
+        if (strategies.isEmpty()) {
+            throw new IllegalArgumentException("At least one bot is required");
+        }
+        if (tableSize < 2 || tableSize > MAX_TABLE_SIZE) {
+            throw new IllegalArgumentException("Table size must be between 2 and " + MAX_TABLE_SIZE);
+        }
+        this.strategies = List.copyOf(strategies);
+        this.tableSize = tableSize;
+        this.seed = seed;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Plays a whole tournament.
+     *
+     * @param numberOfPlayers the number of players in the bracket, at least 1
+     * @param numberOfPairs the number of pairs on every board
+     * @param leaderboard the leaderboard the winner of each table is added to
+     * @param store the store the winner of each table is queued to, or null to keep results in memory
+     * @param rounds receives each round once it is over
+     * @return the index of the champion, from 0
+     * @throws IllegalArgumentException if there is no player
+     */
+    public int run(int numberOfPlayers, int numberOfPairs, Leaderboard leaderboard, LeaderboardStore store,
+                   Consumer<Round> rounds) {
+        if (numberOfPlayers < 1) {
+            throw new IllegalArgumentException("At least one player is required");
+        }
+        int[] players = new int[numberOfPlayers];
+        Arrays.setAll(players, i -> i);
+        for (int round = 1; players.length > 1; round++) {
+            long started = System.nanoTime();
+            long gamesBefore = games.sum();
+            long flipsBefore = flips.sum();
+
+            int tables = (players.length + tableSize - 1) / tableSize;
+            int[] winners = new int[tables];
+            int threshold = Math.max(1, tables / (pool.getParallelism() * 8));
+            pool.invoke(new TablesTask(round, players, winners, 0, tables, threshold, numberOfPairs, leaderboard, store));
+
+            long nanos = System.nanoTime() - started;
+            roundLatency.record(nanos);
+            rounds.accept(new Round(round, players.length, (int) (games.sum() - gamesBefore),
+                    flips.sum() - flipsBefore, nanos));
+            players = winners;
+        }
+        return players[0];
+    }
+
+    /**
+     * @return the recorder of the time taken by each game
+     */
+    public LatencyRecorder getGameLatency() {
+        return gameLatency;
+    }
+
+    /**
+     * @return the recorder of the time taken by each round
+     */
+    public LatencyRecorder getRoundLatency() {
+        return roundLatency;
+    }
+
+    /**
+     * @return the number of games played so far
+     */
+    public long getGames() {
+        return games.sum();
+    }
+
+    /**
+     * @return the total flips of the games played so far
+     */
+    public long getFlips() {
+        return flips.sum();
+    }
+
+    /**
+     * Stops the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @param player the index of a player, from 0
+     * @return the name the player is shown with on the leaderboard
+     */
+    public static String playerName(int player) {
+        return "Player " + (player + 1);
+    }
+
+    private class TablesTask extends RecursiveAction {
+        private final int round;
+        private final int[] players;
+        private final int[] winners;
+        private final int from;
+        private final int to;
+        private final int threshold;
+        private final int pairs;
+        private final Leaderboard leaderboard;
+        private final LeaderboardStore store;
+
+        TablesTask(int round, int[] players, int[] winners, int from, int to, int threshold, int pairs,
+                   Leaderboard leaderboard, LeaderboardStore store) {
+            this.round = round;
+            this.players = players;
+            this.winners = winners;
+            this.from = from;
+            this.to = to;
+            this.threshold = threshold;
+            this.pairs = pairs;
+            this.leaderboard = leaderboard;
+            this.store = store;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TablesTask(round, players, winners, from, middle, threshold, pairs, leaderboard, store),
+                        new TablesTask(round, players, winners, middle, to, threshold, pairs, leaderboard, store));
+                return;
+            }
+
+            // Engines and seats by table size, and one bot per seat and strategy, reused by every table of the task
+            GameEngine[] engines = new GameEngine[tableSize + 1];
+            BotStrategy[][] seats = new BotStrategy[tableSize + 1][];
+            BotStrategy[][] bots = new BotStrategy[tableSize][strategies.size()];
+            for (int table = from; table < to; table++) {
+                int first = table * tableSize;
+                int size = Math.min(tableSize, players.length - first);
+                if (size == 1) {
+                    winners[table] = players[first]; // A bye
+                    continue;
+                }
+                if (engines[size] == null) {
+                    engines[size] = new GameEngine(size);
+                    seats[size] = new BotStrategy[size];
+                }
+                for (int seat = 0; seat < size; seat++) {
+                    int strategy = players[first + seat] % strategies.size();
+                    if (bots[seat][strategy] == null) {
+                        bots[seat][strategy] = strategies.get(strategy).get();
+                    }
+                    seats[size][seat] = bots[seat][strategy];
+                }
+
+                long started = System.nanoTime();
+                GameEngine engine = engines[size];
+                int gameFlips = GameSimulator.play(engine, seats[size], pairs,
+                        SeededRandom.mix(SeededRandom.mix(seed + round) + table));
+                gameLatency.recordSince(started);
+                games.increment();
+                flips.add(gameFlips);
+
+                int winner = players[first + engine.getWinnerIndex()];
+                winners[table] = winner;
+                String name = playerName(winner);
+                synchronized (leaderboard) {
+                    leaderboard.add(pairs, name, gameFlips);
+                }
+                if (store != null) {
+                    store.append(pairs, gameFlips, name, System.currentTimeMillis());
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs a tournament between bots and prints the metrics of each round.
+     * <p>
+     * Options:
+     * <ul>
+     *     <li>{@code --players N} players in the bracket (default 100000)</li>
+     *     <li>{@code --pairs P} pairs on every board (default 8)</li>
+     *     <li>{@code --table K} players per table, 2 to 4 (default 4)</li>
+     *     <li>{@code --bots perfect,random,...} bots players are assigned to in turn: random, perfect or bounded:K (default perfect,bounded:4,random)</li>
+     *     <li>{@code --seed S} seed of the tournament (default random)</li>
+     *     <li>{@code --threads T} worker threads (default all cores)</li>
+     *     <li>{@code --store DIR} leaderboard store the results are saved to (default none)</li>
+     * </ul>
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        int players = 100_000;
+        int pairs = 8;
+        int table = MAX_TABLE_SIZE;
+        List<String> botNames = List.of("perfect", "bounded:4", "random");
+        long seed = new SplittableRandom().nextLong();
+        int threads = Runtime.getRuntime().availableProcessors();
+        Path storeDirectory = null;
+        List<Supplier<BotStrategy>> bots = new ArrayList<>();
+        Tournament tournament;
+
+        try {
+            for (int i = 0; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--players" -> players = Integer.parseInt(value);
+                    case "--pairs" -> pairs = Integer.parseInt(value);
+                    case "--table" -> table = Integer.parseInt(value);
+                    case "--bots" -> botNames = Arrays.asList(value.split(","));
+                    case "--seed" -> seed = Long.parseLong(value);
+                    case "--threads" -> threads = Integer.parseInt(value);
+                    case "--store" -> storeDirectory = Path.of(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+            if (players < 1 || pairs < 1) {
+                throw new IllegalArgumentException("Players and pairs must be positive");
+            }
+            for (String name : botNames) {
+                bots.add(MonteCarloSimulator.strategy(name.trim()));
+            }
+            tournament = new Tournament(bots, table, seed, threads);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println("Usage: Tournament [--players N] [--pairs P] [--table 2-4] [--bots perfect,random,bounded:K,...] [--seed S] [--threads T] [--store DIR]");
+            System.exit(1);
+            return;
+        }
+
+        LeaderboardStore store = null;
+        if (storeDirectory != null) {
+            try {
+                store = LeaderboardStore.open(storeDirectory);
+            } catch (IOException e) {
+                System.err.println("Cannot open leaderboard store, results will not be saved: " + e.getMessage());
+            }
+        }
+
+        System.out.println("Players: " + players + ", pairs: " + pairs + ", table: " + table
+                + ", bots: " + String.join(",", botNames) + ", seed: " + seed + ", threads: " + threads);
+        System.out.printf("%6s %10s %10s %10s %12s %14s%n", "round", "players", "games", "ms", "games/s", "flips/s");
+        Leaderboard leaderboard = new Leaderboard();
+        long start = System.nanoTime();
+        int champion = tournament.run(players, pairs, leaderboard, store, round ->
+                System.out.printf("%6d %10d %10d %10d %12.0f %14.0f%n", round.number(), round.players(),
+                        round.games(), round.nanos() / 1_000_000, round.gamesPerSecond(), round.flipsPerSecond()));
+        long elapsedNanos = System.nanoTime() - start;
+        tournament.shutdown();
+        if (store != null) {
+            store.close();
+        }
+
+        System.out.println("Champion: " + playerName(champion) + " (" + botNames.get(champion % botNames.size()).trim() + ")");
+        System.out.printf("Played %d games, %d flips in %d ms: %.0f games/s, %.0f flips/s%n",
+                tournament.getGames(), tournament.getFlips(), elapsedNanos / 1_000_000,
+                tournament.getGames() * 1e9 / elapsedNanos, tournament.getFlips() * 1e9 / elapsedNanos);
+        System.out.println("Game latency: " + tournament.getGameLatency().summarize());
+        System.out.println("Round latency: " + tournament.getRoundLatency().summarize());
+        System.out.println("Leaderboard for " + pairs + " pairs: " + leaderboard.getCount(pairs) + " games, best "
+                + leaderboard.getBestFlips(pairs) + ", median " + leaderboard.getMedianFlips(pairs)
+                + ", p99 " + leaderboard.getFlipsAtPercentile(pairs, 99) + " flips");
+    }
+}
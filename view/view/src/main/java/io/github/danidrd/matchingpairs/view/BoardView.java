@@ -1,14 +1,17 @@
 package io.github.danidrd.matchingpairs.view;
 
 import io.github.danidrd.matchingpairs.controller.GameController;
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.leaderboard.Leaderboard;
+import io.github.danidrd.matchingpairs.model.GameEngine;
 
 import javax.swing.*;
 import java.awt.*;
-import java.beans.PropertyChangeListener;
-import java.beans.PropertyChangeSupport;
-import java.beans.VetoableChangeListener;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.List;
-import java.util.ArrayList;
 
 /**
  * This class will be the main game windows (JFrame) that holds all the cards,
@@ -16,9 +19,13 @@ import java.util.ArrayList;
  */
 public class BoardView extends JFrame {
 
-    private  PropertyChangeSupport pcs;
-    private  List<CardView> cards = new ArrayList<>();
+    private final GameEventBus eventBus;
+    // The cards of the board, with their pool and batched redraws
+    private final CardBoard cardBoard;
+    private static final int LEADERBOARD_PAGE_SIZE = 10;
+
     private final JButton bestScoreButton = new JButton("Leaderboard");
+    private final JButton saveReplayButton = new JButton("Save Replay");
     private final JLabel pairsLabel = new JLabel("Number of Pairs: 4");
     private final JButton changePairsButton = new JButton("Change Pairs");
     private int numberOfPairs = 4; // Default number of pairs
@@ -26,7 +33,6 @@ public class BoardView extends JFrame {
     private final JButton exitButton = new JButton("Exit");
     private final JLabel matchedPairsLabel = new JLabel("Matched Pairs: 0");
     private final JLabel totalFlipsLabel = new JLabel("Total Flips: 0");
-    private final JPanel cardsPanel = new JPanel();
 
     /**
      * BoardView constructor
@@ -34,8 +40,8 @@ public class BoardView extends JFrame {
      * sets the size of the window,
      * sets the layout of the window,
      * sets close operation.
-     * Initializes all cards passing the controller and adds them to the cards panel
-     * thus, adds the cards panel to the window.
+     * Adds the {@link CardBoard} showing the cards of the controller's engine to the window;
+     * the board and the number of pairs displayed follow every new game of the engine.
      * Create a control panel with the shuffle button and the exit button
      * and adds it to the window.
      * Create info panel with the matched pairs label and the total flips label
@@ -47,17 +53,22 @@ public class BoardView extends JFrame {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setSize(800, 600);
         setLayout(new BorderLayout());
+        eventBus = controller.getEventBus();
+        cardBoard = new CardBoard(controller.getEngine(), eventBus, controller.getMetrics());
+        controller.getEngine().addBoardListener((source, fromIndex, toIndex) -> showNumberOfPairs(source));
 
         // Initialize cards
 
-        initializeBoard(controller);
+        add(cardBoard, BorderLayout.CENTER);
 
         bestScoreButton.addActionListener(e -> {
             showBestScores(controller);
         });
+        saveReplayButton.addActionListener(e -> saveReplay(controller));
         // Initialize control buttons
         JPanel controlPanel = new JPanel();
         controlPanel.add(bestScoreButton);
+        controlPanel.add(saveReplayButton);
         controlPanel.add(changePairsButton);
         controlPanel.add(shuffleButton);
         controlPanel.add(exitButton);
@@ -65,7 +76,6 @@ public class BoardView extends JFrame {
 
         // Initialize info labels
         JPanel infoPanel = new JPanel(new FlowLayout(FlowLayout.LEFT));
-        pairsLabel.setText("Number of Pairs: " + numberOfPairs);
         infoPanel.add(pairsLabel);
         infoPanel.add(Box.createHorizontalStrut(20));
         infoPanel.add(matchedPairsLabel);
@@ -73,40 +83,24 @@ public class BoardView extends JFrame {
         infoPanel.add(totalFlipsLabel);
         add(infoPanel, BorderLayout.NORTH);
 
-        // Add action listener for changing pairs
+        // Add action listeners for changing pairs and shuffling, once per window
         changePairsButton.addActionListener(e -> changeNumberOfPairs(controller));
-        addPropertyChangeListener(controller);
+        shuffleButton.addActionListener(e -> fireShuffleEvent());
 
         setVisible(true);
     }
 
     /**
-     * Initializes the board with the specified number of pairs by clearing the previous cards,
-     * setting the layout of the cards panel to a grid layout, creating and adding the
-     * specified number of cards to the panel, and adding it to the window.
+     * Displays the number of pairs of the game dealt by the {@link GameEngine}.
      * <p>
-     * The size of the grid is determined by taking the square root of the number of cards
-     * and rounding up to the nearest whole number.
+     * Called on every new game of the engine, so the number of pairs follows
+     * resizes, replays and resumed games alike.
      * </p>
-     * @param controller the game controller to register as a listener for the cards
+     * @param engine the engine that dealt the game
      */
-    private void initializeBoard(GameController controller) {
-        // Clear previous cards
-        cardsPanel.removeAll();
-        cardsPanel.setLayout(new GridLayout(
-                (int) Math.sqrt(numberOfPairs * 2),
-                (int) Math.ceil((double) numberOfPairs * 2 / (int) Math.sqrt(numberOfPairs * 2)),
-                10,
-                10
-        ));
-        controller.setCurrentPlayerIndex(0);
-        this.changeNumberOfPairs();
-        // Create and add cards
-        initializeCards(controller, controller, numberOfPairs * 2, cardsPanel);
-
-        add(cardsPanel, BorderLayout.CENTER);
-        revalidate();
-        repaint();
+    private void showNumberOfPairs(GameEngine engine) {
+        numberOfPairs = engine.getNumberOfPairs();
+        pairsLabel.setText("Number of Pairs: " + numberOfPairs);
     }
 
     /**
@@ -135,19 +129,7 @@ public class BoardView extends JFrame {
 
                 newPairs = Integer.parseInt(input.trim());
                 if(newPairs > 0 && newPairs % 2 == 0){
-                    numberOfPairs = newPairs;
-
-                    // Reset labels
-                    controller.setCurrentPlayerIndex(0);
-                    updateUI(controller);
-
-
-                    // Update board
-                    cards = new ArrayList<>();
-                    initializeBoard(controller);
-                    this.fireShuffleEvent();
-                    pairsLabel.setText("Number of Pairs: " + numberOfPairs);
-
+                    resizeBoard(controller, newPairs);
                     break;
                 } else {
                     JOptionPane.showMessageDialog(
@@ -170,129 +152,134 @@ public class BoardView extends JFrame {
 
 
     /**
-     * Initializes the specified number of cards and adds them to the given panel.
-     *
-     * <p>This method creates a specified number of {@link CardView} instances,
-     * registers the provided property and vetoable change listeners to each card,
-     * and adds them to the specified panel. The cards are also added to the internal
-     * list of cards for tracking.
+     * Starts a new game with the given number of pairs.
+     * <p>
+     * The board is dealt once, by the controller, see {@link GameController#resizeBoard(int)};
+     * the {@link CardBoard}, the labels and the number of pairs then follow the new board.
+     * If the resize is refused, the game goes on unchanged.
      *
-     * @param listener the property change listener to be registered with each card
-     * @param vetoListener the vetoable change listener to be registered with each card
-     * @param totalCards the total number of cards to initialize and add
-     * @param cardsPanel the panel to which the initialized cards are to be added
+     * @param controller the game controller with which to update the board
+     * @param newPairs the new number of pairs
      */
-    private void initializeCards(PropertyChangeListener listener, VetoableChangeListener vetoListener, int totalCards, JPanel cardsPanel) {
-
-        for(int i = 0; i < totalCards; i++) {
-            CardView card = new CardView();
-            card.addPropertyChangeListener(listener);
-            card.addVetoableChangeListener(vetoListener);
-            cards.add(card);
-            cardsPanel.add(card);
-        }
+    public void resizeBoard(GameController controller, int newPairs) {
+        controller.resizeBoard(newPairs);
     }
 
 
     /**
      * Returns a list of all the cards currently on the board.
+     * <p>
+     * The list is empty when the board is painted by a {@link CardGrid}.
      *
      * @return the list of cards
      */
     public List<CardView> getCards() {
-        return cards;
+        return cardBoard.getCards();
     }
 
     /**
-     * @return the shuffle button in this board view.
+     * @return the number of pairs on the board, or of the first board until the game is initialized
      */
-    public JButton getShuffleButton() {
-        return shuffleButton;
+    public int getNumberOfPairs() {
+        return numberOfPairs;
     }
 
     /**
-     * @return the exit button in this board view.
+     * Marks the card at the given index to be redrawn from the {@link GameEngine}.
+     * <p>
+     * The cards marked before the next batched redraw are redrawn together.
+     *
+     * @param index the index of the card to redraw
      */
-    public JButton getExitButton() {
-        return exitButton;
+    public void refreshCard(int index) {
+        cardBoard.refreshCard(index);
     }
 
     /**
-     * @return the label displaying the number of matched pairs in this board view.
+     * Marks every card on the board to be redrawn from the {@link GameEngine}.
      */
-    public JLabel getMatchedPairsLabel() {
-        return matchedPairsLabel;
+    public void refreshCards() {
+        cardBoard.refreshCards();
     }
 
     /**
-     * @return the label displaying the total number of flips in this board view.
+     * Marks a range of cards to be redrawn from the {@link GameEngine}.
+     *
+     * @param fromIndex the index of the first card to redraw, inclusive
+     * @param toIndex the index of the last card to redraw, exclusive
      */
-    public JLabel getTotalFlipsLabel() {
-        return totalFlipsLabel;
+    public void refreshCards(int fromIndex, int toIndex) {
+        cardBoard.refreshCards(fromIndex, toIndex);
     }
 
     /**
-     * Adds a listener to the list of listeners that are notified when
-     * bound properties of this {@link BoardView} change.
-     *
-     * <p>This method registers a listener so it receives property change
-     * notifications from this board view. The listener is notified when
-     * bound properties of this board view change, and can then react
-     * accordingly.
+     * Keeps the card at the given index drawn face up even once it is face down
+     * in the {@link GameEngine}, until a matching {@link #releaseRevealed(int)}.
+     * <p>
+     * Holds are counted, so a card revealed by two delayed flip-backs stays
+     * face up until both are released.
      *
-     * @param listener the listener to be registered
+     * @param index the index of the card
      */
-    public void addPropertyChangeListener(PropertyChangeListener listener) {
-        getPropertyChangeSupport().addPropertyChangeListener(listener);
+    public void holdRevealed(int index) {
+        cardBoard.holdRevealed(index);
     }
 
     /**
-     * Removes a property change listener from the listener list.
+     * Releases one hold taken by {@link #holdRevealed(int)}; the card is drawn
+     * from the {@link GameEngine} again once no hold is left. Does nothing if
+     * the card is not held.
      *
-     * <p>This method deregisters a listener so it no longer receives
-     * property change notifications from this {@link BoardView}.
-     *
-     * @param listener the listener to be removed
+     * @param index the index of the card
      */
-    public void removePropertyChangeListener(PropertyChangeListener listener) {
-        getPropertyChangeSupport().removePropertyChangeListener(listener);
+    public void releaseRevealed(int index) {
+        cardBoard.releaseRevealed(index);
     }
 
     /**
-     * Provides access to the property change support for this board view.
-     *
-     * <p>This method lazily initializes the property change support and
-     * returns it. The property change support is used to manage listeners that
-     * are notified when bound properties of this board view change.
-     *
-     * @return the property change support associated with this board view
+     * Releases every hold on every card of the board.
      */
-    public PropertyChangeSupport getPropertyChangeSupport() {
-        if(pcs == null){
-            pcs = new PropertyChangeSupport(this);
-        }
-        return pcs;
+    public void releaseAllRevealed() {
+        cardBoard.releaseAllRevealed();
     }
 
+
     /**
-     * Fires a property change event with the name "shuffle".
-     *
-     * <p>This method is used by the action listener attached to the shuffle
-     * button to notify registered listeners of a shuffle event.
+     * @return the shuffle button in this board view.
      */
-    private void fireShuffleEvent() {
-        getPropertyChangeSupport().firePropertyChange("shuffle", false, true);
+    public JButton getShuffleButton() {
+        return shuffleButton;
+    }
+
+    /**
+     * @return the exit button in this board view.
+     */
+    public JButton getExitButton() {
+        return exitButton;
     }
 
     /**
-     * Attaches an action listener to the shuffle button that fires a shuffle event.
+     * @return the label displaying the number of matched pairs in this board view.
+     */
+    public JLabel getMatchedPairsLabel() {
+        return matchedPairsLabel;
+    }
+
+    /**
+     * @return the label displaying the total number of flips in this board view.
+     */
+    public JLabel getTotalFlipsLabel() {
+        return totalFlipsLabel;
+    }
+
+    /**
+     * Publishes a shuffle request on the event bus.
      *
-     * <p>This method ensures that whenever the shuffle button is clicked,
-     * a property change event with the name "shuffle" is fired, which can
-     * trigger a shuffle action in the game.
+     * <p>This method is used by the action listener attached to the shuffle
+     * button to notify registered listeners of a shuffle event.
      */
-    private void changeNumberOfPairs() {
-        shuffleButton.addActionListener(e -> fireShuffleEvent());
+    private void fireShuffleEvent() {
+        eventBus.fireShuffleRequested();
     }
 
     /**
@@ -319,9 +306,9 @@ public class BoardView extends JFrame {
         try {
             if( input == null) return;
             int boardSize = Integer.parseInt(input.trim());
-            List<LeaderboardEntry> entries = controller.getLeaderboardForSize(boardSize);
+            Leaderboard leaderboard = controller.getLeaderboard();
 
-            if (entries.isEmpty()) {
+            if (leaderboard.getCount(boardSize) == 0) {
                 JOptionPane.showMessageDialog(
                         null,
                         "No games found for board size " + boardSize,
@@ -329,17 +316,7 @@ public class BoardView extends JFrame {
                         JOptionPane.INFORMATION_MESSAGE
                 );
             } else {
-                StringBuilder sb = new StringBuilder("Leaderboard for " + boardSize + " pairs:\n");
-                for (LeaderboardEntry entry : entries) {
-                    sb.append(entry).append("\n");
-                }
-
-                JOptionPane.showMessageDialog(
-                        null,
-                        sb.toString(),
-                        "Leaderboard",
-                        JOptionPane.INFORMATION_MESSAGE
-                );
+                showLeaderboardPages(leaderboard, boardSize);
             }
         } catch (NumberFormatException e) {
             JOptionPane.showMessageDialog(
@@ -351,6 +328,78 @@ public class BoardView extends JFrame {
         }
     }
 
+    /**
+     * Displays the leaderboard of a board size one page at a time.
+     *
+     * <p>Each page shows the statistics of all games of the board size
+     * followed by {@value #LEADERBOARD_PAGE_SIZE} of the best scores. Only the
+     * scores of the displayed page are fetched; the user moves between pages
+     * with the Previous and Next buttons.
+     *
+     * @param leaderboard the leaderboard to display
+     * @param boardSize the board size whose scores are displayed
+     */
+    private void showLeaderboardPages(Leaderboard leaderboard, int boardSize) {
+        int pages = Math.max(1, (leaderboard.getTopScoreCount(boardSize) + LEADERBOARD_PAGE_SIZE - 1) / LEADERBOARD_PAGE_SIZE);
+        Object[] options = {"Previous", "Next", "Close"};
+        int page = 0;
+        while (true) {
+            StringBuilder sb = new StringBuilder("Leaderboard for " + boardSize + " pairs (page " + (page + 1) + " of " + pages + "):\n");
+            sb.append(leaderboard.getCount(boardSize)).append(" games, best ").append(leaderboard.getBestFlips(boardSize))
+                    .append(", median ").append(leaderboard.getMedianFlips(boardSize))
+                    .append(", p99 ").append(leaderboard.getFlipsAtPercentile(boardSize, 99)).append(" flips\n\n");
+            int rank = page * LEADERBOARD_PAGE_SIZE + 1;
+            for (LeaderboardEntry entry : leaderboard.getTopScores(boardSize, page * LEADERBOARD_PAGE_SIZE, LEADERBOARD_PAGE_SIZE)) {
+                sb.append(rank++).append(". ").append(entry).append("\n");
+            }
+
+            int choice = JOptionPane.showOptionDialog(
+                    null,
+                    sb.toString(),
+                    "Leaderboard",
+                    JOptionPane.DEFAULT_OPTION,
+                    JOptionPane.INFORMATION_MESSAGE,
+                    null,
+                    options,
+                    options[pages > 1 ? 1 : 2]
+            );
+            if (choice == 0) {
+                page = Math.max(0, page - 1);
+            } else if (choice == 1) {
+                page = Math.min(pages - 1, page + 1);
+            } else {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Saves the move log of the current game to a file chosen by the user.
+     *
+     * <p>The saved file can be replayed by starting the game with
+     * {@code --replay <file>}. If writing fails, an error dialog is displayed.
+     *
+     * @param controller the game controller holding the move log
+     */
+    private void saveReplay(GameController controller) {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("game-" + Long.toHexString(controller.getMoveLog().getSeed()) + ".mplog"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        try (OutputStream out = Files.newOutputStream(chooser.getSelectedFile().toPath())) {
+            controller.getMoveLog().writeTo(out);
+        } catch (IOException e) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    "Could not save the replay: " + e.getMessage(),
+                    "Error",
+                    JOptionPane.ERROR_MESSAGE
+            );
+        }
+    }
+
     /**
      * Updates the UI components with the current game state.
      *
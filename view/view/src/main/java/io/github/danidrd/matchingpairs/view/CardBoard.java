@@ -0,0 +1,369 @@
+package io.github.danidrd.matchingpairs.view;
+
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.metrics.GameMetrics;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * The panel of a {@link BoardView} showing the cards of a {@link GameEngine}.
+ * <p>
+ * The panel owns the lifecycle of the card components: buttons are taken from
+ * a pool shared by every board, so a resize only adds or removes the cards that
+ * differ, and large boards are painted by one reusable {@link CardGrid}. Cards
+ * publish on the event bus but never listen to it, so nothing is left registered
+ * when a card leaves the board. State changes are redrawn in batches, see
+ * {@link #refreshCard(int)}.
+ */
+class CardBoard extends JPanel {
+    /** Boards with more cards than this are painted by a {@link CardGrid} instead of one button per card. */
+    static final int VIRTUAL_GRID_THRESHOLD = 1024;
+    /** Cards added to the pool per event while it is built ahead of time, so input is never held up for long. */
+    private static final int PREWARM_BATCH = 64;
+
+    private final GameEngine engine;
+    private final GameEventBus eventBus;
+    private final GameMetrics metrics;
+    private final List<CardView> cards = new ArrayList<>();
+    private final List<CardView> cardPool = new ArrayList<>();
+    private final GridLayout cardLayout = new GridLayout(1, 1, 10, 10);
+    // Faces drawn by the card buttons, which all have the same size
+    private final CardFaces cardFaces = new CardFaces();
+    // The number of cards shown
+    private int cardCount = 0;
+    // The grid showing the board, or null while the cards are buttons
+    private CardGrid cardGrid;
+    // The grid of large boards and its scroll pane, built once and reused by every large board
+    private CardGrid largeGrid;
+    private JScrollPane largeGridPane;
+    // Whether cards are being added to the pool ahead of time, and the pool size they are added up to
+    private boolean prewarming = false;
+    private int prewarmTarget = 0;
+    // Cards whose state changed since the last flush, redrawn together by flushDirtyCards
+    private final BitSet dirtyCards = new BitSet();
+    private boolean flushScheduled = false;
+    // Number of delayed flip-backs still showing each card face up
+    private int[] revealHolds = new int[0];
+
+    /**
+     * Creates a board showing the cards of the given engine.
+     * <p>
+     * The board follows the engine: the cards rewritten by bulk transitions of
+     * the engine, such as a shuffle, are redrawn once the transition is over,
+     * and a new game on a board of another size shows the new number of cards.
+     *
+     * @param engine the engine holding the values and states of the cards
+     * @param eventBus the event bus the cards publish on
+     * @param metrics the metrics recording board builds and repaints
+     */
+    CardBoard(GameEngine engine, GameEventBus eventBus, GameMetrics metrics) {
+        this.engine = engine;
+        this.eventBus = eventBus;
+        this.metrics = metrics;
+        engine.addBoardListener((source, fromIndex, toIndex) -> boardChanged(fromIndex, toIndex));
+        showBoard(engine.getCardCount());
+    }
+
+    /**
+     * Redraws the cards changed by a bulk transition of the engine, first showing
+     * the new number of cards if the engine was resized.
+     *
+     * @param fromIndex the index of the first changed card, inclusive
+     * @param toIndex the index of the last changed card, exclusive
+     */
+    private void boardChanged(int fromIndex, int toIndex) {
+        if (engine.getCardCount() != cardCount) {
+            showBoard(engine.getCardCount());
+        }
+        refreshCards(fromIndex, toIndex);
+    }
+
+    /**
+     * Shows the given number of cards, changing only what differs from the previous board.
+     * <p>
+     * Boards of up to {@value #VIRTUAL_GRID_THRESHOLD} cards are buttons in a grid layout with
+     * {@code floor(sqrt(cards))} rows. Buttons past the new board are removed from the end,
+     * missing ones are taken from the card pool, and the cards in both boards stay in place.
+     * Larger boards are shown by a single {@link CardGrid} inside a scroll pane, which only
+     * paints the visible cards; the grid is built once and reused for every large board.
+     * Once the board is shown, the card pool is filled ahead of time up to the next likely
+     * board, see {@link #prewarmCardPool()}.
+     * <p>
+     * The board calls this itself whenever the engine is resized.
+     *
+     * @param totalCards the number of cards of the board
+     */
+    private void showBoard(int totalCards) {
+        long started = System.nanoTime();
+        releaseAllRevealed();
+        dirtyCards.clear();
+        cardCount = totalCards;
+        if (revealHolds.length < totalCards) {
+            revealHolds = new int[totalCards];
+        }
+        if (totalCards > VIRTUAL_GRID_THRESHOLD) {
+            showCardGrid(totalCards);
+        } else {
+            showCardButtons(totalCards);
+        }
+        revalidate();
+        repaint();
+        metrics.getBoardRecorder().recordSince(started);
+        prewarmCardPool();
+    }
+
+    /**
+     * Shows the board in the reusable {@link CardGrid}, replacing the buttons if they are shown.
+     *
+     * @param totalCards the number of cards of the board
+     */
+    private void showCardGrid(int totalCards) {
+        if (largeGrid == null) {
+            largeGrid = new CardGrid(engine, totalCards, eventBus);
+            largeGridPane = new JScrollPane(largeGrid);
+        } else {
+            largeGrid.setCardCount(totalCards);
+        }
+        if (cardGrid == null) {
+            cards.clear();
+            removeAll();
+            setLayout(new BorderLayout());
+            add(largeGridPane, BorderLayout.CENTER);
+            cardGrid = largeGrid;
+        }
+    }
+
+    /**
+     * Shows the board as buttons, adding or removing only the cards that differ from the previous board.
+     *
+     * @param totalCards the number of cards of the board
+     */
+    private void showCardButtons(int totalCards) {
+        if (cardGrid != null) {
+            removeAll();
+            cardGrid = null;
+        }
+        if (getLayout() != cardLayout) {
+            setLayout(cardLayout);
+        }
+        // One row for an empty board, which GridLayout cannot lay out with no rows nor columns
+        int rows = Math.max(1, (int) Math.sqrt(totalCards));
+        cardLayout.setRows(rows);
+        cardLayout.setColumns((int) Math.ceil((double) totalCards / rows));
+
+        // Remove the cards past the new board, from the end so no other card moves
+        for (int i = cards.size() - 1; i >= totalCards; i--) {
+            remove(i);
+            cards.remove(i);
+        }
+        initializeCards(totalCards);
+    }
+
+    /**
+     * Initializes the cards missing from the board, up to the specified number, and adds them to the panel.
+     *
+     * <p>Cards bound to consecutive indices of the engine are taken from the card
+     * pool, so resizing the board reuses the cards of earlier boards. A {@link CardView},
+     * publishing on the event bus of this board, is only created if its index
+     * was never needed nor pre-built.
+     *
+     * @param totalCards the total number of cards of the board
+     */
+    private void initializeCards(int totalCards) {
+        for (int i = cards.size(); i < totalCards; i++) {
+            if (i == cardPool.size()) {
+                cardPool.add(new CardView(engine, i, eventBus, cardFaces));
+            }
+            CardView card = cardPool.get(i);
+            card.refresh();
+            cards.add(card);
+            add(card);
+        }
+    }
+
+    /**
+     * Fills the card pool ahead of time, up to the cards of a board with twice as
+     * many pairs, or {@value #VIRTUAL_GRID_THRESHOLD} cards beyond which boards
+     * need no buttons.
+     * <p>
+     * Swing components must be created on the event dispatch thread, so the
+     * cards are created there, {@value #PREWARM_BATCH} per event, letting
+     * clicks and paints run between batches. A later resize to a pre-built
+     * size then only adds existing buttons to the board.
+     */
+    private void prewarmCardPool() {
+        prewarmTarget = Math.max(prewarmTarget, Math.min(VIRTUAL_GRID_THRESHOLD, cardCount * 2));
+        if (!prewarming && cardPool.size() < prewarmTarget) {
+            prewarming = true;
+            SwingUtilities.invokeLater(this::prewarmBatch);
+        }
+    }
+
+    private void prewarmBatch() {
+        int end = Math.min(prewarmTarget, cardPool.size() + PREWARM_BATCH);
+        while (cardPool.size() < end) {
+            cardPool.add(new CardView(engine, cardPool.size(), eventBus, cardFaces));
+        }
+        if (cardPool.size() < prewarmTarget) {
+            SwingUtilities.invokeLater(this::prewarmBatch);
+        } else {
+            prewarming = false;
+        }
+    }
+
+    /**
+     * @return the buttons currently on the board, empty when it is painted by a {@link CardGrid}
+     */
+    List<CardView> getCards() {
+        return cards;
+    }
+
+    /**
+     * @return the grid painting the board, or null while the cards are buttons
+     */
+    CardGrid getCardGrid() {
+        return cardGrid;
+    }
+
+    /**
+     * @return the number of cards shown
+     */
+    int getCardCount() {
+        return cardCount;
+    }
+
+    /**
+     * @return the number of buttons built so far, on the board or waiting in the pool
+     */
+    int getPoolSize() {
+        return cardPool.size();
+    }
+
+    /**
+     * Marks the card at the given index to be redrawn from the {@link GameEngine}.
+     * <p>
+     * The card is redrawn by the next {@link #flushDirtyCards()}, together with
+     * every other card marked before it runs.
+     *
+     * @param index the index of the card to redraw
+     */
+    void refreshCard(int index) {
+        dirtyCards.set(index);
+        scheduleFlush();
+    }
+
+    /**
+     * Marks every card on the board to be redrawn from the {@link GameEngine}.
+     */
+    void refreshCards() {
+        refreshCards(0, cardCount);
+    }
+
+    /**
+     * Marks a range of cards to be redrawn from the {@link GameEngine}.
+     *
+     * @param fromIndex the index of the first card to redraw, inclusive
+     * @param toIndex the index of the last card to redraw, exclusive
+     */
+    void refreshCards(int fromIndex, int toIndex) {
+        dirtyCards.set(fromIndex, toIndex);
+        scheduleFlush();
+    }
+
+    /**
+     * Keeps the card at the given index drawn face up even once it is face down
+     * in the {@link GameEngine}, until a matching {@link #releaseRevealed(int)}.
+     * <p>
+     * Holds are counted, so a card revealed by two delayed flip-backs stays
+     * face up until both are released.
+     *
+     * @param index the index of the card
+     */
+    void holdRevealed(int index) {
+        if (revealHolds[index]++ == 0) {
+            setRevealHeld(index, true);
+        }
+    }
+
+    /**
+     * Releases one hold taken by {@link #holdRevealed(int)}; the card is drawn
+     * from the {@link GameEngine} again once no hold is left. Does nothing if
+     * the card is not held.
+     *
+     * @param index the index of the card
+     */
+    void releaseRevealed(int index) {
+        if (index < revealHolds.length && revealHolds[index] > 0 && --revealHolds[index] == 0) {
+            setRevealHeld(index, false);
+        }
+    }
+
+    /**
+     * Releases every hold on every card of the board.
+     */
+    void releaseAllRevealed() {
+        // Past the board too, so a card held when the board shrank is not held when it comes back
+        for (int i = 0; i < revealHolds.length; i++) {
+            if (revealHolds[i] > 0) {
+                revealHolds[i] = 0;
+                setRevealHeld(i, false);
+            }
+        }
+    }
+
+    private void setRevealHeld(int index, boolean held) {
+        if (cardGrid != null) {
+            cardGrid.setRevealHeld(index, held);
+        } else if (index < cards.size()) {
+            cards.get(index).setRevealHeld(held);
+        }
+        refreshCard(index);
+    }
+
+    /**
+     * Schedules a single {@link #flushDirtyCards()} on the event dispatch thread,
+     * unless one is already pending.
+     */
+    private void scheduleFlush() {
+        if (!flushScheduled) {
+            flushScheduled = true;
+            SwingUtilities.invokeLater(this::flushDirtyCards);
+        }
+    }
+
+    /**
+     * Redraws the cards marked since the last flush.
+     * <p>
+     * A {@link CardGrid} gets one repaint request covering the bounds of all
+     * dirty cards. Buttons only update the properties that changed, and their
+     * repaint requests are coalesced by the {@link RepaintManager} into one paint pass.
+     */
+    private void flushDirtyCards() {
+        long started = System.nanoTime();
+        flushScheduled = false;
+        if (cardGrid != null) {
+            Rectangle dirty = null;
+            for (int i = dirtyCards.nextSetBit(0); i >= 0 && i < cardCount; i = dirtyCards.nextSetBit(i + 1)) {
+                if (dirty == null) {
+                    dirty = cardGrid.getCardBounds(i);
+                } else {
+                    dirty.add(cardGrid.getCardBounds(i));
+                }
+            }
+            if (dirty != null) {
+                cardGrid.repaint(dirty);
+            }
+        } else {
+            for (int i = dirtyCards.nextSetBit(0); i >= 0 && i < cards.size(); i = dirtyCards.nextSetBit(i + 1)) {
+                cards.get(i).refresh();
+            }
+        }
+        dirtyCards.clear();
+        metrics.getRepaintRecorder().recordSince(started);
+    }
+}
@@ -0,0 +1,210 @@
+package io.github.danidrd.matchingpairs.view;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Pre-rasterized card faces, kept as tiles of one atlas image, so drawing a
+ * {@link CardView} is a single image copy instead of the look and feel laying
+ * out and painting a background and a text.
+ * <p>
+ * The back and the excluded face always have a tile. Face up cards get a
+ * tile per value, rasterized with antialiased text the first time the value
+ * is drawn; when the atlas is full, the least recently drawn value loses its
+ * tile. The recency list lives in {@code int} arrays, so drawing a cached
+ * face allocates nothing. The number of tiles is bounded by a pixel budget,
+ * whatever the number of pairs.
+ * <p>
+ * All tiles have the size of the last card drawn; drawing a card of another
+ * size, for example after the window is resized, rasterizes the faces again
+ * at the new size. The atlas is a compatible image of the screen, which
+ * Java2D keeps in video memory when it can. Faces must only be drawn on the
+ * event dispatch thread.
+ */
+public class CardFaces {
+    /** Pixels of the atlas, 4 MB in 32 bits per pixel. */
+    private static final int ATLAS_BUDGET_PIXELS = 1 << 20;
+    private static final int MIN_TILES = 4;
+    private static final int MAX_TILES = 1024;
+    private static final int NONE = -1;
+
+    private BufferedImage atlas;
+    private int tileWidth;
+    private int tileHeight;
+    // Tiles per row of the atlas, which is kept about square
+    private int columns;
+    // Value tiles are slots [0, capacity); the back and the excluded face are the two slots after them
+    private int capacity;
+    private int used;
+    // Slot of each value, or -1 when the value has no tile
+    private int[] slotOfValue = new int[0];
+    // Value in each slot, and the recency list of the slots, most recent first
+    private int[] valueInSlot = new int[0];
+    private int[] newer = new int[0];
+    private int[] older = new int[0];
+    private int mostRecent = NONE;
+    private int leastRecent = NONE;
+
+    /**
+     * Draws the face of a card.
+     *
+     * @param g the graphics to draw on
+     * @param state the state code of the card as drawn: face down, face up or excluded
+     * @param value the value of the card, only used when face up
+     * @param x the x coordinate of the card
+     * @param y the y coordinate of the card
+     * @param width the width of the card; nothing is drawn if it is not positive
+     * @param height the height of the card; nothing is drawn if it is not positive
+     */
+    public void draw(Graphics g, byte state, int value, int x, int y, int width, int height) {
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        if (width != tileWidth || height != tileHeight || atlas == null) {
+            resize(width, height);
+        }
+        int slot = switch (state) {
+            case GameEngine.FACE_UP -> slotOf(value);
+            case GameEngine.EXCLUDED -> capacity + 1;
+            default -> capacity;
+        };
+        int sx = (slot % columns) * tileWidth;
+        int sy = (slot / columns) * tileHeight;
+        g.drawImage(atlas, x, y, x + width, y + height, sx, sy, sx + tileWidth, sy + tileHeight, null);
+    }
+
+    /**
+     * @return the number of values that can have a tile at once at the current size
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * @param value the value of a face up card
+     * @return true if the face of the value is rasterized in the atlas
+     */
+    boolean hasTile(int value) {
+        return value < slotOfValue.length && slotOfValue[value] != NONE;
+    }
+
+    /**
+     * Allocates the atlas for tiles of the given size, unless the current one
+     * is large enough, and rasterizes the back and the excluded face.
+     */
+    private void resize(int width, int height) {
+        tileWidth = width;
+        tileHeight = height;
+        capacity = Math.max(MIN_TILES, Math.min(MAX_TILES, ATLAS_BUDGET_PIXELS / (width * height) - 2));
+        int tiles = capacity + 2;
+        columns = (int) Math.ceil(Math.sqrt(tiles));
+        int atlasWidth = columns * width;
+        int atlasHeight = (tiles + columns - 1) / columns * height;
+        if (atlas == null || atlas.getWidth() < atlasWidth || atlas.getHeight() < atlasHeight) {
+            atlas = createImage(atlasWidth, atlasHeight);
+        }
+        if (valueInSlot.length < capacity) {
+            valueInSlot = new int[capacity];
+            newer = new int[capacity];
+            older = new int[capacity];
+        }
+        Arrays.fill(slotOfValue, NONE);
+        used = 0;
+        mostRecent = NONE;
+        leastRecent = NONE;
+        rasterize(capacity, CardStyle.FACE_DOWN, null);
+        rasterize(capacity + 1, CardStyle.EXCLUDED, null);
+    }
+
+    private static BufferedImage createImage(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice()
+                .getDefaultConfiguration().createCompatibleImage(width, height, Transparency.OPAQUE);
+    }
+
+    /**
+     * Returns the slot holding the face of a value, rasterizing it into the
+     * least recently drawn slot if it has none, and marks it most recent.
+     */
+    private int slotOf(int value) {
+        if (value >= slotOfValue.length) {
+            int length = slotOfValue.length;
+            slotOfValue = Arrays.copyOf(slotOfValue, Math.max(value + 1, length * 2));
+            Arrays.fill(slotOfValue, length, slotOfValue.length, NONE);
+        }
+        int slot = slotOfValue[value];
+        if (slot != NONE) {
+            unlink(slot);
+        } else {
+            if (used < capacity) {
+                slot = used++;
+            } else {
+                slot = leastRecent;
+                unlink(slot);
+                slotOfValue[valueInSlot[slot]] = NONE;
+            }
+            valueInSlot[slot] = value;
+            slotOfValue[value] = slot;
+            rasterize(slot, CardStyle.FACE_UP, String.valueOf(value));
+        }
+        linkMostRecent(slot);
+        return slot;
+    }
+
+    private void unlink(int slot) {
+        if (newer[slot] != NONE) {
+            older[newer[slot]] = older[slot];
+        } else {
+            mostRecent = older[slot];
+        }
+        if (older[slot] != NONE) {
+            newer[older[slot]] = newer[slot];
+        } else {
+            leastRecent = newer[slot];
+        }
+    }
+
+    private void linkMostRecent(int slot) {
+        newer[slot] = NONE;
+        older[slot] = mostRecent;
+        if (mostRecent != NONE) {
+            newer[mostRecent] = slot;
+        } else {
+            leastRecent = slot;
+        }
+        mostRecent = slot;
+    }
+
+    /**
+     * Draws a face into its tile of the atlas.
+     *
+     * @param slot the slot of the tile
+     * @param background the background of the face
+     * @param text the text centered on the face, or null for none
+     */
+    private void rasterize(int slot, Color background, String text) {
+        int x = (slot % columns) * tileWidth;
+        int y = (slot / columns) * tileHeight;
+        Graphics2D g = atlas.createGraphics();
+        try {
+            g.setColor(background);
+            g.fillRect(x, y, tileWidth, tileHeight);
+            if (text != null) {
+                g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+                g.setClip(x, y, tileWidth, tileHeight);
+                g.setFont(CardStyle.FONT);
+                FontMetrics metrics = g.getFontMetrics();
+                g.setColor(CardStyle.TEXT);
+                g.drawString(text, x + (tileWidth - metrics.stringWidth(text)) / 2,
+                        y + (tileHeight - metrics.getHeight()) / 2 + metrics.getAscent());
+            }
+        } finally {
+            g.dispose();
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package io.github.danidrd.matchingpairs.view;
+
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.BitSet;
+
+/**
+ * A board of cards painted by a single component, for boards too large to
+ * hold one {@link CardView} button per card.
+ * <p>
+ * Cards are laid out in the same grid as the button board and drawn straight
+ * from the {@link GameEngine}; only the cards intersecting the clip, usually
+ * the visible part of the enclosing {@link JScrollPane}, are painted. Clicks
+ * are hit-tested to a card index. A requested state change is published on the
+ * {@link GameEventBus}, like {@link CardView#setState(CardState)}.
+ */
+public class CardGrid extends JComponent implements Scrollable {
+    private static final int CARD_SIZE = 60;
+    private static final int GAP = 10;
+    private static final int CELL = CARD_SIZE + GAP;
+
+    private final GameEngine engine;
+    private int totalCards;
+    private int columns;
+    private int rows;
+    private final GameEventBus eventBus;
+    // Face down cards still drawn face up while their mismatch flip-back is delayed
+    private final BitSet heldCards = new BitSet();
+
+    /**
+     * Creates a grid showing the given number of cards of the engine.
+     * <p>
+     * The grid has {@code floor(sqrt(totalCards))} rows, like the button board.
+     *
+     * @param engine the engine holding the values and states of the cards
+     * @param totalCards the number of cards to show
+     * @param eventBus the bus on which state change requests are published
+     */
+    public CardGrid(GameEngine engine, int totalCards, GameEventBus eventBus) {
+        this.engine = engine;
+        this.eventBus = eventBus;
+        setCardCount(totalCards);
+        setFont(CardStyle.FONT);
+        setOpaque(true);
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int index = indexAt(e.getX(), e.getY());
+                if (index >= 0 && getState(index) == CardState.FACE_DOWN) {
+                    setState(index, CardState.FACE_UP);
+                }
+            }
+        });
+    }
+
+    /**
+     * Shows a different number of cards, laid out again in a grid of
+     * {@code floor(sqrt(totalCards))} rows.
+     * <p>
+     * Lets a board be resized without building a new grid. Reveal holds are cleared.
+     *
+     * @param totalCards the number of cards to show
+     */
+    public void setCardCount(int totalCards) {
+        this.totalCards = totalCards;
+        int gridRows = Math.max(1, (int) Math.sqrt(totalCards));
+        this.columns = Math.max(1, (totalCards + gridRows - 1) / gridRows);
+        this.rows = (totalCards + columns - 1) / columns;
+        heldCards.clear();
+        revalidate();
+        repaint();
+    }
+
+    /**
+     * @return the number of cards shown by this grid
+     */
+    public int getCardCount() {
+        return totalCards;
+    }
+
+    /**
+     * @param index the index of the card
+     * @return the current state of the card
+     */
+    public CardState getState(int index) {
+        return CardState.fromCode(engine.getState(index));
+    }
+
+    /**
+     * Requests a new state for a card and redraws it.
+     *
+     * <p>Listeners can veto the transition; otherwise the listener owning the
+     * {@link GameEngine} applies it to the board model and the card is
+     * redrawn from the model.
+     *
+     * @param index the index of the card
+     * @param newState the new state to be set for the card
+     */
+    public void setState(int index, CardState newState) {
+        CardState oldState = getState(index);
+        if (oldState == newState) {
+            return;
+        }
+
+        // A vetoed change is counted by the game metrics; the card is left as it is
+        if (eventBus.requestCardState(index, oldState.code(), newState.code())) {
+            refresh(index);
+        }
+    }
+
+    /**
+     * Keeps a face down card drawn face up, or stops doing so.
+     * <p>
+     * Used when a mismatch is resolved in the engine before its flip-back is
+     * shown; a held card can still be flipped. Takes effect on the next repaint.
+     *
+     * @param index the index of the card
+     * @param revealHeld true to draw the card face up while it is face down
+     */
+    public void setRevealHeld(int index, boolean revealHeld) {
+        heldCards.set(index, revealHeld);
+    }
+
+    /**
+     * Redraws the card at the given index from the {@link GameEngine}.
+     *
+     * @param index the index of the card to redraw
+     */
+    public void refresh(int index) {
+        repaint(getCardBounds(index));
+    }
+
+    /**
+     * @param index the index of the card
+     * @return the bounds of the card in this component
+     */
+    public Rectangle getCardBounds(int index) {
+        return new Rectangle((index % columns) * CELL, (index / columns) * CELL, CARD_SIZE, CARD_SIZE);
+    }
+
+    /**
+     * Returns the index of the card under the given point.
+     *
+     * @param x the x coordinate in this component
+     * @param y the y coordinate in this component
+     * @return the index of the card, or -1 if the point is in a gap or outside the board
+     */
+    public int indexAt(int x, int y) {
+        if (x < 0 || y < 0 || x % CELL >= CARD_SIZE || y % CELL >= CARD_SIZE) {
+            return -1;
+        }
+        int column = x / CELL;
+        int index = (y / CELL) * columns + column;
+        return column < columns && index < totalCards ? index : -1;
+    }
+
+    /**
+     * Paints the cards intersecting the clip, using the colors of {@link CardView}:
+     * green when face down, white with the value when face up or held revealed,
+     * red when excluded.
+     */
+    @Override
+    protected void paintComponent(Graphics g) {
+        Rectangle clip = g.getClipBounds();
+        if (clip == null) {
+            clip = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        g.setColor(getBackground());
+        g.fillRect(clip.x, clip.y, clip.width, clip.height);
+
+        int firstRow = Math.max(0, clip.y / CELL);
+        int lastRow = Math.min(rows - 1, (clip.y + clip.height) / CELL);
+        int firstColumn = Math.max(0, clip.x / CELL);
+        int lastColumn = Math.min(columns - 1, (clip.x + clip.width) / CELL);
+
+        g.setFont(getFont());
+        FontMetrics metrics = g.getFontMetrics();
+        int baseline = (CARD_SIZE - metrics.getHeight()) / 2 + metrics.getAscent();
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                int index = row * columns + column;
+                if (index >= totalCards) {
+                    break;
+                }
+                int x = column * CELL;
+                int y = row * CELL;
+                CardState state = getState(index);
+                if (state == CardState.FACE_DOWN && heldCards.get(index)) {
+                    state = CardState.FACE_UP;
+                }
+                switch (state) {
+                    case FACE_DOWN:
+                        g.setColor(CardStyle.FACE_DOWN);
+                        g.fillRect(x, y, CARD_SIZE, CARD_SIZE);
+                        break;
+                    case FACE_UP:
+                        g.setColor(CardStyle.FACE_UP);
+                        g.fillRect(x, y, CARD_SIZE, CARD_SIZE);
+                        String text = String.valueOf(engine.getValue(index));
+                        g.setColor(CardStyle.TEXT);
+                        g.drawString(text, x + (CARD_SIZE - metrics.stringWidth(text)) / 2, y + baseline);
+                        break;
+                    case EXCLUDED:
+                        g.setColor(CardStyle.EXCLUDED);
+                        g.fillRect(x, y, CARD_SIZE, CARD_SIZE);
+                        break;
+                }
+                g.setColor(CardStyle.BORDER);
+                g.drawRect(x, y, CARD_SIZE - 1, CARD_SIZE - 1);
+            }
+        }
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        return new Dimension(columns * CELL - GAP, rows * CELL - GAP);
+    }
+
+    @Override
+    public Dimension getPreferredScrollableViewportSize() {
+        return getPreferredSize();
+    }
+
+    @Override
+    public int getScrollableUnitIncrement(Rectangle visibleRect, int orientation, int direction) {
+        return CELL;
+    }
+
+    @Override
+    public int getScrollableBlockIncrement(Rectangle visibleRect, int orientation, int direction) {
+        int extent = orientation == SwingConstants.VERTICAL ? visibleRect.height : visibleRect.width;
+        return Math.max(CELL, extent - extent % CELL);
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportWidth() {
+        return false;
+    }
+
+    @Override
+    public boolean getScrollableTracksViewportHeight() {
+        return false;
+    }
+}
@@ -1,7 +1,33 @@
 package io.github.danidrd.matchingpairs.view;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+
 // Enum that holds the possible states of a card
 public enum CardState{
-    EXCLUDED,
-    FACE_DOWN,
-    FACE_UP
+    EXCLUDED(GameEngine.EXCLUDED),
+    FACE_DOWN(GameEngine.FACE_DOWN),
+    FACE_UP(GameEngine.FACE_UP);
+
+    private static final CardState[] BY_CODE = {EXCLUDED, FACE_DOWN, FACE_UP};
+
+    private final byte code;
+
+    CardState(byte code) {
+        this.code = code;
+    }
+
+    /**
+     * @return the state code used by {@link GameEngine} for this state
+     */
+    public byte code() {
+        return code;
+    }
+
+    /**
+     * @param code a state code used by {@link GameEngine}
+     * @return the state matching the given code
+     */
+    public static CardState fromCode(byte code) {
+        return BY_CODE[code];
+    }
 }
@@ -0,0 +1,33 @@
+package io.github.danidrd.matchingpairs.view;
+
+import java.awt.*;
+
+/**
+ * Font and colors shared by every card, whether drawn by a {@link CardView} or a {@link CardGrid}.
+ * <p>
+ * Fonts and colors are immutable, so one instance of each serves every card
+ * of every board, instead of a new font per card.
+ */
+final class CardStyle {
+    /** The font of the value of a face up card. */
+    static final Font FONT = new Font("Arial", Font.BOLD, 24);
+    /** The background of a face down card. */
+    static final Color FACE_DOWN = Color.GREEN;
+    /** The background of a face up card. */
+    static final Color FACE_UP = Color.WHITE;
+    /** The background of an excluded card. */
+    static final Color EXCLUDED = Color.RED;
+    /** The color of the value of a face up card. */
+    static final Color TEXT = Color.BLACK;
+    /** The outline of a card painted by a {@link CardGrid}. */
+    static final Color BORDER = Color.DARK_GRAY;
+    /** Drawn over a {@link CardView} while it is pressed. */
+    static final Color PRESSED = new Color(0, 0, 0, 64);
+    /** Drawn over a {@link CardView} while the mouse is over it. */
+    static final Color ROLLOVER = new Color(255, 255, 255, 64);
+    /** The outline of the {@link CardView} with the keyboard focus. */
+    static final Color FOCUS = Color.BLUE;
+
+    private CardStyle() {
+    }
+}
@@ -1,51 +1,69 @@
 package io.github.danidrd.matchingpairs.view;
 
 
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+
 import javax.swing.*;
 import java.awt.*;
-import java.beans.*;
 
 /**
  * Each card in the game will be a JButton that can be flipped to reveal its value.
- * It will handle its own state, and notify its listeners when its state changes.
+ * Its value and state live in the {@link GameEngine} at the card's index; the card
+ * renders them, and publishes state change requests on the {@link GameEventBus}.
+ * <p>
+ * The face of the card is drawn as one tile of {@link CardFaces} shared by the
+ * cards of a board, instead of a background and a text laid out by the look and
+ * feel; only the border is painted by the look and feel.
  */
 public class CardView extends JButton {
-    private int value;
-    private CardState state;
-
-    // Final property change support used to notify listeners
-    private PropertyChangeSupport pcs;
-    private VetoableChangeSupport vcs;
+    private final GameEngine engine;
+    private final int index;
+    private final GameEventBus eventBus;
+    private final CardFaces faces;
+    // State code and value currently rendered by the button, with the state -1 before the first render
+    private byte shownState = -1;
+    private int shownValue;
+    // Whether a face down card is still shown face up, while its mismatch flip-back is delayed
+    private boolean revealHeld;
 
     /**
      * CardView Constructor
      * Initializes the CardView calling super(),
-     * initialize the controller reference,
-     * for handling responsiveness of cards,
-     * sets the state of the card to FACE_DOWN
+     * binds it to the card at the given index of the engine,
      * Add an action listener to flip the card
+     * <p>
+     * The card is not drawn until its first {@link #refresh()}, so cards can be
+     * created ahead of time for indices beyond the current board.
+     *
+     * @param engine the engine holding the value and state of the card
+     * @param index the index of the card on the board
+     * @param eventBus the bus on which state change requests are published
+     * @param faces the card faces drawn by this card, usually shared by every card of the board
      */
-    public CardView() {
+    public CardView(GameEngine engine, int index, GameEventBus eventBus, CardFaces faces) {
         super();
-        setState(CardState.FACE_DOWN);
-        setFont(new Font("Arial", Font.BOLD, 24));
+        this.engine = engine;
+        this.index = index;
+        this.eventBus = eventBus;
+        this.faces = faces;
+        setFont(CardStyle.FONT);
+        setRolloverEnabled(true);
         addActionListener(e -> flipCard());
     }
 
     /**
-     * @return the value of the card
+     * @return the index of the card on the board
      */
-    public int getValue(){
-        return value;
+    public int getIndex() {
+        return index;
     }
 
     /**
-     * Set the value of this card.
-     *
-     * @param value the value of the card
+     * @return the value of the card
      */
-    public void setValue(int value){
-        this.value = value;
+    public int getValue(){
+        return engine.getValue(index);
     }
 
     /**
@@ -54,150 +72,119 @@ public class CardView extends JButton {
      * @return the card state
      */
     public CardState getState() {
-        return state;
+        return CardState.fromCode(engine.getState(index));
     }
 
 
     /**
-     * Sets the state of the card and updates its appearance.
+     * Requests a new state for the card and updates its appearance.
      *
-     * <p>This method changes the card's state to the specified new state,
-     * updates its appearance accordingly, and fires a property change event
-     * to notify listeners of the state change. If the controller is active
-     * and the new state is FACE_UP, the state change is ignored to prevent
-     * interaction during active timing.
+     * <p>The request is published on the {@link GameEventBus}, where listeners
+     * can veto the transition; otherwise the listener owning the {@link GameEngine}
+     * applies it to the board model. Finally the card is redrawn from the model.
      *
      * @param newState the new state to be set for the card
      */
     public void setState(CardState newState) {
+        CardState oldState = getState();
+        if (oldState == newState) {
+            return;
+        }
 
-        try {
-
-            getVetoableChangeSupport().fireVetoableChange("state", this.state, newState);
-
-            CardState oldState = this.state;
-            this.state = newState;
+        if (eventBus.requestCardState(index, oldState.code(), newState.code())) {
             updateAppearance();
-            getPropertyChangeSupport().firePropertyChange("state", oldState, newState);
-        } catch (PropertyVetoException e) {
-            System.out.println("State change vetoed: " + e.getMessage());
+        } else {
+            System.out.println("State change vetoed: card " + index + " " + oldState + " -> " + newState);
         }
-
     }
 
     /**
      * Flips the card, changing its state from FACE_DOWN to FACE_UP.
      */
     private void flipCard() {
-        if (state == CardState.FACE_DOWN) {
+        if (getState() == CardState.FACE_DOWN) {
             setState(CardState.FACE_UP);
         }
     }
 
     /**
-     * Updates the appearance of the card based on its current state.
-     *
-     * <ul>
-     * <li>If the state is FACE_DOWN, the background color is set to light gray
-     * and the text is set to an empty string.</li>
-     * <li>If the state is FACE_UP, the background color is set to white, and
-     * the text is set to the value of the card.</li>
-     * <li>If the state is EXCLUDED, the background color is set to red, the
-     * component is disabled, and the text is set to an empty string.</li>
-     * </ul>
-     */
-    private void updateAppearance(){
-        switch (state) {
-            case FACE_DOWN:
-                setBackground(Color.GREEN);
-                setText("");
-                setEnabled(true);
-                break;
-            case FACE_UP:
-                setBackground(Color.WHITE);
-                setText(String.valueOf(value));
-                break;
-            case EXCLUDED:
-                setBackground(Color.RED);
-                setEnabled(false);
-                setText("");
-                break;
-        }
-    }
-
-    /**
-     * Adds a listener to the list of listeners that are notified when
-     * this card's state is about to change. The listener is given the
-     * opportunity to veto the change by throwing a
-     * {@link PropertyVetoException}.
+     * Keeps a face down card drawn face up, or stops doing so.
+     * <p>
+     * Used when a mismatch is resolved in the engine before its flip-back is
+     * shown; a held card can still be flipped. Takes effect on the next {@link #refresh()}.
      *
-     * @param listener the listener to be added
+     * @param revealHeld true to draw the card face up while it is face down
      */
-    public void addVetoableChangeListener(VetoableChangeListener listener) {
-        getVetoableChangeSupport().addVetoableChangeListener(listener);
+    public void setRevealHeld(boolean revealHeld) {
+        this.revealHeld = revealHeld;
     }
 
     /**
-     * Removes a listener from the list of listeners that are notified when
-     * this card's state changes.
-     *
-     * @param listener the listener to be removed
-     */
-    public void removeVetoableChangeListener(VetoableChangeListener listener) {
-        getVetoableChangeSupport().removeVetoableChangeListener(listener);
-    }
-    /**
-     * Registers a listener to receive property change events from this
-     * {@link CardView}.
-     *
-     * @param listener the listener to be registered
-     */
-    public void addPropertyChangeListener(PropertyChangeListener listener) {
-        getPropertyChangeSupport().addPropertyChangeListener(listener);
-    }
-
-    /**
-     * Deregisters a listener from receiving property change events from
-     * this {@link CardView}.
-     *
-     * @param listener the listener to be deregistered
+     * Redraws the card from the current value and state in the {@link GameEngine}.
      */
-    public void removePropertyChangeListener(PropertyChangeListener listener) {
-        getPropertyChangeSupport().removePropertyChangeListener(listener);
+    public void refresh() {
+        updateAppearance();
     }
 
     /**
-     * Returns the {@link PropertyChangeSupport} object responsible for
-     * managing listeners for bound property changes on this
-     * {@link CardView}.
-     *
-     * <p>This method lazily initializes the
-     * {@link PropertyChangeSupport} instance if it has not been
-     * initialized yet.
+     * Updates the appearance of the card based on its current state.
+     * <p>
+     * Nothing is touched when the card is already rendered with its current
+     * state and value, so redrawing an unchanged card schedules no paint.
+     * Otherwise the card is repainted; no text is set, so no layout is needed.
      *
-     * @return the property change support
+     * <ul>
+     * <li>If the state is FACE_DOWN, the card shows the back, unless the reveal
+     * is held, in which case the card is drawn like a face up card but stays enabled.</li>
+     * <li>If the state is FACE_UP, the card shows the value of the card.</li>
+     * <li>If the state is EXCLUDED, the card shows the excluded face and the
+     * component is disabled.</li>
+     * </ul>
      */
-    private PropertyChangeSupport getPropertyChangeSupport(){
-        if(pcs == null){
-            pcs = new PropertyChangeSupport(this);
+    private void updateAppearance(){
+        byte state = engine.getState(index);
+        if (state == GameEngine.FACE_DOWN && revealHeld) {
+            state = GameEngine.FACE_UP;
         }
-        return pcs;
+        int value = state == GameEngine.FACE_UP ? getValue() : 0;
+        if (state == shownState && value == shownValue) {
+            return;
+        }
+        shownState = state;
+        shownValue = value;
+        setEnabled(state != GameEngine.EXCLUDED);
+        repaint();
     }
 
     /**
-     * Provides access to the vetoable change support for this card.
-     *
-     * <p>This method initializes the {@link VetoableChangeSupport} instance
-     * if it is not already initialized and returns it. The vetoable change
-     * support is used to manage listeners that can veto changes to bound
-     * properties of this card.
-     *
-     * @return the vetoable change support associated with this card
+     * Draws the rendered face of the card as one tile of the card faces, then
+     * the feedback of the button over it: a shade while the card is pressed, a
+     * highlight while the mouse is over it, and an outline while it has the
+     * keyboard focus.
+     * <p>
+     * The cached faces are shared by every card, so the feedback is drawn on
+     * each paint rather than rasterized into the faces.
      */
-    private VetoableChangeSupport getVetoableChangeSupport(){
-        if(vcs == null){
-            vcs = new VetoableChangeSupport(this);
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (shownState < 0) {
+            return;
+        }
+        int width = getWidth();
+        int height = getHeight();
+        faces.draw(g, shownState, shownValue, 0, 0, width, height);
+        ButtonModel model = getModel();
+        if (model.isArmed() && model.isPressed()) {
+            g.setColor(CardStyle.PRESSED);
+            g.fillRect(0, 0, width, height);
+        } else if (model.isRollover() && isEnabled()) {
+            g.setColor(CardStyle.ROLLOVER);
+            g.fillRect(0, 0, width, height);
+        }
+        if (isFocusOwner() && isFocusPainted()) {
+            g.setColor(CardStyle.FOCUS);
+            g.drawRect(2, 2, width - 5, height - 5);
+            g.drawRect(3, 3, width - 7, height - 7);
         }
-        return vcs;
     }
 }
@@ -34,6 +34,17 @@ public class Player {
         totalFlips++;
     }
 
+    /**
+     * Sets the total number of flips made by this player.
+     * <p>
+     * This method is used when a game is restored rather than played.
+     *
+     * @param totalFlips the number of flips made by this player
+     */
+    public void setTotalFlips(int totalFlips) {
+        this.totalFlips = totalFlips;
+    }
+
     /**
      * Retrieves the number of matched pairs found by this player.
      *
@@ -52,6 +63,17 @@ public class Player {
         matchedPairs++;
     }
 
+    /**
+     * Sets the number of matched pairs found by this player.
+     * <p>
+     * This method is used when a game is restored rather than played.
+     *
+     * @param matchedPairs the number of matched pairs
+     */
+    public void setMatchedPairs(int matchedPairs) {
+        this.matchedPairs = matchedPairs;
+    }
+
     /**
      * Resets the player's matched pairs and total flips to zero.
      * <p>
@@ -0,0 +1,73 @@
+package io.github.danidrd.matchingpairs.controller;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import io.github.danidrd.matchingpairs.model.GameSnapshot;
+import io.github.danidrd.matchingpairs.model.MoveLog;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CheckpointWriterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void theLatestSubmittedCheckpointIsSaved() throws Exception {
+        Path file = directory.resolve("game.mpsnap");
+        GameEngine engine = new GameEngine(2);
+        engine.reset(32, 8L);
+        MoveLog log = MoveLog.of(engine);
+        try (CheckpointWriter writer = new CheckpointWriter(file)) {
+            for (int move = 0; move < 20 && !engine.isComplete(); move++) {
+                engine.resolveMismatch();
+                int index = engine.nextCardIndex(GameEngine.FACE_DOWN, 0);
+                engine.flip(index);
+                log.record(index, move);
+                writer.submit(engine, log);
+            }
+            writer.flush();
+
+            GameEngine restored = new GameEngine(2);
+            MoveLog restoredLog = GameSnapshot.load(file, restored);
+            assertEquals(log.size(), restoredLog.size());
+            assertEquals(engine.getTotalFlips(), restored.getTotalFlips());
+            assertEquals(engine.getFirstSelectedIndex(), restored.getFirstSelectedIndex());
+        }
+    }
+
+    @Test
+    void closingSavesThePendingCheckpoint() throws Exception {
+        Path file = directory.resolve("game.mpsnap");
+        GameEngine engine = new GameEngine(1);
+        engine.reset(4, 2L);
+        CheckpointWriter writer = new CheckpointWriter(file);
+        writer.submit(engine, null);
+        writer.close();
+
+        assertTrue(Files.exists(file));
+        assertNull(GameSnapshot.load(file, new GameEngine(1)));
+        assertThrows(IllegalStateException.class, () -> writer.submit(engine, null));
+    }
+
+    @Test
+    void aFailedCheckpointDoesNotStopTheWriter() throws Exception {
+        Path file = directory.resolve("missing").resolve("game.mpsnap");
+        GameEngine engine = new GameEngine(1);
+        engine.reset(4, 2L);
+        try (CheckpointWriter writer = new CheckpointWriter(file)) {
+            writer.submit(engine, null);
+            writer.flush();
+            assertFalse(Files.exists(file));
+
+            Files.createDirectory(file.getParent());
+            writer.submit(engine, null);
+            writer.flush();
+            assertTrue(Files.exists(file));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package io.github.danidrd.matchingpairs.controller;
+
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlipBackSchedulerTest {
+    // First index of each pair flipped back, in order, only touched on the event dispatch thread
+    private final List<Integer> flippedBack = new ArrayList<>();
+
+    private static void onEdt(Runnable task) throws Exception {
+        SwingUtilities.invokeAndWait(task);
+    }
+
+    private int flippedBackCount() throws Exception {
+        int[] count = new int[1];
+        onEdt(() -> count[0] = flippedBack.size());
+        return count[0];
+    }
+
+    private void awaitFlippedBack(int expected, long timeoutMillis) throws Exception {
+        long deadline = System.nanoTime() + timeoutMillis * 1_000_000L;
+        while (flippedBackCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, flippedBackCount());
+    }
+
+    @Test
+    void aPairScheduledAfterTheDelayIsLoweredIsNotHeldUpByOlderPairs() throws Exception {
+        FlipBackScheduler[] scheduler = new FlipBackScheduler[1];
+        onEdt(() -> {
+            scheduler[0] = new FlipBackScheduler(3_000, (first, second) -> flippedBack.add(first));
+            scheduler[0].schedule(0, 1);
+            scheduler[0].schedule(2, 3);
+            scheduler[0].setDelayMillis(20);
+            scheduler[0].schedule(4, 5);
+        });
+
+        awaitFlippedBack(1, 2_000);
+        onEdt(() -> {
+            assertEquals(List.of(4), flippedBack);
+            assertTrue(scheduler[0].isPending());
+        });
+
+        awaitFlippedBack(3, 5_000);
+        onEdt(() -> {
+            assertEquals(List.of(4, 0, 2), flippedBack);
+            assertFalse(scheduler[0].isPending());
+        });
+    }
+
+    @Test
+    void pairsAreFlippedBackInDeadlineOrderWhateverTheOrderTheyWereScheduledIn() throws Exception {
+        onEdt(() -> {
+            FlipBackScheduler scheduler = new FlipBackScheduler(0, (first, second) -> flippedBack.add(first));
+            // Each pair waits less than the previous one, and the ring grows past its initial capacity
+            for (int pair = 0; pair < 6; pair++) {
+                scheduler.setDelayMillis(600 - pair * 100);
+                scheduler.schedule(pair * 2, pair * 2 + 1);
+            }
+        });
+
+        awaitFlippedBack(6, 5_000);
+        onEdt(() -> assertEquals(List.of(10, 8, 6, 4, 2, 0), flippedBack));
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.danidrd.matchingpairs.controller;
+
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameControllerTest {
+
+    private static void onEdt(Runnable task) throws Exception {
+        SwingUtilities.invokeAndWait(task);
+    }
+
+    @Test
+    void onlyAFaceDownCardCanBeRequestedFaceUp() throws Exception {
+        onEdt(() -> {
+            GameController controller = new GameController(List.of("Alice", "Bob"));
+            GameEngine engine = controller.getEngine();
+            GameEventBus eventBus = controller.getEventBus();
+            engine.reset(4);
+            eventBus.fireShuffleRequested();
+
+            // Excluding a face down card, or turning a card face down, is left to the engine rules
+            assertFalse(eventBus.requestCardState(0, GameEngine.FACE_DOWN, GameEngine.EXCLUDED));
+            assertEquals(GameEngine.FACE_DOWN, engine.getState(0));
+            assertTrue(eventBus.requestCardState(0, GameEngine.FACE_DOWN, GameEngine.FACE_UP));
+            assertFalse(eventBus.requestCardState(0, GameEngine.FACE_UP, GameEngine.EXCLUDED));
+            assertFalse(eventBus.requestCardState(0, GameEngine.FACE_UP, GameEngine.FACE_DOWN));
+            assertEquals(GameEngine.FACE_UP, engine.getState(0));
+
+            assertEquals(3, controller.getMetrics().getVetoes());
+            assertEquals(1, engine.getTotalFlips());
+            assertEquals(0, engine.countCards(GameEngine.EXCLUDED));
+            assertTrue(engine.isConsistent());
+        });
+    }
+
+    @Test
+    void aMatchIsExcludedByTheEngine() throws Exception {
+        onEdt(() -> {
+            GameController controller = new GameController(List.of("Alice"));
+            GameEngine engine = controller.getEngine();
+            GameEventBus eventBus = controller.getEventBus();
+            engine.reset(4);
+            eventBus.fireShuffleRequested();
+
+            int partner = 1;
+            while (engine.getValue(partner) != engine.getValue(0)) {
+                partner++;
+            }
+            assertTrue(eventBus.requestCardState(0, GameEngine.FACE_DOWN, GameEngine.FACE_UP));
+            assertTrue(eventBus.requestCardState(partner, GameEngine.FACE_DOWN, GameEngine.FACE_UP));
+
+            assertEquals(GameEngine.EXCLUDED, engine.getState(0));
+            assertEquals(GameEngine.EXCLUDED, engine.getState(partner));
+            assertEquals(1, controller.getCurrentPlayer().getMatchedPairs());
+        });
+    }
+}
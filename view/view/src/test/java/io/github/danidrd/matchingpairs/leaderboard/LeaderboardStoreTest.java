@@ -0,0 +1,164 @@
+package io.github.danidrd.matchingpairs.leaderboard;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeaderboardStoreTest {
+    private static final int LOG_HEADER = 16;
+    private static final int RECORD = 20;
+
+    @TempDir
+    Path directory;
+
+    private record Entry(int boardSize, int flips, String playerName, long timestamp) {
+    }
+
+    private List<Entry> reopenAndLoad() throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        LeaderboardStore store = LeaderboardStore.open(directory);
+        store.load((boardSize, flips, playerName, timestamp) ->
+                entries.add(new Entry(boardSize, flips, playerName, timestamp)));
+        store.close();
+        return entries;
+    }
+
+    @Test
+    void appendedRecordsSurviveAReopenInAppendOrder() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(directory);
+        store.append(8, 30, "Alice", 1L);
+        store.append(4, 12, "Bob", 2L);
+        store.append(8, 20, "Alice", 3L);
+        store.close();
+
+        assertEquals(List.of(new Entry(8, 30, "Alice", 1L), new Entry(4, 12, "Bob", 2L),
+                new Entry(8, 20, "Alice", 3L)), reopenAndLoad());
+    }
+
+    @Test
+    void compactionWritesASortedSnapshotAndStartsTheNextLog() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(directory);
+        store.append(8, 30, "Alice", 1L);
+        store.append(4, 12, "Bob", 2L);
+        store.append(8, 20, "Carol", 3L);
+        store.compact();
+        store.append(2, 5, "Dave", 4L);
+        store.close();
+
+        assertTrue(Files.exists(directory.resolve("leaderboard.snapshot")));
+        assertFalse(Files.exists(directory.resolve("leaderboard-1.log")));
+        assertTrue(Files.exists(directory.resolve("leaderboard-2.log")));
+        // The snapshot comes first, sorted by board size and flips, then the log in append order
+        assertEquals(List.of(new Entry(4, 12, "Bob", 2L), new Entry(8, 20, "Carol", 3L),
+                new Entry(8, 30, "Alice", 1L), new Entry(2, 5, "Dave", 4L)), reopenAndLoad());
+    }
+
+    @Test
+    void compactionMergesTheLogIntoThePreviousSnapshot() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(directory);
+        store.append(8, 30, "Alice", 1L);
+        store.append(4, 12, "Bob", 2L);
+        store.compact();
+        store.append(8, 25, "Carol", 3L);
+        store.append(4, 40, "Dave", 4L);
+        store.append(8, 30, "Eve", 5L);
+        store.compact();
+        store.close();
+
+        // Ties keep the older snapshot record first
+        assertEquals(List.of(new Entry(4, 12, "Bob", 2L), new Entry(4, 40, "Dave", 4L),
+                new Entry(8, 25, "Carol", 3L), new Entry(8, 30, "Alice", 1L),
+                new Entry(8, 30, "Eve", 5L)), reopenAndLoad());
+    }
+
+    @Test
+    void aLogLeftBehindByACrashedCompactionIsNotLoadedTwice() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(directory);
+        store.append(8, 30, "Alice", 1L);
+        store.append(4, 12, "Bob", 2L);
+        store.close();
+        Path compactedLog = directory.resolve("leaderboard-1.log");
+        Path backup = directory.resolve("backup");
+        Files.copy(compactedLog, backup);
+
+        store = LeaderboardStore.open(directory);
+        store.compact();
+        store.close();
+        // A crash after the snapshot was moved in place, before the old log was deleted
+        Files.move(backup, compactedLog, StandardCopyOption.REPLACE_EXISTING);
+
+        assertEquals(List.of(new Entry(4, 12, "Bob", 2L), new Entry(8, 30, "Alice", 1L)), reopenAndLoad());
+    }
+
+    @Test
+    void aRecordTornByACrashIsIgnored() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(directory);
+        store.append(8, 30, "Alice", 1L);
+        store.close();
+
+        // A crash while writing the second record, before the record count was bumped
+        try (FileChannel channel = FileChannel.open(directory.resolve("leaderboard-1.log"), StandardOpenOption.WRITE)) {
+            ByteBuffer torn = ByteBuffer.allocate(RECORD / 2).putInt(16).putInt(99).flip();
+            channel.write(torn, LOG_HEADER + RECORD);
+        }
+
+        assertEquals(List.of(new Entry(8, 30, "Alice", 1L)), reopenAndLoad());
+
+        // The next append overwrites the torn record
+        store = LeaderboardStore.open(directory);
+        store.append(4, 10, "Bob", 2L);
+        store.close();
+        assertEquals(List.of(new Entry(8, 30, "Alice", 1L), new Entry(4, 10, "Bob", 2L)), reopenAndLoad());
+    }
+
+    @Test
+    void aNameTornByACrashIsDropped() throws IOException {
+        LeaderboardStore store = LeaderboardStore.open(directory);
+        store.append(8, 30, "Alice", 1L);
+        store.close();
+
+        // A name of 10 bytes of which only 2 reached the disk
+        Path names = directory.resolve("leaderboard.names");
+        long validLength = Files.size(names);
+        Files.write(names, new byte[]{0, 10, 'B', 'o'}, StandardOpenOption.APPEND);
+
+        store = LeaderboardStore.open(directory);
+        store.load((boardSize, flips, playerName, timestamp) -> { });
+        store.append(4, 10, "Bob", 2L);
+        store.close();
+
+        assertEquals(validLength + 2 + "Bob".length(), Files.size(names));
+        assertEquals(List.of(new Entry(8, 30, "Alice", 1L), new Entry(4, 10, "Bob", 2L)), reopenAndLoad());
+    }
+
+    @Test
+    void theLogGrowsPastItsInitialMapping() throws IOException {
+        int records = (1 << 20) / RECORD + 10;
+        LeaderboardStore store = LeaderboardStore.open(directory);
+        for (int i = 0; i < records; i++) {
+            store.append(8, i, "Alice", i);
+        }
+        store.close();
+
+        List<Entry> entries = reopenAndLoad();
+        assertEquals(records, entries.size());
+        assertEquals(new Entry(8, records - 1, "Alice", records - 1), entries.get(records - 1));
+    }
+
+    @Test
+    void otherFilesAreRejected() throws IOException {
+        Files.write(directory.resolve("leaderboard-1.log"), new byte[64]);
+        assertThrows(IOException.class, () -> LeaderboardStore.open(directory));
+    }
+}
@@ -0,0 +1,111 @@
+package io.github.danidrd.matchingpairs.leaderboard;
+
+import io.github.danidrd.matchingpairs.view.LeaderboardEntry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopScoresTest {
+
+    private record Score(String name, int flips) {
+    }
+
+    private static List<String> names(List<LeaderboardEntry> entries) {
+        return entries.stream().map(LeaderboardEntry::toString).toList();
+    }
+
+    private static List<String> names(List<Score> scores, int from, int to) {
+        return scores.subList(from, to).stream().map(s -> new LeaderboardEntry(s.name(), s.flips()).toString()).toList();
+    }
+
+    @Test
+    void keepsTheBestScoresLikeAStableSortOfEveryScore() {
+        SplittableRandom random = new SplittableRandom(7);
+        for (int capacity : new int[]{1, 2, 3, 7, 64, 100}) {
+            TopScores top = new TopScores(capacity);
+            List<Score> all = new ArrayList<>();
+            for (int i = 0; i < 2_000; i++) {
+                Score score = new Score("p" + i, random.nextInt(8, 40));
+                all.add(score);
+                boolean kept = top.offer(score.name(), score.flips());
+
+                // A stable sort keeps the earlier score first on equal flips
+                List<Score> expected = all.stream().sorted(Comparator.comparingInt(Score::flips)).toList();
+                int size = Math.min(capacity, expected.size());
+                assertEquals(size, top.size());
+                assertEquals(expected.subList(0, size).contains(score), kept);
+                assertEquals(expected.get(0).flips(), top.getBestFlips());
+                assertEquals(expected.get(size - 1).flips(), top.getWorstFlips());
+                if (i % 97 == 0) {
+                    assertEquals(names(expected, 0, size), names(top.toSortedList()));
+                }
+            }
+        }
+    }
+
+    @Test
+    void ranksAnyFlipCountAfterTheKeptScoresWithTheSameFlips() {
+        TopScores top = new TopScores(10);
+        assertEquals(1, top.getRank(20));
+        for (int flips : new int[]{30, 20, 20, 40, 10}) {
+            top.offer("p" + flips, flips);
+        }
+        assertEquals(1, top.getRank(5));
+        assertEquals(2, top.getRank(10));
+        assertEquals(2, top.getRank(19));
+        assertEquals(4, top.getRank(20));
+        assertEquals(5, top.getRank(35));
+        assertEquals(6, top.getRank(40));
+        assertEquals(6, top.getRank(Integer.MAX_VALUE));
+
+        // The ranked view is rebuilt after a change
+        top.offer("late", 15);
+        assertEquals(3, top.getRank(15));
+        assertEquals(7, top.getRank(40));
+    }
+
+    @Test
+    void pagesThroughTheRankedScores() {
+        TopScores top = new TopScores(50);
+        List<Score> all = new ArrayList<>();
+        SplittableRandom random = new SplittableRandom(3);
+        for (int i = 0; i < 50; i++) {
+            Score score = new Score("p" + i, random.nextInt(100));
+            all.add(score);
+            top.offer(score.name(), score.flips());
+        }
+        List<Score> expected = all.stream().sorted(Comparator.comparingInt(Score::flips)).toList();
+
+        assertEquals(names(expected, 0, 10), names(top.toSortedList(0, 10)));
+        assertEquals(names(expected, 40, 50), names(top.toSortedList(40, 10)));
+        assertEquals(names(expected, 45, 50), names(top.toSortedList(45, 10)));
+        assertEquals(List.of(), top.toSortedList(50, 10));
+        assertEquals(List.of(), top.toSortedList(10, 0));
+        assertEquals(names(expected, 0, 3), names(top.toSortedList(-5, 3)));
+        assertEquals(names(expected, 5, 50), names(top.toSortedList(5, Integer.MAX_VALUE)));
+    }
+
+    @Test
+    void aScoreNoBetterThanTheWorstOfAFullHeapIsDropped() {
+        TopScores top = new TopScores(2);
+        assertTrue(top.offer("a", 10));
+        assertTrue(top.offer("b", 20));
+        assertFalse(top.offer("c", 20));
+        assertTrue(top.offer("d", 19));
+        assertEquals(List.of("a: 10 flips", "d: 19 flips"), names(top.toSortedList()));
+    }
+
+    @Test
+    void emptyScores() {
+        TopScores top = new TopScores(4);
+        assertEquals(-1, top.getBestFlips());
+        assertEquals(-1, top.getWorstFlips());
+        assertEquals(List.of(), top.toSortedList());
+        assertThrows(IllegalArgumentException.class, () -> new TopScores(0));
+    }
+}
@@ -0,0 +1,104 @@
+package io.github.danidrd.matchingpairs.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyRecorderTest {
+    private static final double[] PERCENTILES = {0, 1, 25, 50, 90, 99, 99.9, 100};
+
+    /**
+     * The smallest latency reached by at least the given percentage of the sorted latencies.
+     */
+    private static long percentileOf(long[] sorted, double percentile) {
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * sorted.length));
+        return sorted[(int) rank - 1];
+    }
+
+    @Test
+    void aPercentileIsTheUpperBoundOfItsBucketWithinThreePercent() {
+        SplittableRandom random = new SplittableRandom(17);
+        LatencyRecorder recorder = new LatencyRecorder("flip");
+        long[] latencies = new long[5_000];
+        long sum = 0;
+        for (int i = 0; i < latencies.length; i++) {
+            // Exact small buckets, microsecond flips and a few millisecond outliers
+            long nanos = switch (i % 100) {
+                case 0 -> random.nextLong(1_000_000, 50_000_000);
+                case 1, 2, 3 -> random.nextLong(32);
+                default -> random.nextLong(2_000, 80_000);
+            };
+            latencies[i] = nanos;
+            sum += nanos;
+            recorder.record(nanos);
+        }
+        Arrays.sort(latencies);
+
+        assertEquals(latencies.length, recorder.getCount());
+        assertEquals(latencies[latencies.length - 1], recorder.getMaxNanos());
+        assertEquals((double) sum / latencies.length, recorder.getMeanNanos(), 1e-6);
+        for (double percentile : PERCENTILES) {
+            long expected = percentileOf(latencies, percentile);
+            long actual = recorder.getNanosAtPercentile(percentile);
+            assertTrue(actual >= expected, percentile + "th below " + expected + ": " + actual);
+            assertTrue(actual <= expected + expected / 32, percentile + "th above " + expected + ": " + actual);
+        }
+    }
+
+    @Test
+    void bucketBoundariesAreExact() {
+        // Latencies below 32 ns have a bucket each, so they come back as recorded
+        for (long nanos : new long[]{0, 1, 31}) {
+            LatencyRecorder recorder = new LatencyRecorder("exact");
+            recorder.record(nanos);
+            assertEquals(nanos, recorder.getNanosAtPercentile(50));
+        }
+        // Above, the first and last latency of a sub-bucket share its upper bound
+        for (long lowerBound : new long[]{32, 64, 1L << 20, (1L << 40) + (31L << 35)}) {
+            long width = Long.highestOneBit(lowerBound) >>> 5;
+            LatencyRecorder recorder = new LatencyRecorder("boundary");
+            recorder.record(lowerBound);
+            recorder.record(lowerBound + width - 1);
+            recorder.record(lowerBound + width);
+            assertEquals(lowerBound + width - 1, recorder.getNanosAtPercentile(50), "bucket of " + lowerBound);
+            assertEquals(lowerBound + width, recorder.getNanosAtPercentile(100), "bucket of " + lowerBound);
+        }
+    }
+
+    @Test
+    void extremeLatenciesStayInRange() {
+        LatencyRecorder recorder = new LatencyRecorder("extreme");
+        recorder.record(-5);
+        assertEquals(0, recorder.getMaxNanos());
+        assertEquals(0, recorder.getNanosAtPercentile(100));
+
+        recorder.record(Long.MAX_VALUE);
+        assertEquals(Long.MAX_VALUE, recorder.getMaxNanos());
+        assertEquals(Long.MAX_VALUE, recorder.getNanosAtPercentile(100));
+        assertEquals(0, recorder.getNanosAtPercentile(50));
+    }
+
+    @Test
+    void aSummaryIsInMicroseconds() {
+        LatencyRecorder recorder = new LatencyRecorder("shuffle");
+        assertEquals(0, recorder.getNanosAtPercentile(99));
+        assertEquals(0, recorder.summarize().getCount());
+        assertEquals(0, recorder.summarize().getMaxMicros());
+
+        for (int i = 0; i < 1_000; i++) {
+            recorder.record(i < 990 ? 3_000 : 9_000);
+        }
+        LatencySummary summary = recorder.summarize();
+        assertEquals(1_000, summary.getCount());
+        assertEquals(3.06, summary.getMeanMicros(), 1e-9);
+        assertEquals(recorder.getNanosAtPercentile(50) / 1_000.0, summary.getP50Micros());
+        assertEquals(recorder.getNanosAtPercentile(99) / 1_000.0, summary.getP99Micros());
+        assertEquals(recorder.getNanosAtPercentile(99.9) / 1_000.0, summary.getP999Micros());
+        assertEquals(9.0, summary.getMaxMicros());
+        assertTrue(summary.getP50Micros() >= 3.0 && summary.getP50Micros() < 3.1);
+        assertEquals(9.0, summary.getP999Micros());
+    }
+}
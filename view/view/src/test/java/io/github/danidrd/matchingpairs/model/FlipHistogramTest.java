@@ -0,0 +1,120 @@
+package io.github.danidrd.matchingpairs.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlipHistogramTest {
+
+    /**
+     * The smallest flip count reached by at least the given percentage of the sorted results.
+     */
+    private static int percentileOf(int[] sorted, double percentile) {
+        long target = Math.min(sorted.length, Math.max(1, (long) Math.ceil(sorted.length * percentile / 100.0)));
+        return sorted[(int) target - 1];
+    }
+
+    @Test
+    void queriesMatchASortedArrayOfEveryResultWhileTheBucketsGrow() {
+        SplittableRandom random = new SplittableRandom(11);
+        FlipHistogram histogram = new FlipHistogram();
+        int[] results = new int[3_000];
+        long sum = 0;
+        for (int n = 1; n <= results.length; n++) {
+            // Mostly small counts, with outliers forcing the buckets to grow
+            int flips = n % 500 == 0 ? random.nextInt(1_000, 5_000) : random.nextInt(8, 60);
+            results[n - 1] = flips;
+            sum += flips;
+            histogram.record(flips);
+
+            if (n % 250 == 0 || n < 20) {
+                int[] sorted = Arrays.copyOf(results, n);
+                Arrays.sort(sorted);
+                assertEquals(n, histogram.getTotalCount());
+                assertEquals(sorted[0], histogram.getMin());
+                assertEquals(sorted[n - 1], histogram.getMax());
+                assertEquals((double) sum / n, histogram.getMean(), 1e-9);
+                for (double percentile : new double[]{0, 1, 25, 50, 90, 99, 99.9, 100}) {
+                    assertEquals(percentileOf(sorted, percentile), histogram.getPercentile(percentile),
+                            "p" + percentile + " after " + n);
+                }
+                for (int bound = 0; bound <= sorted[n - 1] + 1; bound += 7) {
+                    int below = 0;
+                    int equal = 0;
+                    for (int result : sorted) {
+                        below += result < bound ? 1 : 0;
+                        equal += result == bound ? 1 : 0;
+                    }
+                    assertEquals(below, histogram.getCountBelow(bound));
+                    assertEquals(equal, histogram.getCount(bound));
+                }
+            }
+        }
+    }
+
+    @Test
+    void countsBeyondTheBucketsAreEmpty() {
+        FlipHistogram histogram = new FlipHistogram();
+        histogram.record(10, 3);
+        assertEquals(3, histogram.getCountBelow(1_000_000));
+        assertEquals(0, histogram.getCountBelow(0));
+        assertEquals(0, histogram.getCount(1_000_000));
+        assertEquals(0, histogram.getCount(-1));
+    }
+
+    @Test
+    void recordingManyGamesAtOnceEqualsRecordingThemOneByOne() {
+        FlipHistogram batched = new FlipHistogram();
+        FlipHistogram single = new FlipHistogram();
+        batched.record(12, 5);
+        batched.record(300, 2);
+        batched.record(40, 0);
+        for (int i = 0; i < 5; i++) {
+            single.record(12);
+        }
+        single.record(300);
+        single.record(300);
+
+        for (double percentile = 0; percentile <= 100; percentile += 5) {
+            assertEquals(single.getPercentile(percentile), batched.getPercentile(percentile));
+        }
+        assertEquals(single.getMean(), batched.getMean());
+        assertEquals(12, batched.getMin());
+        assertEquals(300, batched.getMax());
+    }
+
+    @Test
+    void mergeAddsEveryResultOfTheOtherHistogram() {
+        FlipHistogram left = new FlipHistogram();
+        FlipHistogram right = new FlipHistogram();
+        FlipHistogram all = new FlipHistogram();
+        SplittableRandom random = new SplittableRandom(5);
+        for (int i = 0; i < 1_000; i++) {
+            int flips = random.nextInt(0, 200);
+            (i % 3 == 0 ? left : right).record(flips);
+            all.record(flips);
+        }
+        left.merge(right);
+        left.merge(new FlipHistogram());
+
+        assertEquals(all.getTotalCount(), left.getTotalCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-9);
+        for (int flips = 0; flips <= 200; flips++) {
+            assertEquals(all.getCount(flips), left.getCount(flips));
+            assertEquals(all.getCountBelow(flips), left.getCountBelow(flips));
+        }
+    }
+
+    @Test
+    void emptyHistogram() {
+        FlipHistogram histogram = new FlipHistogram();
+        assertEquals(-1, histogram.getMin());
+        assertEquals(-1, histogram.getMax());
+        assertEquals(-1, histogram.getPercentile(50));
+        assertEquals(0, histogram.getMean());
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(-1));
+    }
+}
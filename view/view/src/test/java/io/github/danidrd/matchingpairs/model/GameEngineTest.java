@@ -0,0 +1,16 @@
+package io.github.danidrd.matchingpairs.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameEngineTest {
+
+    @Test
+    void theWinnerHasTheMostPairsThenTheFewestFlips() {
+        assertEquals(1, GameEngine.getWinnerIndex(new int[]{2, 3, 3}, new int[]{4, 12, 14}));
+        assertEquals(2, GameEngine.getWinnerIndex(new int[]{3, 3, 3}, new int[]{12, 14, 10}));
+        assertEquals(0, GameEngine.getWinnerIndex(new int[]{4, 4, 1}, new int[]{10, 10, 2}));
+        assertEquals(1, GameEngine.getWinnerIndex(new int[]{0, 4}, new int[]{2, 30}));
+    }
+}
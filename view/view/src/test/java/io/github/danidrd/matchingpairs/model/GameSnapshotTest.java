@@ -0,0 +1,201 @@
+package io.github.danidrd.matchingpairs.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSnapshotTest {
+    private static final int HEADER = 38;
+    private static final int MATCHED_PAIRS = 22;
+    private static final int FIRST_SELECTED = 30;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Plays a two-player game of 6 pairs: a match by the first player, then a mismatch left pending.
+     */
+    private static GameEngine playedGame(MoveLog log) {
+        GameEngine engine = new GameEngine(2);
+        engine.reset(6, 21L);
+        int first = 0;
+        int partner = engine.nextCardIndex(GameEngine.FACE_DOWN, 1);
+        while (engine.getValue(partner) != engine.getValue(first)) {
+            partner = engine.nextCardIndex(GameEngine.FACE_DOWN, partner + 1);
+        }
+        int other = engine.nextCardIndex(GameEngine.FACE_DOWN, 1);
+        if (other == partner) {
+            other = engine.nextCardIndex(GameEngine.FACE_DOWN, other + 1);
+        }
+        int mismatch = engine.nextCardIndex(GameEngine.FACE_DOWN, other + 1);
+        while (mismatch == partner || engine.getValue(mismatch) == engine.getValue(other)) {
+            mismatch = engine.nextCardIndex(GameEngine.FACE_DOWN, mismatch + 1);
+        }
+        for (int index : new int[]{first, partner, other, mismatch}) {
+            assertNotEquals(FlipResult.IGNORED, engine.flip(index));
+            if (log != null) {
+                log.record(index, 10);
+            }
+        }
+        assertTrue(engine.isResolutionPending());
+        return engine;
+    }
+
+    private static void assertSameGame(GameEngine expected, GameEngine actual) {
+        assertEquals(expected.getNumberOfPairs(), actual.getNumberOfPairs());
+        assertEquals(expected.getSeed(), actual.getSeed());
+        assertEquals(expected.getCurrentPlayerIndex(), actual.getCurrentPlayerIndex());
+        assertEquals(expected.getGlobalMatchedPairs(), actual.getGlobalMatchedPairs());
+        assertEquals(expected.getTotalFlips(), actual.getTotalFlips());
+        assertEquals(expected.getFirstSelectedIndex(), actual.getFirstSelectedIndex());
+        assertEquals(expected.getSecondSelectedIndex(), actual.getSecondSelectedIndex());
+        assertEquals(expected.isResolutionPending(), actual.isResolutionPending());
+        for (int i = 0; i < expected.getNumberOfPlayers(); i++) {
+            assertEquals(expected.getPlayerFlips(i), actual.getPlayerFlips(i));
+            assertEquals(expected.getPlayerMatchedPairs(i), actual.getPlayerMatchedPairs(i));
+        }
+        for (int i = 0; i < expected.getCardCount(); i++) {
+            assertEquals(expected.getValue(i), actual.getValue(i));
+            assertEquals(expected.getState(i), actual.getState(i));
+        }
+    }
+
+    @Test
+    void aCaptureRestoresTheGameAndItsLog() throws IOException {
+        MoveLog log = new MoveLog(2, 6, 21L);
+        GameEngine played = playedGame(log);
+        ByteBuffer capture = GameSnapshot.capture(played, log, ByteBuffer.allocate(0));
+        assertEquals(GameSnapshot.size(played) + log.getEncodedSize(), capture.remaining());
+
+        GameEngine restored = new GameEngine(2);
+        MoveLog restoredLog = GameSnapshot.load(capture, restored);
+        assertSameGame(played, restored);
+        assertEquals(log.size(), restoredLog.size());
+        for (int i = 0; i < log.size(); i++) {
+            assertEquals(log.getCardIndex(i), restoredLog.getCardIndex(i));
+        }
+    }
+
+    @Test
+    void aLargeEnoughBufferIsReused() {
+        GameEngine engine = playedGame(null);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(GameSnapshot.size(engine));
+        assertSame(buffer, GameSnapshot.capture(engine, null, buffer));
+        assertEquals(0, buffer.position());
+
+        ByteBuffer grown = GameSnapshot.capture(engine, new MoveLog(2, 6, 21L), buffer);
+        assertNotSame(buffer, grown);
+        assertTrue(grown.isDirect());
+        assertSame(grown, GameSnapshot.capture(engine, null, grown));
+    }
+
+    @Test
+    void aSavedFileIsReadWithoutKeepingItOpen() throws IOException {
+        Path file = directory.resolve("game.mpsnap");
+        MoveLog log = new MoveLog(2, 6, 21L);
+        GameEngine played = playedGame(log);
+        GameSnapshot.save(played, log, file);
+
+        GameEngine restored = new GameEngine(2);
+        assertNotNull(GameSnapshot.load(file, restored));
+        assertSameGame(played, restored);
+
+        // The next checkpoint replaces the file it was loaded from
+        played.resolveMismatch();
+        GameSnapshot.save(GameSnapshot.capture(played, null, ByteBuffer.allocate(0)), file);
+        assertNull(GameSnapshot.load(file, restored));
+        assertSameGame(played, restored);
+        assertFalse(Files.exists(directory.resolve("game.mpsnap.tmp")));
+    }
+
+    /**
+     * Captures the played game, lets the test corrupt it, and checks it is rejected without touching the engine.
+     */
+    private static void assertRejected(Consumer<ByteBuffer> corruption) {
+        GameEngine played = playedGame(null);
+        ByteBuffer capture = GameSnapshot.capture(played, null, ByteBuffer.allocate(0));
+        corruption.accept(capture);
+
+        GameEngine untouched = new GameEngine(2);
+        untouched.reset(3, 5L);
+        GameEngine expected = new GameEngine(2);
+        expected.reset(3, 5L);
+        assertThrows(IOException.class, () -> GameSnapshot.read(capture, untouched));
+        assertSameGame(expected, untouched);
+    }
+
+    private static int valueOffset(int card) {
+        return HEADER + 2 * 8 + card * 4;
+    }
+
+    private static int statesOffset() {
+        return valueOffset(12);
+    }
+
+    private static int firstFaceDownCard(ByteBuffer capture) {
+        int card = 0;
+        while (((capture.get(statesOffset() + card / 4) >>> (card % 4 * 2)) & 3) != GameEngine.FACE_DOWN) {
+            card++;
+        }
+        return card;
+    }
+
+    @Test
+    void aValueOnThreeCardsIsRejected() {
+        // Card 0 takes the value of another card, so one value is on three cards and one on a single card
+        assertRejected(capture -> {
+            int card = 1;
+            while (capture.getInt(valueOffset(card)) == capture.getInt(valueOffset(0))) {
+                card++;
+            }
+            capture.putInt(valueOffset(0), capture.getInt(valueOffset(card)));
+        });
+    }
+
+    @Test
+    void swappedValuesMustKeepMatchedPairsTogether() {
+        // Card 0 is excluded; swapping its value with a face down card splits the excluded pair
+        assertRejected(capture -> {
+            int card = firstFaceDownCard(capture);
+            int value = capture.getInt(valueOffset(0));
+            capture.putInt(valueOffset(0), capture.getInt(valueOffset(card)));
+            capture.putInt(valueOffset(card), value);
+        });
+    }
+
+    @Test
+    void countersMustAgreeWithTheExcludedCards() {
+        // Two matched pairs, all by the first player, with a single excluded pair
+        assertRejected(capture -> {
+            capture.putInt(MATCHED_PAIRS, 2);
+            capture.putInt(HEADER + 4, 2);
+        });
+    }
+
+    @Test
+    void countersMustAddUp() {
+        // The flips of the first player
+        assertRejected(capture -> capture.putInt(HEADER, capture.getInt(HEADER) + 1));
+    }
+
+    @Test
+    void theFaceUpCardsMustBeTheSelection() {
+        assertRejected(capture -> capture.putInt(FIRST_SELECTED, 0));
+    }
+
+    @Test
+    void aFaceUpCardMustBeSelected() {
+        assertRejected(capture -> {
+            int card = firstFaceDownCard(capture);
+            int offset = statesOffset() + card / 4;
+            capture.put(offset, (byte) (capture.get(offset) | GameEngine.FACE_UP << (card % 4 * 2)));
+        });
+    }
+}
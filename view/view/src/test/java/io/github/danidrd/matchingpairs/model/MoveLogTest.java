@@ -0,0 +1,176 @@
+package io.github.danidrd.matchingpairs.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveLogTest {
+
+    /**
+     * Plays a game with a mismatch every other turn, recording every flip, and leaves it unfinished.
+     */
+    private static MoveLog playAndRecord(GameEngine engine, int turns) {
+        MoveLog log = MoveLog.of(engine);
+        for (int turn = 0; turn < turns && !engine.isComplete(); turn++) {
+            engine.resolveMismatch();
+            int first = engine.nextCardIndex(GameEngine.FACE_DOWN, 0);
+            int second = engine.nextCardIndex(GameEngine.FACE_DOWN, first + 1);
+            if (turn % 2 == 0) {
+                // Find the partner of the first card to match it
+                while (engine.getValue(second) != engine.getValue(first)) {
+                    second = engine.nextCardIndex(GameEngine.FACE_DOWN, second + 1);
+                }
+            } else {
+                while (engine.getValue(second) == engine.getValue(first)) {
+                    second = engine.nextCardIndex(GameEngine.FACE_DOWN, second + 1);
+                }
+            }
+            engine.flip(first);
+            log.record(first, turn);
+            engine.flip(second);
+            log.record(second, turn * 1000);
+        }
+        return log;
+    }
+
+    @Test
+    void binaryFormRoundTripsEveryFlip() throws IOException {
+        MoveLog log = new MoveLog(3, 70_000, -42L);
+        int[] values = {0, 1, 127, 128, 300, 16_383, 16_384, 2_097_152, Integer.MAX_VALUE};
+        for (int value : values) {
+            log.record(value, value);
+        }
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeTo(out);
+        MoveLog read = MoveLog.readFrom(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(3, read.getNumberOfPlayers());
+        assertEquals(70_000, read.getNumberOfPairs());
+        assertEquals(-42L, read.getSeed());
+        assertEquals(values.length, read.size());
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], read.getCardIndex(i));
+            assertEquals(values[i], read.getDelayMillis(i));
+        }
+    }
+
+    @Test
+    void aBufferGetsTheSameBytesAsAStream() throws IOException {
+        MoveLog log = new MoveLog(4, 300, 77L);
+        for (int value : new int[]{0, 5, 127, 128, 16_384, Integer.MAX_VALUE}) {
+            log.record(value, value / 3);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeTo(out);
+
+        ByteBuffer buffer = ByteBuffer.allocate(log.getEncodedSize());
+        log.writeTo(buffer);
+        assertFalse(buffer.hasRemaining());
+        assertArrayEquals(out.toByteArray(), buffer.array());
+    }
+
+    @Test
+    void smallFlipsTakeOneByteEach() throws IOException {
+        MoveLog log = new MoveLog(2, 8, 1L);
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        log.writeTo(empty);
+        for (int i = 0; i < 10; i++) {
+            log.record(i, 100);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeTo(out);
+        assertEquals(empty.size() + 20, out.size());
+    }
+
+    @Test
+    void negativeDelaysAreRecordedAsZero() {
+        MoveLog log = new MoveLog(1, 4, 0L);
+        log.record(0, -5);
+        assertEquals(0, log.getDelayMillis(0));
+    }
+
+    @Test
+    void replayRebuildsTheRecordedGame() throws IOException {
+        GameEngine played = new GameEngine(2);
+        played.reset(16, 1234L);
+        MoveLog log = playAndRecord(played, 7);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeTo(out);
+
+        GameEngine replayed = new GameEngine(2);
+        MoveLog.readFrom(new ByteArrayInputStream(out.toByteArray())).replay(replayed);
+
+        assertEquals(played.getSeed(), replayed.getSeed());
+        assertEquals(played.getCurrentPlayerIndex(), replayed.getCurrentPlayerIndex());
+        assertEquals(played.isResolutionPending(), replayed.isResolutionPending());
+        assertEquals(played.getTotalFlips(), replayed.getTotalFlips());
+        for (int player = 0; player < 2; player++) {
+            assertEquals(played.getPlayerFlips(player), replayed.getPlayerFlips(player));
+            assertEquals(played.getPlayerMatchedPairs(player), replayed.getPlayerMatchedPairs(player));
+        }
+        for (int i = 0; i < played.getCardCount(); i++) {
+            assertEquals(played.getValue(i), replayed.getValue(i));
+            assertEquals(played.getState(i), replayed.getState(i));
+        }
+    }
+
+    @Test
+    void replayLeavesTheLastMismatchPending() {
+        GameEngine played = new GameEngine(2);
+        played.reset(8, 99L);
+        MoveLog log = playAndRecord(played, 2);
+        assertTrue(played.isResolutionPending());
+
+        GameEngine replayed = new GameEngine(2);
+        log.replay(replayed);
+        assertTrue(replayed.isResolutionPending());
+        assertEquals(played.getFirstSelectedIndex(), replayed.getFirstSelectedIndex());
+        assertEquals(played.getSecondSelectedIndex(), replayed.getSecondSelectedIndex());
+    }
+
+    @Test
+    void replayRejectsAFlipOfAnExcludedCard() {
+        GameEngine played = new GameEngine(1);
+        played.reset(4, 5L);
+        MoveLog log = playAndRecord(played, 1);
+        log.record(log.getCardIndex(0), 0);
+
+        assertThrows(IllegalStateException.class, () -> log.replay(new GameEngine(1)));
+    }
+
+    @Test
+    void replayRejectsADifferentNumberOfPlayers() {
+        MoveLog log = new MoveLog(2, 4, 0L);
+        assertThrows(IllegalArgumentException.class, () -> log.replay(new GameEngine(3)));
+    }
+
+    @Test
+    void numberOfPlayersMustFitTheHeader() {
+        assertThrows(IllegalArgumentException.class, () -> new MoveLog(0, 4, 0L));
+        assertThrows(IllegalArgumentException.class, () -> new MoveLog(MoveLog.MAX_PLAYERS + 1, 4, 0L));
+        assertEquals(MoveLog.MAX_PLAYERS, new MoveLog(MoveLog.MAX_PLAYERS, 4, 0L).getNumberOfPlayers());
+    }
+
+    @Test
+    void readRejectsOtherData() {
+        byte[] garbage = {1, 2, 3, 4, 5, 6, 7, 8};
+        assertThrows(IOException.class, () -> MoveLog.readFrom(new ByteArrayInputStream(garbage)));
+    }
+
+    @Test
+    void readRejectsATruncatedLog() throws IOException {
+        MoveLog log = new MoveLog(2, 4, 0L);
+        log.record(5, 1_000_000);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        log.writeTo(out);
+        byte[] truncated = Arrays.copyOf(out.toByteArray(), out.size() - 1);
+        assertThrows(IOException.class, () -> MoveLog.readFrom(new ByteArrayInputStream(truncated)));
+    }
+}
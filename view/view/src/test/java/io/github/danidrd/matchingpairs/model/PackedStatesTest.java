@@ -0,0 +1,100 @@
+package io.github.danidrd.matchingpairs.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedStatesTest {
+    // Lengths on both sides of word boundaries
+    private static final int[] LENGTHS = {0, 1, 2, 31, 32, 33, 63, 64, 65, 100, 257};
+
+    private static int count(byte[] expected, byte state) {
+        int count = 0;
+        for (byte value : expected) {
+            count += value == state ? 1 : 0;
+        }
+        return count;
+    }
+
+    private static int nextIndexOf(byte[] expected, byte state, int fromIndex) {
+        for (int i = Math.max(0, fromIndex); i < expected.length; i++) {
+            if (expected[i] == state) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void assertSameStates(byte[] expected, PackedStates states) {
+        assertEquals(expected.length, states.length());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], states.get(i), "card " + i);
+        }
+        for (byte state = 0; state < 4; state++) {
+            assertEquals(count(expected, state), states.count(state), "count of " + state);
+            for (int from = -1; from <= expected.length + 1; from++) {
+                assertEquals(nextIndexOf(expected, state, from), states.nextIndexOf(state, from),
+                        "next " + state + " from " + from);
+            }
+        }
+    }
+
+    @Test
+    void wordParallelQueriesMatchACardByCardScan() {
+        SplittableRandom random = new SplittableRandom(13);
+        PackedStates states = new PackedStates();
+        for (int length : LENGTHS) {
+            byte initial = (byte) random.nextInt(4);
+            byte[] expected = new byte[length];
+            Arrays.fill(expected, initial);
+            states.reset(length, initial);
+            assertSameStates(expected, states);
+
+            for (int step = 0; step < 40 && length > 0; step++) {
+                byte state = (byte) random.nextInt(4);
+                if (random.nextBoolean()) {
+                    int index = random.nextInt(length);
+                    expected[index] = state;
+                    states.set(index, state);
+                } else {
+                    int from = random.nextInt(length + 1);
+                    int to = random.nextInt(from, length + 1);
+                    Arrays.fill(expected, from, to, state);
+                    states.fill(from, to, state);
+                }
+                assertSameStates(expected, states);
+            }
+        }
+    }
+
+    @Test
+    void slotsPastTheLengthAreNeverReported() {
+        PackedStates states = new PackedStates();
+        states.reset(100, GameEngine.FACE_UP);
+        // Shrinking keeps the words, which must not leak the old cards
+        states.reset(33, GameEngine.EXCLUDED);
+        assertEquals(33, states.count(GameEngine.EXCLUDED));
+        assertEquals(0, states.count(GameEngine.FACE_UP));
+        assertEquals(-1, states.nextIndexOf(GameEngine.EXCLUDED, 33));
+        assertEquals(-1, states.nextIndexOf(GameEngine.FACE_UP, 0));
+
+        states.reset(70, GameEngine.FACE_DOWN);
+        assertEquals(70, states.count(GameEngine.FACE_DOWN));
+        assertEquals(0, states.count(GameEngine.EXCLUDED));
+        assertEquals(0, states.count(GameEngine.FACE_UP));
+    }
+
+    @Test
+    void fillChecksItsRange() {
+        PackedStates states = new PackedStates();
+        states.reset(40, GameEngine.FACE_DOWN);
+        assertThrows(IndexOutOfBoundsException.class, () -> states.fill(-1, 3, GameEngine.FACE_UP));
+        assertThrows(IndexOutOfBoundsException.class, () -> states.fill(30, 41, GameEngine.FACE_UP));
+        assertThrows(IndexOutOfBoundsException.class, () -> states.fill(5, 4, GameEngine.FACE_UP));
+        states.fill(40, 40, GameEngine.FACE_UP);
+        assertEquals(40, states.count(GameEngine.FACE_DOWN));
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.danidrd.matchingpairs.server;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameServerTest {
+    private GameServer server;
+
+    @BeforeEach
+    void startServer() throws IOException {
+        server = new GameServer(0, 4);
+        server.start();
+    }
+
+    @AfterEach
+    void closeServer() throws IOException {
+        server.close();
+    }
+
+    /**
+     * A connection to the server sending one request line at a time.
+     */
+    private final class Client implements Closeable {
+        final Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort());
+        final BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+        final Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII);
+
+        Client() throws IOException {
+        }
+
+        String request(String line) throws IOException {
+            out.write(line + "\n");
+            out.flush();
+            return in.readLine();
+        }
+
+        long newSession() throws IOException {
+            String[] reply = request("NEW 2 4").split(" ");
+            assertEquals("OK", reply[0]);
+            return Long.parseLong(reply[1]);
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    private void awaitSessions(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        while (server.getRegistry().size() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, server.getRegistry().size());
+    }
+
+    @Test
+    void theSessionsOfADroppedConnectionAreClosed() throws Exception {
+        try (Client other = new Client()) {
+            long kept = other.newSession();
+            try (Client client = new Client()) {
+                client.newSession();
+                client.newSession();
+                awaitSessions(3);
+            }
+            awaitSessions(1);
+            assertNotNull(server.getRegistry().get(kept));
+        }
+        awaitSessions(0);
+    }
+
+    @Test
+    void theSessionsOfAConnectionAreClosedOnQuit() throws Exception {
+        try (Client client = new Client()) {
+            long closed = client.newSession();
+            client.newSession();
+            assertEquals("OK", client.request("CLOSE " + closed));
+            assertEquals("ERR no session " + closed, client.request("CLOSE " + closed));
+            awaitSessions(1);
+
+            client.out.write("QUIT\n");
+            client.out.flush();
+            assertNull(client.in.readLine());
+        }
+        awaitSessions(0);
+    }
+}
@@ -0,0 +1,176 @@
+package io.github.danidrd.matchingpairs.server;
+
+import io.github.danidrd.matchingpairs.model.FlipResult;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameSessionTest {
+
+    private static int partnerOf(GameEngine engine, int index) {
+        for (int i = 0; i < engine.getCardCount(); i++) {
+            if (i != index && engine.getValue(i) == engine.getValue(index)) {
+                return i;
+            }
+        }
+        throw new AssertionError("Card " + index + " has no partner");
+    }
+
+    private static FlipResult flip(GameSession session, int player, int index) {
+        GameSession.FlipReply reply = new GameSession.FlipReply();
+        session.flip(player, index, reply);
+        return reply.result;
+    }
+
+    /**
+     * @return the lowest card index other than the given ones
+     */
+    private static int otherThan(int... cards) {
+        int index = 0;
+        while (contains(cards, index)) {
+            index++;
+        }
+        return index;
+    }
+
+    private static boolean contains(int[] cards, int index) {
+        for (int card : cards) {
+            if (card == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Test
+    void dealsLikeAGameEngineFromTheSameSeed() {
+        GameEngine engine = new GameEngine(1);
+        engine.reset(50, 77L);
+        GameSession.FlipReply reply = new GameSession.FlipReply();
+        for (int i = 0; i < engine.getCardCount(); i++) {
+            new GameSession(1, 1, 50, 77L).flip(0, i, reply);
+            assertEquals(FlipResult.FIRST, reply.result);
+            assertEquals(engine.getValue(i), reply.value);
+        }
+    }
+
+    @Test
+    void aMatchedPairIsExcludedBeforeTheNextFlipIsValidated() {
+        GameEngine engine = new GameEngine(2);
+        engine.reset(4, 3L);
+        GameSession session = new GameSession(1, 2, 4, 3L);
+        int first = 0;
+        int partner = partnerOf(engine, first);
+
+        assertEquals(FlipResult.FIRST, flip(session, 0, first));
+        assertEquals(FlipResult.MATCH, flip(session, 0, partner));
+        // The pair is only marked in the turn word; the next flips exclude it first
+        assertEquals(FlipResult.IGNORED, flip(session, 0, partner));
+        assertEquals(FlipResult.IGNORED, flip(session, 0, first));
+        // A match keeps the turn
+        int other = otherThan(first, partner);
+        assertEquals(FlipResult.IGNORED, flip(session, 1, other));
+        assertEquals(FlipResult.FIRST, flip(session, 0, other));
+        assertEquals(FlipResult.IGNORED, flip(session, 0, other));
+        assertEquals(3, session.getTotalFlips());
+    }
+
+    @Test
+    void aMismatchPassesTheTurn() {
+        GameEngine engine = new GameEngine(3);
+        engine.reset(4, 9L);
+        GameSession session = new GameSession(1, 3, 4, 9L);
+        int other = otherThan(0, partnerOf(engine, 0));
+
+        assertEquals(FlipResult.IGNORED, flip(session, 1, 0));
+        assertEquals(FlipResult.FIRST, flip(session, 0, 0));
+        assertEquals(FlipResult.MISMATCH, flip(session, 0, other));
+        assertEquals(FlipResult.IGNORED, flip(session, 0, 0));
+        // The mismatched cards are face down again for the next player
+        assertEquals(FlipResult.FIRST, flip(session, 1, 0));
+        assertEquals(FlipResult.IGNORED, flip(session, 2, other));
+    }
+
+    /**
+     * The accepted flips of a game, indexed by the total number of flips once each was accepted.
+     */
+    private record Flips(int[] players, int[] cards, FlipResult[] results) {
+        Flips(int capacity) {
+            this(new int[capacity], new int[capacity], new FlipResult[capacity]);
+        }
+    }
+
+    @Test
+    void racingFlipsAreAcceptedInTurnOrderAndAgreeWithAnEngine() throws Exception {
+        int players = 3;
+        int pairs = 12;
+        int threadsPerPlayer = 2;
+        for (int game = 0; game < 100; game++) {
+            long seed = game;
+            GameSession session = new GameSession(game, players, pairs, seed);
+            Flips flips = new Flips(1 << 16);
+            AtomicIntegerArray winners = new AtomicIntegerArray(players * threadsPerPlayer);
+            List<Throwable> failures = new ArrayList<>();
+            CountDownLatch start = new CountDownLatch(1);
+            List<Thread> threads = new ArrayList<>();
+            for (int t = 0; t < players * threadsPerPlayer; t++) {
+                int player = t % players;
+                int thread = t;
+                SplittableRandom random = new SplittableRandom(seed * 31 + t);
+                threads.add(Thread.ofPlatform().start(() -> {
+                    try {
+                        start.await();
+                        GameSession.FlipReply reply = new GameSession.FlipReply();
+                        do {
+                            int index = random.nextInt(pairs * 2);
+                            session.flip(player, index, reply);
+                            if (reply.result != FlipResult.IGNORED) {
+                                assertNull(flips.results()[reply.totalFlips], "flip " + reply.totalFlips + " accepted twice");
+                                flips.players()[reply.totalFlips] = player;
+                                flips.cards()[reply.totalFlips] = index;
+                                flips.results()[reply.totalFlips] = reply.result;
+                            }
+                            if (reply.result == FlipResult.IGNORED && !reply.complete) {
+                                Thread.yield();
+                            }
+                        } while (!reply.complete);
+                        winners.set(thread, reply.playerIndex);
+                    } catch (Throwable e) {
+                        synchronized (failures) {
+                            failures.add(e);
+                        }
+                    }
+                }));
+            }
+            start.countDown();
+            for (Thread thread : threads) {
+                thread.join();
+            }
+            assertEquals(List.of(), failures);
+
+            // Every accepted flip, replayed in order, is accepted by an engine with the same outcome
+            GameEngine engine = new GameEngine(players);
+            engine.reset(pairs, seed);
+            int total = session.getTotalFlips();
+            for (int k = 1; k <= total; k++) {
+                engine.resolveMismatch();
+                assertEquals(engine.getCurrentPlayerIndex(), flips.players()[k], "player of flip " + k);
+                assertEquals(engine.flip(flips.cards()[k]), flips.results()[k], "flip " + k);
+            }
+            assertTrue(engine.isComplete());
+            assertTrue(session.isComplete());
+            assertEquals(engine.getTotalFlips(), total);
+            // Every thread saw the end of the game with the winner ranked from settled counters
+            for (int t = 0; t < winners.length(); t++) {
+                assertEquals(engine.getWinnerIndex(), winners.get(t));
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.danidrd.matchingpairs.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoadGeneratorTest {
+
+    @Test
+    void everyGamePlayedAgainstTheServerAgreesWithItsMirror() throws Exception {
+        try (GameServer server = new GameServer(0, 16)) {
+            server.start();
+            LoadGenerator generator = new LoadGenerator(server.getPort(), 2, 8, 3);
+            long[] latencies = generator.run(4);
+
+            assertEquals(0, generator.getErrors());
+            // A game of 8 pairs takes at least 16 flips
+            assertTrue(latencies.length >= 4 * 3 * 16);
+            for (int i = 1; i < latencies.length; i++) {
+                assertTrue(latencies[i - 1] <= latencies[i]);
+            }
+        }
+    }
+
+    @Test
+    void aClientGettingAWrongReplyIsCountedOnce() throws Exception {
+        int clients = 3;
+        try (ServerSocket listener = new ServerSocket(0, 16, InetAddress.getLoopbackAddress())) {
+            // Creates sessions like a server, then answers every flip with a result no board gives
+            Thread.ofVirtual().start(() -> {
+                while (!listener.isClosed()) {
+                    try {
+                        Socket socket = listener.accept();
+                        Thread.ofVirtual().start(() -> answerWrongly(socket));
+                    } catch (IOException e) {
+                        return;
+                    }
+                }
+            });
+
+            LoadGenerator generator = new LoadGenerator(listener.getLocalPort(), 1, 4, 2);
+            long[] latencies = generator.run(clients);
+
+            assertEquals(clients, generator.getErrors());
+            // The moves of a failed client are dropped with it
+            assertEquals(0, latencies.length);
+        }
+    }
+
+    private static void answerWrongly(Socket socket) {
+        try (socket;
+             BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+             Writer out = new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.US_ASCII)) {
+            for (String line = in.readLine(); line != null; line = in.readLine()) {
+                out.write(line.startsWith("NEW") ? "OK 1 42\n" : "IGNORED -1\n");
+                out.flush();
+            }
+        } catch (IOException e) {
+            // The client hung up
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package io.github.danidrd.matchingpairs.sim;
+
+import io.github.danidrd.matchingpairs.bot.BotStrategy;
+import io.github.danidrd.matchingpairs.leaderboard.Leaderboard;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TournamentTest {
+    private static final int PAIRS = 6;
+
+    private static List<Supplier<BotStrategy>> bots() {
+        return List.of(MonteCarloSimulator.strategy("perfect"), MonteCarloSimulator.strategy("bounded:4"),
+                MonteCarloSimulator.strategy("random"));
+    }
+
+    /**
+     * The games of a bracket: one per table of two players or more, in every round.
+     */
+    private static long gamesOf(int players, int tableSize) {
+        long games = 0;
+        while (players > 1) {
+            int tables = (players + tableSize - 1) / tableSize;
+            games += players % tableSize == 1 ? tables - 1 : tables;
+            players = tables;
+        }
+        return games;
+    }
+
+    @Test
+    void aPlayerAloneAtTheLastTableAdvancesWithoutPlaying() {
+        Tournament tournament = new Tournament(bots(), 4, 3L, 2);
+        try {
+            List<Tournament.Round> rounds = new ArrayList<>();
+            Leaderboard leaderboard = new Leaderboard();
+            int champion = tournament.run(5, PAIRS, leaderboard, null, rounds::add);
+
+            // One table of four and a bye, then the bye meets the winner of the table
+            assertEquals(2, rounds.size());
+            assertEquals(5, rounds.get(0).players());
+            assertEquals(1, rounds.get(0).games());
+            assertEquals(2, rounds.get(1).players());
+            assertEquals(1, rounds.get(1).games());
+            assertTrue(champion >= 0 && champion < 5);
+            assertEquals(2, tournament.getGames());
+            assertEquals(2, leaderboard.getCount(PAIRS));
+
+            rounds.clear();
+            assertEquals(0, tournament.run(1, PAIRS, leaderboard, null, rounds::add));
+            assertTrue(rounds.isEmpty());
+            assertEquals(2, tournament.getGames());
+        } finally {
+            tournament.shutdown();
+        }
+    }
+
+    @Test
+    void theChampionDoesNotDependOnTheNumberOfThreads() {
+        int players = 2_000;
+        int expectedChampion = -1;
+        long expectedFlips = -1;
+        for (int threads : new int[]{1, 2, 4}) {
+            Tournament tournament = new Tournament(bots(), 3, 42L, threads);
+            try {
+                int champion = tournament.run(players, PAIRS, new Leaderboard(), null, round -> { });
+                if (expectedChampion < 0) {
+                    expectedChampion = champion;
+                    expectedFlips = tournament.getFlips();
+                }
+                assertEquals(expectedChampion, champion, threads + " threads");
+                assertEquals(expectedFlips, tournament.getFlips(), threads + " threads");
+            } finally {
+                tournament.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void everyTableAddsOneLeaderboardEntry() {
+        for (int tableSize = 2; tableSize <= Tournament.MAX_TABLE_SIZE; tableSize++) {
+            for (int players : new int[]{2, 7, 64, 1_001}) {
+                Tournament tournament = new Tournament(bots(), tableSize, players, 4);
+                try {
+                    Leaderboard leaderboard = new Leaderboard();
+                    long[] roundGames = {0};
+                    tournament.run(players, PAIRS, leaderboard, null, round -> roundGames[0] += round.games());
+
+                    long games = gamesOf(players, tableSize);
+                    assertEquals(games, tournament.getGames(), players + " players at tables of " + tableSize);
+                    assertEquals(games, roundGames[0]);
+                    assertEquals(games, leaderboard.getCount(PAIRS));
+                    assertEquals(games, tournament.getGameLatency().getCount());
+                } finally {
+                    tournament.shutdown();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package io.github.danidrd.matchingpairs.view;
+
+import io.github.danidrd.matchingpairs.controller.GameController;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.awt.GraphicsEnvironment;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+class BoardViewTest {
+    private static final int[] SIZES = {4, 8, 600, 2, 16};
+
+    @Test
+    void resizingTheBoardDoesNotAddButtonListeners() throws Exception {
+        // A frame needs a display
+        assumeFalse(GraphicsEnvironment.isHeadless());
+        SwingUtilities.invokeAndWait(() -> {
+            GameController controller = new GameController(List.of("Alice", "Bob"));
+            controller.setCheckpointFile(null);
+            BoardView boardView = new BoardView(controller);
+            try {
+                controller.initialize(boardView);
+                int shuffleListeners = boardView.getShuffleButton().getActionListeners().length;
+                int exitListeners = boardView.getExitButton().getActionListeners().length;
+                assertEquals(1, shuffleListeners);
+
+                for (int cycle = 0; cycle < 3; cycle++) {
+                    for (int pairs : SIZES) {
+                        boardView.resizeBoard(controller, pairs);
+                        assertEquals(pairs, boardView.getNumberOfPairs());
+                        assertEquals(shuffleListeners, boardView.getShuffleButton().getActionListeners().length);
+                        assertEquals(exitListeners, boardView.getExitButton().getActionListeners().length);
+                    }
+                }
+
+                // One click is still one shuffle, dealt once
+                GameEngine engine = controller.getEngine();
+                int[] boardEvents = new int[1];
+                engine.addBoardListener((source, fromIndex, toIndex) -> boardEvents[0]++);
+                long shuffles = controller.getMetrics().getShuffleRecorder().getCount();
+                boardView.getShuffleButton().doClick();
+                assertEquals(shuffles + 1, controller.getMetrics().getShuffleRecorder().getCount());
+                assertEquals(1, boardEvents[0]);
+                assertEquals(16, engine.getNumberOfPairs());
+            } finally {
+                boardView.dispose();
+            }
+        });
+    }
+}
@@ -0,0 +1,228 @@
+package io.github.danidrd.matchingpairs.view;
+
+import io.github.danidrd.matchingpairs.controller.GameController;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardBoardTest {
+    private static final int[] SIZES = {4, 8, 600, 2, 16};
+
+    private GameController controller;
+    private GameEngine engine;
+    private CardBoard board;
+    // Board events of the engine and the cards they covered
+    private int boardEvents;
+    private int boardCards;
+
+    private static void onEdt(Runnable task) throws Exception {
+        SwingUtilities.invokeAndWait(task);
+    }
+
+    /**
+     * Waits for the batched redraws and the pool building queued on the event dispatch thread.
+     */
+    private void drainEdt() throws Exception {
+        int[] poolSize = {-1};
+        int previous;
+        do {
+            previous = poolSize[0];
+            onEdt(() -> poolSize[0] = board.getPoolSize());
+        } while (poolSize[0] != previous);
+        onEdt(() -> { });
+    }
+
+    @BeforeEach
+    void createBoard() throws Exception {
+        onEdt(() -> {
+            controller = new GameController(List.of("Alice", "Bob"));
+            engine = controller.getEngine();
+            board = new CardBoard(engine, controller.getEventBus(), controller.getMetrics());
+            engine.addBoardListener((source, fromIndex, toIndex) -> {
+                boardEvents++;
+                boardCards += toIndex - fromIndex;
+            });
+        });
+    }
+
+    /**
+     * Resizes the board the way the window does, through the controller.
+     */
+    private void resize(int pairs) {
+        assertTrue(controller.resizeBoard(pairs));
+    }
+
+    @Test
+    void aResizeDealsTheBoardOnceAndShowsIt() throws Exception {
+        for (int cycle = 0; cycle < 3; cycle++) {
+            for (int pairs : SIZES) {
+                onEdt(() -> {
+                    long boards = controller.getMetrics().getBoardRecorder().getCount();
+                    long shuffles = controller.getMetrics().getShuffleRecorder().getCount();
+                    int shownCards = board.getCardCount();
+                    boardEvents = 0;
+                    boardCards = 0;
+
+                    resize(pairs);
+
+                    assertEquals(1, boardEvents);
+                    assertEquals(pairs * 2, boardCards);
+                    assertEquals(pairs * 2, engine.getCardCount());
+                    assertEquals(pairs * 2, board.getCardCount());
+                    assertEquals(shuffles + 1, controller.getMetrics().getShuffleRecorder().getCount());
+                    // The board is only rebuilt when its size changes
+                    assertEquals(shownCards == pairs * 2 ? boards : boards + 1,
+                            controller.getMetrics().getBoardRecorder().getCount());
+                });
+            }
+        }
+    }
+
+    @Test
+    void aResizeIsRefusedWhileAMismatchIsPending() throws Exception {
+        onEdt(() -> {
+            controller.setFastTurns(false);
+            controller.setRevealDelayMillis(50);
+            resize(4);
+            int mismatch = 1;
+            while (engine.getValue(mismatch) == engine.getValue(0)) {
+                mismatch++;
+            }
+            controller.getEventBus().requestCardState(0, GameEngine.FACE_DOWN, GameEngine.FACE_UP);
+            controller.getEventBus().requestCardState(mismatch, GameEngine.FACE_DOWN, GameEngine.FACE_UP);
+            assertTrue(controller.isTimerActive());
+            long shuffles = controller.getMetrics().getShuffleRecorder().getCount();
+            boardEvents = 0;
+
+            assertFalse(controller.resizeBoard(8));
+
+            assertEquals(0, boardEvents);
+            assertEquals(shuffles, controller.getMetrics().getShuffleRecorder().getCount());
+            assertEquals(8, engine.getCardCount());
+            assertEquals(8, board.getCardCount());
+            assertEquals(0, engine.getCurrentPlayerIndex());
+            assertEquals(2, engine.getTotalFlips());
+            assertEquals(GameEngine.FACE_UP, engine.getState(mismatch));
+        });
+
+        // The pending mismatch passes the turn from the player who made it
+        long deadline = System.nanoTime() + 5_000_000_000L;
+        boolean[] pending = {true};
+        while (pending[0] && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            onEdt(() -> pending[0] = controller.isTimerActive());
+        }
+        onEdt(() -> {
+            assertFalse(controller.isTimerActive());
+            assertEquals(1, engine.getCurrentPlayerIndex());
+            assertEquals(GameEngine.FACE_DOWN, engine.getState(0));
+        });
+    }
+
+    @Test
+    void aShuffleDealsTheBoardOnceHoweverOftenItWasResized() throws Exception {
+        for (int cycle = 0; cycle < 10; cycle++) {
+            for (int pairs : SIZES) {
+                onEdt(() -> {
+                    resize(pairs);
+                    long shuffles = controller.getMetrics().getShuffleRecorder().getCount();
+                    boardEvents = 0;
+                    boardCards = 0;
+
+                    controller.getEventBus().fireShuffleRequested();
+
+                    assertEquals(shuffles + 1, controller.getMetrics().getShuffleRecorder().getCount());
+                    assertEquals(1, boardEvents);
+                    assertEquals(pairs * 2, boardCards);
+                    assertEquals(pairs * 2, board.getCardCount());
+                });
+            }
+        }
+    }
+
+    @Test
+    void theBoardShowsExactlyTheCardsOfTheEngine() throws Exception {
+        for (int cycle = 0; cycle < 3; cycle++) {
+            for (int pairs : SIZES) {
+                onEdt(() -> resize(pairs));
+                drainEdt();
+                onEdt(() -> {
+                    int totalCards = pairs * 2;
+                    assertEquals(totalCards, engine.getCardCount());
+                    assertEquals(totalCards, board.getCardCount());
+                    if (totalCards > CardBoard.VIRTUAL_GRID_THRESHOLD) {
+                        assertTrue(board.getCards().isEmpty());
+                        assertEquals(totalCards, board.getCardGrid().getCardCount());
+                        assertEquals(1, board.getComponentCount());
+                    } else {
+                        assertNull(board.getCardGrid());
+                        assertEquals(totalCards, board.getCards().size());
+                        assertEquals(totalCards, board.getComponentCount());
+                        for (int i = 0; i < totalCards; i++) {
+                            CardView card = board.getCards().get(i);
+                            assertSame(card, board.getComponent(i));
+                            assertEquals(i, card.getIndex());
+                            // One flip listener per card, however often it went back to the pool
+                            assertEquals(1, card.getActionListeners().length);
+                        }
+                    }
+                });
+            }
+        }
+    }
+
+    @Test
+    void aClickOnAReusedCardFlipsItOnce() throws Exception {
+        for (int pairs : SIZES) {
+            onEdt(() -> resize(pairs));
+        }
+        onEdt(() -> resize(8));
+        drainEdt();
+        onEdt(() -> {
+            long flips = controller.getMetrics().getFlips();
+            board.getCards().get(3).doClick();
+            assertEquals(flips + 1, controller.getMetrics().getFlips());
+            assertEquals(1, engine.getTotalFlips());
+            assertEquals(GameEngine.FACE_UP, engine.getState(3));
+        });
+    }
+
+    @Test
+    void theCardPoolStopsGrowingOnceEverySizeWasShown() throws Exception {
+        for (int pairs : SIZES) {
+            onEdt(() -> resize(pairs));
+            drainEdt();
+        }
+        int[] poolSize = new int[1];
+        List<CardView> pooled = new ArrayList<>();
+        onEdt(() -> {
+            poolSize[0] = board.getPoolSize();
+            resize(512);
+            pooled.addAll(board.getCards());
+        });
+        drainEdt();
+
+        for (int cycle = 0; cycle < 10; cycle++) {
+            for (int pairs : SIZES) {
+                onEdt(() -> resize(pairs));
+                drainEdt();
+                onEdt(() -> {
+                    assertEquals(poolSize[0], board.getPoolSize());
+                    assertTrue(board.getPoolSize() <= CardBoard.VIRTUAL_GRID_THRESHOLD);
+                });
+            }
+        }
+
+        // Cards in both boards stay the same components
+        onEdt(() -> {
+            resize(512);
+            assertEquals(pooled, board.getCards());
+        });
+    }
+}
@@ -0,0 +1,98 @@
+package io.github.danidrd.matchingpairs.view;
+
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardFacesTest {
+    // Large enough tiles for the pixel budget to leave the minimum of 4 value tiles
+    private static final int SIZE = 512;
+
+    /**
+     * Draws a face on its own image and returns its pixels.
+     */
+    private static int[] render(CardFaces faces, byte state, int value, int size) {
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            faces.draw(g, state, value, 0, 0, size, size);
+        } finally {
+            g.dispose();
+        }
+        return image.getRGB(0, 0, size, size, null, 0, size);
+    }
+
+    private static void drawFaceUp(CardFaces faces, int... values) {
+        for (int value : values) {
+            render(faces, GameEngine.FACE_UP, value, SIZE);
+        }
+    }
+
+    @Test
+    void theLeastRecentlyDrawnValueLosesItsTile() {
+        CardFaces faces = new CardFaces();
+        drawFaceUp(faces, 1, 2, 3, 4);
+        assertEquals(4, faces.getCapacity());
+        for (int value = 1; value <= 4; value++) {
+            assertTrue(faces.hasTile(value), "value " + value);
+        }
+
+        // Drawing 1 again makes 2 the least recent
+        drawFaceUp(faces, 1, 5);
+        assertFalse(faces.hasTile(2));
+        for (int value : new int[]{1, 3, 4, 5}) {
+            assertTrue(faces.hasTile(value), "value " + value);
+        }
+
+        drawFaceUp(faces, 2);
+        assertFalse(faces.hasTile(3));
+        assertTrue(faces.hasTile(1));
+
+        // The back and the excluded face never take a value tile
+        render(faces, GameEngine.FACE_DOWN, 0, SIZE);
+        render(faces, GameEngine.EXCLUDED, 0, SIZE);
+        for (int value : new int[]{1, 2, 4, 5}) {
+            assertTrue(faces.hasTile(value), "value " + value);
+        }
+    }
+
+    @Test
+    void aReusedTileIsDrawnLikeAFreshOne() {
+        CardFaces faces = new CardFaces();
+        // Value 7 ends up in a tile which held other values first
+        drawFaceUp(faces, 10, 11, 12, 13, 14, 15, 7, 16, 17, 18, 19, 7);
+        int[] fresh = render(new CardFaces(), GameEngine.FACE_UP, 7, SIZE);
+        assertArrayEquals(fresh, render(faces, GameEngine.FACE_UP, 7, SIZE));
+        assertArrayEquals(render(new CardFaces(), GameEngine.FACE_UP, 19, SIZE),
+                render(faces, GameEngine.FACE_UP, 19, SIZE));
+
+        assertEquals(CardStyle.FACE_UP.getRGB(), fresh[0]);
+        assertEquals(CardStyle.FACE_DOWN.getRGB(), render(faces, GameEngine.FACE_DOWN, 0, SIZE)[0]);
+        assertEquals(CardStyle.EXCLUDED.getRGB(), render(faces, GameEngine.EXCLUDED, 0, SIZE)[0]);
+    }
+
+    @Test
+    void aNewCardSizeRasterizesTheFacesAgain() {
+        CardFaces faces = new CardFaces();
+        drawFaceUp(faces, 1, 2, 3);
+
+        // A million pixels hold 104 tiles of 100 by 100, two of them for the back and the excluded face
+        int[] small = render(faces, GameEngine.FACE_UP, 2, 100);
+        assertEquals(102, faces.getCapacity());
+        assertFalse(faces.hasTile(1));
+        assertTrue(faces.hasTile(2));
+        assertArrayEquals(render(new CardFaces(), GameEngine.FACE_UP, 2, 100), small);
+
+        // Nothing is drawn, nor cached, for an empty card
+        Graphics2D g = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).createGraphics();
+        faces.draw(g, GameEngine.FACE_UP, 9, 0, 0, 0, 100);
+        faces.draw(g, GameEngine.FACE_UP, 9, 0, 0, 100, -1);
+        g.dispose();
+        assertFalse(faces.hasTile(9));
+        assertEquals(102, faces.getCapacity());
+    }
+}
@@ -0,0 +1,62 @@
+package io.github.danidrd.matchingpairs.view;
+
+import io.github.danidrd.matchingpairs.event.GameEventBus;
+import io.github.danidrd.matchingpairs.model.GameEngine;
+import org.junit.jupiter.api.Test;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CardViewTest {
+    private static final int SIZE = 80;
+
+    /**
+     * Paints the card on its own image and returns the color at its center.
+     */
+    private static Color paintedCenter(CardView card) {
+        BufferedImage image = new BufferedImage(SIZE, SIZE, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            card.paintComponent(g);
+        } finally {
+            g.dispose();
+        }
+        return new Color(image.getRGB(SIZE / 2, SIZE / 2));
+    }
+
+    @Test
+    void pressedAndRolloverCardsAreDrawnOverTheCachedFace() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            GameEngine engine = new GameEngine(1);
+            engine.reset(2);
+            CardView card = new CardView(engine, 0, new GameEventBus(), new CardFaces());
+            card.setSize(SIZE, SIZE);
+            card.refresh();
+            Color face = paintedCenter(card);
+            assertEquals(CardStyle.FACE_DOWN, face);
+
+            card.getModel().setRollover(true);
+            Color rollover = paintedCenter(card);
+            assertTrue(rollover.getRed() > face.getRed() && rollover.getBlue() > face.getBlue());
+
+            card.getModel().setArmed(true);
+            card.getModel().setPressed(true);
+            Color pressed = paintedCenter(card);
+            assertTrue(pressed.getGreen() < face.getGreen());
+
+            card.getModel().setPressed(false);
+            card.getModel().setArmed(false);
+            card.getModel().setRollover(false);
+            assertEquals(face, paintedCenter(card));
+
+            // An excluded card is disabled and shows no highlight
+            engine.setStates(0, 2, GameEngine.EXCLUDED);
+            card.refresh();
+            card.getModel().setRollover(true);
+            assertEquals(CardStyle.EXCLUDED, paintedCenter(card));
+        });
+    }
+}